@@ -0,0 +1,45 @@
+package org.example.controller;
+
+import org.example.dto.ApiResponseDTO;
+import org.example.service.AlertHistoryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * 告警历史控制器
+ */
+@RestController
+@RequestMapping("/api/alert-history")
+public class AlertHistoryController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AlertHistoryController.class);
+    
+    @Autowired
+    private AlertHistoryService alertHistoryService;
+    
+    /**
+     * 分页查询告警历史，翻页时传入上一页返回的 nextCursor（beforeTime、beforeId）
+     */
+    @GetMapping("/list")
+    public ApiResponseDTO<Map<String, Object>> getAlertHistory(@RequestParam(required = false) Long instanceId,
+                                                               @RequestParam(required = false) String severity,
+                                                               @RequestParam(required = false) String status,
+                                                               @RequestParam(required = false) Long beforeTime,
+                                                               @RequestParam(required = false) Long beforeId,
+                                                               @RequestParam(defaultValue = "50") int size) {
+        try {
+            if ((beforeTime == null) != (beforeId == null)) {
+                return ApiResponseDTO.paramError("beforeTime 和 beforeId 需同时提供");
+            }
+            return ApiResponseDTO.success(alertHistoryService.getHistory(instanceId, severity, status,
+                    beforeTime, beforeId, size));
+        } catch (Exception e) {
+            logger.error("查询告警历史失败", e);
+            return ApiResponseDTO.serverError("查询告警历史失败：" + e.getMessage());
+        }
+    }
+}
@@ -1,14 +1,37 @@
 package org.example.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.dto.ApiResponseDTO;
+import org.example.dto.InstanceHealthDTO;
+import org.example.dto.PageQueryDTO;
 import org.example.entity.DatabaseInstance;
+import org.example.entity.LockBlocker;
+import org.example.entity.TableSizeSample;
+import org.example.service.AnomalyDetectionService;
+import org.example.service.CapacityService;
 import org.example.service.DatabaseInstanceService;
 import org.example.service.DatabaseMonitoringService;
+import org.example.service.InstanceHealthService;
+import org.example.service.LockWaitService;
+import org.example.service.MonitoringCollectorService;
+import org.example.service.MonitoringHistoryService;
+import org.example.service.MonitoringStreamService;
+import org.example.service.ProcesslistTrackerService;
+import org.example.service.QueryDigestService;
+import org.example.service.ReplicationTopologyService;
+import org.example.service.SlowLogService;
+import org.example.service.StatementDigestService;
+import org.example.service.TableSpaceService;
+import org.example.util.JsonStreamWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.UncheckedIOException;
 import java.util.*;
 
 /**
@@ -20,12 +43,60 @@ public class SystemMonitoringController {
     
     private static final Logger logger = LoggerFactory.getLogger(SystemMonitoringController.class);
     
+    /** 分页接口每页最大条数 */
+    private static final int MAX_PAGE_SIZE = 500;
+    
+    /** 慢查询导出的默认时间范围 */
+    private static final long DEFAULT_EXPORT_RANGE = 24 * 60 * 60 * 1000L;
+    
     @Autowired
     private DatabaseInstanceService databaseInstanceService;
     
     @Autowired
     private DatabaseMonitoringService databaseMonitoringService;
     
+    @Autowired
+    private MonitoringCollectorService monitoringCollectorService;
+    
+    @Autowired
+    private MonitoringHistoryService monitoringHistoryService;
+    
+    @Autowired
+    private MonitoringStreamService monitoringStreamService;
+    
+    @Autowired
+    private InstanceHealthService instanceHealthService;
+    
+    @Autowired
+    private AnomalyDetectionService anomalyDetectionService;
+    
+    @Autowired
+    private QueryDigestService queryDigestService;
+    
+    @Autowired
+    private StatementDigestService statementDigestService;
+    
+    @Autowired
+    private SlowLogService slowLogService;
+    
+    @Autowired
+    private ProcesslistTrackerService processlistTrackerService;
+    
+    @Autowired
+    private LockWaitService lockWaitService;
+    
+    @Autowired
+    private TableSpaceService tableSpaceService;
+    
+    @Autowired
+    private CapacityService capacityService;
+    
+    @Autowired
+    private ReplicationTopologyService replicationTopologyService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
     /**
      * 获取监控实例列表
      */
@@ -41,6 +112,32 @@ public class SystemMonitoringController {
         }
     }
     
+    /**
+     * 获取所有启用实例的监控概览（并行采集，单实例超时返回timeout标记）
+     */
+    @GetMapping("/overview")
+    public ApiResponseDTO<Map<String, Object>> getOverview() {
+        try {
+            long start = System.currentTimeMillis();
+            List<Map<String, Object>> instances = monitoringCollectorService.collectOverview();
+            
+            Map<String, Integer> stateCount = new HashMap<>();
+            for (Map<String, Object> item : instances) {
+                stateCount.merge(String.valueOf(item.get("state")), 1, Integer::sum);
+            }
+            
+            Map<String, Object> result = new HashMap<>();
+            result.put("instances", instances);
+            result.put("total", instances.size());
+            result.put("states", stateCount);
+            result.put("elapsed", System.currentTimeMillis() - start);
+            return ApiResponseDTO.success(result);
+        } catch (Exception e) {
+            logger.error("获取监控概览失败", e);
+            return ApiResponseDTO.serverError("获取监控概览失败：" + e.getMessage());
+        }
+    }
+    
     @GetMapping("/test-connection")
     public ApiResponseDTO<String> testConnection() {
         try {
@@ -53,6 +150,357 @@ public class SystemMonitoringController {
         }
     }
     
+    /**
+     * 获取实例健康状态，refresh=true 时立即重新探测
+     */
+    @GetMapping("/health/{instanceId}")
+    public ApiResponseDTO<InstanceHealthDTO> getInstanceHealth(@PathVariable Long instanceId,
+                                                               @RequestParam(defaultValue = "false") boolean refresh) {
+        try {
+            DatabaseInstance instance = databaseInstanceService.getInstanceById(instanceId);
+            if (instance == null) {
+                return ApiResponseDTO.fail(404, "数据库实例不存在");
+            }
+            InstanceHealthDTO health = refresh ? instanceHealthService.probe(instance)
+                    : instanceHealthService.getHealth(instance);
+            return ApiResponseDTO.success(health);
+        } catch (Exception e) {
+            logger.error("获取实例健康状态失败", e);
+            return ApiResponseDTO.serverError("获取健康状态失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 获取实例各指标的流式基线和当前偏离情况
+     */
+    @GetMapping("/baseline/{instanceId}")
+    public ApiResponseDTO<Map<String, Map<String, Object>>> getBaselines(@PathVariable Long instanceId) {
+        try {
+            return ApiResponseDTO.success(anomalyDetectionService.getBaselines(instanceId));
+        } catch (Exception e) {
+            logger.error("获取指标基线失败", e);
+            return ApiResponseDTO.serverError("获取指标基线失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 获取最近一段时间内执行次数（sortBy=count）或累计耗时（sortBy=time）最高的SQL指纹
+     */
+    @GetMapping("/top-queries/{instanceId}")
+    public ApiResponseDTO<List<Map<String, Object>>> getTopQueries(@PathVariable Long instanceId,
+                                                                   @RequestParam(defaultValue = "60") int minutes,
+                                                                   @RequestParam(defaultValue = "count") String sortBy,
+                                                                   @RequestParam(defaultValue = "20") int limit) {
+        if (!QueryDigestService.SORT_BY_COUNT.equals(sortBy) && !QueryDigestService.SORT_BY_TIME.equals(sortBy)) {
+            return ApiResponseDTO.paramError("sortBy 只支持 count 或 time");
+        }
+        if (minutes <= 0 || limit <= 0) {
+            return ApiResponseDTO.paramError("minutes 和 limit 必须大于0");
+        }
+        try {
+            return ApiResponseDTO.success(queryDigestService.getTopQueries(instanceId, minutes, sortBy, limit));
+        } catch (Exception e) {
+            logger.error("获取TOP SQL失败", e);
+            return ApiResponseDTO.serverError("获取TOP SQL失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 获取最近一段时间内 performance_schema 统计的执行次数（sortBy=count）或累计耗时（sortBy=latency）最高的语句
+     */
+    @GetMapping("/statement-digests/{instanceId}")
+    public ApiResponseDTO<List<Map<String, Object>>> getTopStatements(@PathVariable Long instanceId,
+                                                                      @RequestParam(defaultValue = "60") int minutes,
+                                                                      @RequestParam(defaultValue = "latency") String sortBy,
+                                                                      @RequestParam(defaultValue = "20") int limit) {
+        if (!StatementDigestService.SORT_BY_COUNT.equals(sortBy)
+                && !StatementDigestService.SORT_BY_LATENCY.equals(sortBy)) {
+            return ApiResponseDTO.paramError("sortBy 只支持 count 或 latency");
+        }
+        if (minutes <= 0 || limit <= 0 || limit > 200) {
+            return ApiResponseDTO.paramError("minutes 必须大于0，limit 取值 1-200");
+        }
+        try {
+            return ApiResponseDTO.success(statementDigestService.getTopStatements(instanceId, minutes, sortBy, limit));
+        } catch (Exception e) {
+            logger.error("获取语句摘要统计失败", e);
+            return ApiResponseDTO.serverError("获取语句摘要统计失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 分页获取已采集的慢查询（按开始时间倒序，游标为上一页最后一条的开始时间和ID）
+     */
+    @GetMapping("/slow-log/{instanceId}")
+    public ApiResponseDTO<Map<String, Object>> getSlowLog(@PathVariable Long instanceId,
+                                                          @RequestParam(required = false) Long beforeTime,
+                                                          @RequestParam(required = false) Long beforeId,
+                                                          @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ApiResponseDTO.success(slowLogService.getSlowQueries(instanceId, beforeTime, beforeId, size));
+        } catch (Exception e) {
+            logger.error("获取慢查询记录失败", e);
+            return ApiResponseDTO.serverError("获取慢查询记录失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 导出时间范围 [from, to)（毫秒时间戳，默认最近24小时）内已采集的慢查询，按开始时间顺序流式输出
+     */
+    @GetMapping(value = "/slow-log/{instanceId}/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    public StreamingResponseBody exportSlowLog(@PathVariable Long instanceId,
+                                               @RequestParam(required = false) Long from,
+                                               @RequestParam(required = false) Long to) {
+        Date end = new Date(to != null ? to : System.currentTimeMillis());
+        Date start = new Date(from != null ? from : end.getTime() - DEFAULT_EXPORT_RANGE);
+        return streamRows("导出慢查询记录", writer -> slowLogService.streamSlowQueries(instanceId, start, end, writer::write));
+    }
+    
+    /**
+     * 获取活跃查询自指定版本以来的变化，since=0 返回全量
+     */
+    @GetMapping("/processlist/{instanceId}")
+    public ApiResponseDTO<Map<String, Object>> getProcesslist(@PathVariable Long instanceId,
+                                                              @RequestParam(defaultValue = "0") long since) {
+        try {
+            return ApiResponseDTO.success(processlistTrackerService.getChanges(instanceId, since));
+        } catch (Exception e) {
+            logger.error("获取活跃查询失败", e);
+            return ApiResponseDTO.serverError("获取活跃查询失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 分页查询当前活跃会话；翻页时传入上一页返回的 nextCursor
+     */
+    @GetMapping("/processlist/{instanceId}/page")
+    public ApiResponseDTO<Map<String, Object>> getProcesslistPage(@PathVariable Long instanceId,
+                                                                  @RequestParam(required = false) String user,
+                                                                  @RequestParam(required = false) String db,
+                                                                  @RequestParam(required = false) String command,
+                                                                  @RequestParam(required = false) String keyword,
+                                                                  @RequestParam(defaultValue = "0") int minTime,
+                                                                  @RequestParam(defaultValue = "time") String sort,
+                                                                  @RequestParam(defaultValue = "desc") String order,
+                                                                  @RequestParam(defaultValue = "50") int size,
+                                                                  @RequestParam(required = false) String after,
+                                                                  @RequestParam(required = false) String afterKey) {
+        PageQueryDTO query = new PageQueryDTO(sort, order, size, after, afterKey);
+        String error = validatePageQuery(query, ProcesslistTrackerService.SORT_FIELDS);
+        if (error != null) {
+            return ApiResponseDTO.paramError(error);
+        }
+        try {
+            return ApiResponseDTO.success(processlistTrackerService.getPage(instanceId, user, db, command, keyword,
+                    minTime, query));
+        } catch (Exception e) {
+            logger.error("获取活跃查询失败", e);
+            return ApiResponseDTO.serverError("获取活跃查询失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 导出实例当前的完整 processlist（包括空闲连接），从被监控实例逐行读取并流式输出
+     */
+    @GetMapping(value = "/processlist/{instanceId}/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    public StreamingResponseBody exportProcesslist(@PathVariable Long instanceId) {
+        DatabaseInstance instance = databaseInstanceService.getInstanceById(instanceId);
+        return streamRows("导出会话列表", writer -> {
+            if (instance == null) {
+                throw new IllegalArgumentException("数据库实例不存在");
+            }
+            databaseMonitoringService.streamProcesslist(instance, writer::write);
+        });
+    }
+    
+    /**
+     * 获取执行时间超过 minSeconds 秒的查询，按开始时间由早到晚排列
+     */
+    @GetMapping("/long-running/{instanceId}")
+    public ApiResponseDTO<List<Map<String, Object>>> getLongRunning(@PathVariable Long instanceId,
+                                                                    @RequestParam(defaultValue = "10") int minSeconds,
+                                                                    @RequestParam(defaultValue = "50") int limit) {
+        if (minSeconds < 0 || limit <= 0) {
+            return ApiResponseDTO.paramError("minSeconds 不能为负数，limit 必须大于0");
+        }
+        try {
+            return ApiResponseDTO.success(processlistTrackerService.getLongRunning(instanceId, minSeconds, limit));
+        } catch (Exception e) {
+            logger.error("获取长时间运行查询失败", e);
+            return ApiResponseDTO.serverError("获取长时间运行查询失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 获取实例最近一次锁等待分析得到的阻塞树
+     */
+    @GetMapping("/lock-waits/{instanceId}")
+    public ApiResponseDTO<Map<String, Object>> getLockWaits(@PathVariable Long instanceId) {
+        try {
+            return ApiResponseDTO.success(lockWaitService.getBlockingTree(instanceId));
+        } catch (Exception e) {
+            logger.error("获取锁等待信息失败", e);
+            return ApiResponseDTO.serverError("获取锁等待信息失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 获取最近一段时间内记录的根阻塞事务
+     */
+    @GetMapping("/lock-waits/{instanceId}/history")
+    public ApiResponseDTO<List<LockBlocker>> getLockBlockerHistory(@PathVariable Long instanceId,
+                                                                   @RequestParam(defaultValue = "60") int minutes,
+                                                                   @RequestParam(defaultValue = "100") int limit) {
+        if (minutes <= 0 || limit <= 0 || limit > 1000) {
+            return ApiResponseDTO.paramError("minutes 必须大于0，limit 取值 1-1000");
+        }
+        try {
+            return ApiResponseDTO.success(lockWaitService.getBlockerHistory(instanceId, minutes, limit));
+        } catch (Exception e) {
+            logger.error("获取锁阻塞记录失败", e);
+            return ApiResponseDTO.serverError("获取锁阻塞记录失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 获取被监控实例间的复制拓扑（源 -> 从），边上附带最近一次采集的线程状态和延迟
+     */
+    @GetMapping("/replication/topology")
+    public ApiResponseDTO<Map<String, Object>> getReplicationTopology() {
+        try {
+            return ApiResponseDTO.success(replicationTopologyService.getTopology());
+        } catch (Exception e) {
+            logger.error("获取复制拓扑失败", e);
+            return ApiResponseDTO.serverError("获取复制拓扑失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 获取实例最近一次采集到的各复制通道状态，非从库返回空列表
+     */
+    @GetMapping("/replication/{instanceId}")
+    public ApiResponseDTO<List<Map<String, Object>>> getReplicaStatus(@PathVariable Long instanceId) {
+        try {
+            return ApiResponseDTO.success(replicationTopologyService.getReplicaStatus(instanceId));
+        } catch (Exception e) {
+            logger.error("获取复制状态失败", e);
+            return ApiResponseDTO.serverError("获取复制状态失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 获取实例各库的表空间汇总（后台缓存，按库逐个刷新）
+     */
+    @GetMapping("/table-space/{instanceId}")
+    public ApiResponseDTO<List<Map<String, Object>>> getTableSpace(@PathVariable Long instanceId) {
+        try {
+            return ApiResponseDTO.success(tableSpaceService.getSchemaSizes(instanceId));
+        } catch (Exception e) {
+            logger.error("获取表空间信息失败", e);
+            return ApiResponseDTO.serverError("获取表空间信息失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 分页查询实例已缓存的表，不指定 schema 时查询所有库；翻页时传入上一页返回的 nextCursor
+     */
+    @GetMapping("/table-space/{instanceId}/tables")
+    public ApiResponseDTO<Map<String, Object>> getTablePage(@PathVariable Long instanceId,
+                                                            @RequestParam(required = false) String schema,
+                                                            @RequestParam(required = false) String keyword,
+                                                            @RequestParam(required = false) String engine,
+                                                            @RequestParam(defaultValue = "0") long minSize,
+                                                            @RequestParam(defaultValue = "size") String sort,
+                                                            @RequestParam(defaultValue = "desc") String order,
+                                                            @RequestParam(defaultValue = "50") int size,
+                                                            @RequestParam(required = false) String after,
+                                                            @RequestParam(required = false) String afterKey) {
+        PageQueryDTO query = new PageQueryDTO(sort, order, size, after, afterKey);
+        String error = validatePageQuery(query, TableSpaceService.TABLE_SORT_FIELDS);
+        if (error != null) {
+            return ApiResponseDTO.paramError(error);
+        }
+        try {
+            return ApiResponseDTO.success(tableSpaceService.getTablePage(instanceId, schema, keyword, engine, minSize, query));
+        } catch (Exception e) {
+            logger.error("获取表空间信息失败", e);
+            return ApiResponseDTO.serverError("获取表空间信息失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 导出实例已缓存的全部表（不指定 schema 时为所有库），流式输出
+     */
+    @GetMapping(value = "/table-space/{instanceId}/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    public StreamingResponseBody exportTables(@PathVariable Long instanceId,
+                                              @RequestParam(required = false) String schema) {
+        return streamRows("导出表空间信息", writer -> tableSpaceService.forEachTable(instanceId, schema, writer::write));
+    }
+    
+    /**
+     * 按达到 targetGb 的剩余天数升序返回仍在增长的表（scope=schema 时为库）
+     */
+    @GetMapping("/capacity/{instanceId}/forecast")
+    public ApiResponseDTO<List<Map<String, Object>>> getCapacityForecast(@PathVariable Long instanceId,
+                                                                         @RequestParam(required = false) String schema,
+                                                                         @RequestParam(defaultValue = "table") String scope,
+                                                                         @RequestParam(defaultValue = "100") double targetGb,
+                                                                         @RequestParam(defaultValue = "50") int limit) {
+        if (!"table".equals(scope) && !"schema".equals(scope)) {
+            return ApiResponseDTO.paramError("scope 只支持 table 或 schema");
+        }
+        if (targetGb <= 0 || limit <= 0 || limit > 500) {
+            return ApiResponseDTO.paramError("targetGb 必须大于0，limit 取值 1-500");
+        }
+        try {
+            return ApiResponseDTO.success(capacityService.forecast(instanceId, schema, "schema".equals(scope),
+                    targetGb, limit));
+        } catch (Exception e) {
+            logger.error("获取容量预测失败", e);
+            return ApiResponseDTO.serverError("获取容量预测失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 每天增长量最大的表（scope=schema 时为库），不指定 instanceId 时在所有实例中排名
+     */
+    @GetMapping("/capacity/growers")
+    public ApiResponseDTO<List<Map<String, Object>>> getTopGrowers(@RequestParam(required = false) Long instanceId,
+                                                                   @RequestParam(defaultValue = "table") String scope,
+                                                                   @RequestParam(defaultValue = "20") int limit) {
+        if (!"table".equals(scope) && !"schema".equals(scope)) {
+            return ApiResponseDTO.paramError("scope 只支持 table 或 schema");
+        }
+        if (limit <= 0 || limit > 500) {
+            return ApiResponseDTO.paramError("limit 取值 1-500");
+        }
+        try {
+            return ApiResponseDTO.success(capacityService.topGrowers(instanceId, "schema".equals(scope), limit));
+        } catch (Exception e) {
+            logger.error("获取增长排名失败", e);
+            return ApiResponseDTO.serverError("获取增长排名失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 获取表（不指定 table 时为整个库）最近 days 天的日采样
+     */
+    @GetMapping("/capacity/{instanceId}/history")
+    public ApiResponseDTO<List<TableSizeSample>> getCapacityHistory(@PathVariable Long instanceId,
+                                                                    @RequestParam String schema,
+                                                                    @RequestParam(required = false) String table,
+                                                                    @RequestParam(defaultValue = "90") int days) {
+        if (days <= 0 || days > 3660) {
+            return ApiResponseDTO.paramError("days 取值 1-3660");
+        }
+        try {
+            return ApiResponseDTO.success(capacityService.getHistory(instanceId, schema, table, days));
+        } catch (Exception e) {
+            logger.error("获取容量采样失败", e);
+            return ApiResponseDTO.serverError("获取容量采样失败：" + e.getMessage());
+        }
+    }
+    
     /**
      * 开始监控
      */
@@ -72,15 +520,16 @@ public class SystemMonitoringController {
                 return ApiResponseDTO.fail(404, "实例不存在或已禁用");
             }
             
-            // 测试连接
-            boolean connected = databaseInstanceService.testConnection(instance);
-            if (!connected) {
-                return ApiResponseDTO.fail(500, "无法连接到数据库实例");
+            // 读取缓存的健康状态，不在请求线程中建立连接；尚未探测过的实例直接进入采集
+            InstanceHealthDTO health = instanceHealthService.getHealth(instance);
+            if (health.isDown()) {
+                return ApiResponseDTO.fail(500, "无法连接到数据库实例：" + health.getLastError());
             }
             
-            // 生成初始监控数据
-            Map<String, Object> monitoringData = databaseMonitoringService.getComprehensiveMonitoringData(instance);
+            // 返回后台采集器的最新快照，尚未采集过时由采集器在后台预热，数据随实时推送到达
+            Map<String, Object> monitoringData = new HashMap<>(monitoringCollectorService.getLatestSnapshot(instance));
             monitoringData.put("instanceName", instance.getName());
+            monitoringData.put("health", health);
             
             logger.info("监控启动成功：{}", instance.getName());
             return ApiResponseDTO.success(monitoringData);
@@ -105,13 +554,17 @@ public class SystemMonitoringController {
             
             logger.info("停止监控实例：{}", instanceId);
             
-            // 这里可以添加实际的停止监控逻辑，如清理线程池等
-            // 目前简单返回成功
+            // 关闭该客户端的实时推送订阅（未指定clientId时关闭该实例的全部订阅）
+            int closedStreams = monitoringStreamService.unsubscribe(Long.valueOf(instanceId), request.get("clientId"));
+            
             Map<String, Object> result = new HashMap<>();
             result.put("stopped", true);
+            result.put("closedStreams", closedStreams);
 //            result.put("message", "监控已停止");
             
             return ApiResponseDTO.success(result);
+        } catch (NumberFormatException e) {
+            return ApiResponseDTO.paramError("无效的实例ID格式");
         } catch (Exception e) {
             logger.error("停止监控失败", e);
             return ApiResponseDTO.serverError("停止监控失败：" + e.getMessage());
@@ -144,6 +597,28 @@ public class SystemMonitoringController {
         }
     }
     
+    /**
+     * 订阅实时监控数据推送（Server-Sent Events），每次采集完成后推送最新快照
+     */
+    @GetMapping(value = "/stream/{instanceId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamRealtimeData(@PathVariable Long instanceId, @RequestParam(required = false) String clientId) {
+        logger.info("订阅实例 {} 的实时监控数据推送", instanceId);
+        
+        DatabaseInstance instance = databaseInstanceService.getInstanceById(instanceId);
+        if (instance == null) {
+            SseEmitter emitter = new SseEmitter(0L);
+            try {
+                emitter.send(SseEmitter.event().name("error").data("数据库实例不存在"));
+            } catch (Exception e) {
+                logger.debug("发送订阅错误事件失败", e);
+            }
+            emitter.complete();
+            return emitter;
+        }
+        
+        return monitoringStreamService.subscribe(instanceId, clientId);
+    }
+    
     /**
      * 获取历史监控数据
      */
@@ -177,9 +652,9 @@ public class SystemMonitoringController {
         Map<String, Object> data = new HashMap<>();
         
         try {
-            // 使用真实的监控服务获取数据
-            data = databaseMonitoringService.getComprehensiveMonitoringData(instance);
-            logger.info("成功获取数据库 {} 的实时监控数据", instance.getName());
+            // 读取后台采集器维护的最新快照，不直接查询被监控数据库
+            data = monitoringCollectorService.getLatestSnapshot(instance);
+            logger.debug("成功获取数据库 {} 的实时监控数据", instance.getName());
             
         } catch (Exception e) {
             logger.error("获取实时监控数据失败，使用模拟数据: {}", e.getMessage());
@@ -191,92 +666,20 @@ public class SystemMonitoringController {
     }
     
     /**
-     * 从实际数据库获取历史监控数据
+     * 从时间序列存储获取历史监控数据
      */
     private Map<String, Object> getRealDatabaseHistoryData(DatabaseInstance instance, String timeRange) {
         Map<String, Object> historyData = new HashMap<>();
         
         try {
-            // 在实际项目中，这里应该调用service层方法从数据库或时间序列数据库中获取历史数据
-            // 目前使用模拟数据生成逻辑
-            historyData = generateMockHistoryData(timeRange);
-            
+            historyData = monitoringHistoryService.getHistoryData(instance, timeRange);
         } catch (Exception e) {
-            logger.warn("从数据库获取历史数据失败，使用模拟数据: {}", e.getMessage());
-            // 如果获取实际数据失败，使用模拟数据
-            historyData = generateMockHistoryData(timeRange);
-        }
-        
-        return historyData;
-    }
-    
-    /**
-     * 生成模拟历史数据
-     */
-    private Map<String, Object> generateMockHistoryData(String timeRange) {
-        Map<String, Object> historyData = new HashMap<>();
-        int dataPoints = 24; // 默认24个数据点
-        
-        // 根据时间范围确定数据点数量和间隔
-        switch (timeRange) {
-            case "1h": dataPoints = 12; break;  // 5分钟间隔
-            case "6h": dataPoints = 18; break;  // 20分钟间隔
-            case "24h": dataPoints = 24; break; // 1小时间隔
-            case "7d": dataPoints = 28; break;  // 6小时间隔
-        }
-        
-        // 生成各种指标的历史数据
-        String[] metrics = {"qps", "tps", "connections", "slow_queries", "threads_running"};
-        Random random = new Random();
-        long now = System.currentTimeMillis();
-        
-        for (String metric : metrics) {
-            Map<String, List<Object>> metricData = new HashMap<>();
-            List<Object> values = new ArrayList<>();
-            List<Object> labels = new ArrayList<>();
-            
-            // 为每个数据点生成值和标签
-            for (int i = 0; i < dataPoints; i++) {
-                // 根据指标类型生成不同范围的随机值
-                int value = 0;
-                switch (metric) {
-                    case "qps": value = random.nextInt(500) + 50; break;
-                    case "tps": value = random.nextInt(100) + 10; break;
-                    case "connections": value = random.nextInt(80) + 20; break;
-                    case "slow_queries": value = random.nextInt(8); break;
-                    case "threads_running": value = random.nextInt(15) + 5; break;
-                }
-                
-                values.add(value);
-                
-                // 生成时间标签
-                long timestamp = now - (dataPoints - i - 1) * getTimeIntervalMillis(timeRange, dataPoints);
-                Date date = new java.util.Date(timestamp);
-                // 格式化为 HH:mm 格式
-                labels.add(String.format("%02d:%02d", date.getHours(), date.getMinutes()));
-            }
-            
-            metricData.put("values", values);
-            metricData.put("labels", labels);
-            historyData.put(metric, metricData);
+            logger.error("从时间序列存储获取历史数据失败: {}", e.getMessage());
         }
         
         return historyData;
     }
     
-    /**
-     * 获取时间间隔（毫秒）
-     */
-    private long getTimeIntervalMillis(String timeRange, int dataPoints) {
-        switch (timeRange) {
-            case "1h": return 5 * 60 * 1000L; // 5分钟
-            case "6h": return 20 * 60 * 1000L; // 20分钟
-            case "24h": return 60 * 60 * 1000L; // 1小时
-            case "7d": return 6 * 60 * 60 * 1000L; // 6小时
-            default: return 60 * 60 * 1000L; // 默认1小时
-        }
-    }
-    
     /**
      * 模拟数据库状态数据
      */
@@ -340,6 +743,53 @@ public class SystemMonitoringController {
         return activeQueries;
     }
     
+    /**
+     * 以 ApiResponseDTO 的结构流式输出数据源的各行：数据源出错时已输出的行保留并在 data.error 中说明，
+     * 客户端断开时停止读取
+     */
+    private StreamingResponseBody streamRows(String action, RowSource source) {
+        return out -> {
+            try (JsonStreamWriter writer = new JsonStreamWriter(objectMapper, out)) {
+                try {
+                    source.writeTo(writer);
+                } catch (UncheckedIOException e) {
+                    logger.debug("{}中断，客户端已断开: {}", action, e.getMessage());
+                    throw e.getCause();
+                } catch (Exception e) {
+                    logger.error("{}失败，已输出 {} 行", action, writer.getCount(), e);
+                    writer.fail(action + "失败：" + e.getMessage());
+                }
+            }
+        };
+    }
+    
+    /**
+     * 流式导出的数据源
+     */
+    @FunctionalInterface
+    private interface RowSource {
+        void writeTo(JsonStreamWriter writer) throws Exception;
+    }
+    
+    /**
+     * 校验分页参数，返回错误信息，合法时返回 null
+     */
+    private String validatePageQuery(PageQueryDTO query, List<String> sortFields) {
+        if (!sortFields.contains(query.getSort())) {
+            return "sort 只支持 " + String.join("、", sortFields);
+        }
+        if (!PageQueryDTO.ORDER_ASC.equals(query.getOrder()) && !PageQueryDTO.ORDER_DESC.equals(query.getOrder())) {
+            return "order 只支持 asc 或 desc";
+        }
+        if (query.getSize() <= 0 || query.getSize() > MAX_PAGE_SIZE) {
+            return "size 取值 1-" + MAX_PAGE_SIZE;
+        }
+        if ((query.getAfter() == null) != (query.getAfterKey() == null)) {
+            return "after 和 afterKey 需要同时传入";
+        }
+        return null;
+    }
+    
     /**
      * 模拟表空间数据
      */
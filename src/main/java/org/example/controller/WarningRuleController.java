@@ -0,0 +1,134 @@
+package org.example.controller;
+
+import org.example.dto.AlertEventDTO;
+import org.example.dto.ApiResponseDTO;
+import org.example.entity.WarningRule;
+import org.example.service.AnomalyDetectionService;
+import org.example.service.WarningRuleService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 告警规则控制器
+ */
+@RestController
+@RequestMapping("/api/warning-rule")
+public class WarningRuleController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(WarningRuleController.class);
+    
+    @Autowired
+    private WarningRuleService warningRuleService;
+    
+    @Autowired
+    private AnomalyDetectionService anomalyDetectionService;
+    
+    /**
+     * 获取规则列表
+     */
+    @GetMapping("/list")
+    public ApiResponseDTO<List<WarningRule>> getRules() {
+        try {
+            return ApiResponseDTO.success(warningRuleService.getAllRules());
+        } catch (Exception e) {
+            logger.error("获取告警规则列表失败", e);
+            return ApiResponseDTO.serverError("获取规则列表失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 根据ID获取规则
+     */
+    @GetMapping("/{id}")
+    public ApiResponseDTO<WarningRule> getRuleById(@PathVariable Long id) {
+        try {
+            WarningRule rule = warningRuleService.getRuleById(id);
+            if (rule == null) {
+                return ApiResponseDTO.fail(404, "规则不存在");
+            }
+            return ApiResponseDTO.success(rule);
+        } catch (Exception e) {
+            logger.error("获取告警规则失败，ID: " + id, e);
+            return ApiResponseDTO.serverError("获取规则失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 添加规则
+     */
+    @PostMapping
+    public ApiResponseDTO<WarningRule> addRule(@RequestBody WarningRule rule) {
+        try {
+            logger.info("添加告警规则：{}", rule.getName());
+            if (warningRuleService.addRule(rule)) {
+                return ApiResponseDTO.success(rule);
+            }
+            return ApiResponseDTO.serverError("添加规则失败");
+        } catch (IllegalArgumentException e) {
+            return ApiResponseDTO.paramError(e.getMessage());
+        } catch (Exception e) {
+            logger.error("添加告警规则失败", e);
+            return ApiResponseDTO.serverError("添加规则失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 更新规则
+     */
+    @PutMapping("/{id}")
+    public ApiResponseDTO<WarningRule> updateRule(@PathVariable Long id, @RequestBody WarningRule rule) {
+        try {
+            logger.info("更新告警规则，ID: {}", id);
+            if (warningRuleService.getRuleById(id) == null) {
+                return ApiResponseDTO.fail(404, "规则不存在");
+            }
+            rule.setId(id);
+            if (warningRuleService.updateRule(rule)) {
+                return ApiResponseDTO.success(rule);
+            }
+            return ApiResponseDTO.serverError("更新规则失败");
+        } catch (IllegalArgumentException e) {
+            return ApiResponseDTO.paramError(e.getMessage());
+        } catch (Exception e) {
+            logger.error("更新告警规则失败，ID: " + id, e);
+            return ApiResponseDTO.serverError("更新规则失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 删除规则
+     */
+    @DeleteMapping("/{id}")
+    public ApiResponseDTO<String> deleteRule(@PathVariable Long id) {
+        try {
+            logger.info("删除告警规则，ID: {}", id);
+            if (warningRuleService.deleteRule(id)) {
+                return ApiResponseDTO.success("删除成功");
+            }
+            return ApiResponseDTO.fail(404, "规则不存在");
+        } catch (Exception e) {
+            logger.error("删除告警规则失败，ID: " + id, e);
+            return ApiResponseDTO.serverError("删除规则失败：" + e.getMessage());
+        }
+    }
+    
+    /**
+     * 获取当前处于触发状态的告警（阈值规则告警与基线异常）
+     */
+    @GetMapping("/active-alerts")
+    public ApiResponseDTO<List<AlertEventDTO>> getActiveAlerts(@RequestParam(required = false) Long instanceId) {
+        try {
+            List<AlertEventDTO> alerts = new ArrayList<>(warningRuleService.getActiveAlerts(instanceId));
+            alerts.addAll(anomalyDetectionService.getActiveAnomalies(instanceId));
+            return ApiResponseDTO.success(alerts);
+        } catch (Exception e) {
+            logger.error("获取触发中的告警失败", e);
+            return ApiResponseDTO.serverError("获取告警失败：" + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.dto;
+
+/**
+ * 告警事件DTO
+ * 规则从正常变为触发（firing）或从触发恢复（resolved）时产生
+ */
+public class AlertEventDTO {
+
+    public static final String STATUS_FIRING = "firing";
+    public static final String STATUS_RESOLVED = "resolved";
+
+    private Long ruleId; // 规则ID
+    private String ruleName; // 规则名称
+    private Long instanceId; // 实例ID
+    private String instanceName; // 实例名称
+    private String metric; // 监控指标
+    private String operator; // 比较运算符
+    private Double threshold; // 阈值
+    private Double value; // 触发或恢复时的指标值
+    private String severity; // 告警级别
+    private String status; // 事件状态：firing/resolved
+    private String message; // 告警描述
+    private Long firedAt; // 首次触发时间（毫秒时间戳）
+    private Long timestamp; // 事件时间（毫秒时间戳）
+
+    public AlertEventDTO() {}
+
+    /**
+     * 复制事件并修改状态，用于由触发事件生成对应的恢复事件
+     */
+    public AlertEventDTO withStatus(String status, Double value, Long timestamp, String message) {
+        AlertEventDTO event = new AlertEventDTO();
+        event.ruleId = ruleId;
+        event.ruleName = ruleName;
+        event.instanceId = instanceId;
+        event.instanceName = instanceName;
+        event.metric = metric;
+        event.operator = operator;
+        event.threshold = threshold;
+        event.severity = severity;
+        event.firedAt = firedAt;
+        event.status = status;
+        event.value = value;
+        event.timestamp = timestamp;
+        event.message = message;
+        return event;
+    }
+
+    public boolean isFiring() { return STATUS_FIRING.equals(status); }
+
+    // getter和setter
+    public Long getRuleId() { return ruleId; }
+    public void setRuleId(Long ruleId) { this.ruleId = ruleId; }
+
+    public String getRuleName() { return ruleName; }
+    public void setRuleName(String ruleName) { this.ruleName = ruleName; }
+
+    public Long getInstanceId() { return instanceId; }
+    public void setInstanceId(Long instanceId) { this.instanceId = instanceId; }
+
+    public String getInstanceName() { return instanceName; }
+    public void setInstanceName(String instanceName) { this.instanceName = instanceName; }
+
+    public String getMetric() { return metric; }
+    public void setMetric(String metric) { this.metric = metric; }
+
+    public String getOperator() { return operator; }
+    public void setOperator(String operator) { this.operator = operator; }
+
+    public Double getThreshold() { return threshold; }
+    public void setThreshold(Double threshold) { this.threshold = threshold; }
+
+    public Double getValue() { return value; }
+    public void setValue(Double value) { this.value = value; }
+
+    public String getSeverity() { return severity; }
+    public void setSeverity(String severity) { this.severity = severity; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    public Long getFiredAt() { return firedAt; }
+    public void setFiredAt(Long firedAt) { this.firedAt = firedAt; }
+
+    public Long getTimestamp() { return timestamp; }
+    public void setTimestamp(Long timestamp) { this.timestamp = timestamp; }
+}
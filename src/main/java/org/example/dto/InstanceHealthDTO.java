@@ -0,0 +1,57 @@
+package org.example.dto;
+
+/**
+ * 实例健康检查结果DTO
+ */
+public class InstanceHealthDTO {
+
+    public static final String STATUS_UP = "up";
+    public static final String STATUS_DOWN = "down";
+    public static final String STATUS_UNKNOWN = "unknown";
+
+    private Long instanceId; // 实例ID
+    private String status; // 状态：up/down/unknown
+    private Long latency; // 最近一次探测耗时（毫秒）
+    private String lastError; // 最近一次失败原因
+    private Long checkedAt; // 最近一次检查时间（毫秒时间戳）
+    private boolean stale; // 结果已超过有效期，后台正在重新探测
+
+    public InstanceHealthDTO() {}
+
+    public InstanceHealthDTO(Long instanceId, String status, Long latency, String lastError, Long checkedAt) {
+        this.instanceId = instanceId;
+        this.status = status;
+        this.latency = latency;
+        this.lastError = lastError;
+        this.checkedAt = checkedAt;
+    }
+
+    public static InstanceHealthDTO unknown(Long instanceId) {
+        InstanceHealthDTO health = new InstanceHealthDTO(instanceId, STATUS_UNKNOWN, null, null, null);
+        health.setStale(true);
+        return health;
+    }
+
+    public boolean isUp() { return STATUS_UP.equals(status); }
+
+    public boolean isDown() { return STATUS_DOWN.equals(status); }
+
+    // getter和setter
+    public Long getInstanceId() { return instanceId; }
+    public void setInstanceId(Long instanceId) { this.instanceId = instanceId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Long getLatency() { return latency; }
+    public void setLatency(Long latency) { this.latency = latency; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    public Long getCheckedAt() { return checkedAt; }
+    public void setCheckedAt(Long checkedAt) { this.checkedAt = checkedAt; }
+
+    public boolean isStale() { return stale; }
+    public void setStale(boolean stale) { this.stale = stale; }
+}
@@ -0,0 +1,49 @@
+package org.example.dto;
+
+/**
+ * 内存数据分页查询DTO
+ * 按 sort 字段排序（同值按唯一键升序），游标为上一页最后一条的排序值 after 和唯一键 afterKey，
+ * 翻页时只需保留一页数据，不受页码影响
+ */
+public class PageQueryDTO {
+
+    public static final String ORDER_ASC = "asc";
+    public static final String ORDER_DESC = "desc";
+
+    private String sort; // 排序字段
+    private String order; // 排序方向：asc/desc
+    private int size; // 每页条数
+    private String after; // 上一页最后一条的排序值
+    private String afterKey; // 上一页最后一条的唯一键
+
+    public PageQueryDTO() {}
+
+    public PageQueryDTO(String sort, String order, int size, String after, String afterKey) {
+        this.sort = sort;
+        this.order = order;
+        this.size = size;
+        this.after = after;
+        this.afterKey = afterKey;
+    }
+
+    public boolean isDesc() { return ORDER_DESC.equals(order); }
+
+    /** 是否带游标（翻到第一页之后） */
+    public boolean hasCursor() { return after != null && afterKey != null; }
+
+    // getter和setter
+    public String getSort() { return sort; }
+    public void setSort(String sort) { this.sort = sort; }
+
+    public String getOrder() { return order; }
+    public void setOrder(String order) { this.order = order; }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+
+    public String getAfter() { return after; }
+    public void setAfter(String after) { this.after = after; }
+
+    public String getAfterKey() { return afterKey; }
+    public void setAfterKey(String afterKey) { this.afterKey = afterKey; }
+}
@@ -0,0 +1,36 @@
+package org.example.dto;
+
+/**
+ * 时间序列查询结果DTO
+ * 时间戳（秒）与数值按下标一一对应
+ */
+public class TimeSeriesDTO {
+    private Long instanceId; // 实例ID
+    private String metric; // 指标名
+    private long[] timestamps; // 时间戳（秒）
+    private double[] values; // 数值
+
+    public TimeSeriesDTO() {}
+
+    public TimeSeriesDTO(Long instanceId, String metric, long[] timestamps, double[] values) {
+        this.instanceId = instanceId;
+        this.metric = metric;
+        this.timestamps = timestamps;
+        this.values = values;
+    }
+
+    // getter和setter
+    public Long getInstanceId() { return instanceId; }
+    public void setInstanceId(Long instanceId) { this.instanceId = instanceId; }
+
+    public String getMetric() { return metric; }
+    public void setMetric(String metric) { this.metric = metric; }
+
+    public long[] getTimestamps() { return timestamps; }
+    public void setTimestamps(long[] timestamps) { this.timestamps = timestamps; }
+
+    public double[] getValues() { return values; }
+    public void setValues(double[] values) { this.values = values; }
+
+    public int size() { return timestamps == null ? 0 : timestamps.length; }
+}
@@ -0,0 +1,145 @@
+package org.example.entity;
+
+import java.util.Date;
+
+/**
+ * 告警历史实体类
+ */
+public class AlertHistory {
+    private Long id; // 记录ID
+    private Long ruleId; // 规则ID
+    private String ruleName; // 规则名称
+    private Long instanceId; // 实例ID
+    private String instanceName; // 实例名称
+    private String metric; // 监控指标
+    private String operator; // 比较运算符
+    private Double threshold; // 阈值
+    private Double value; // 触发或恢复时的指标值
+    private String severity; // 告警级别：info, warning, critical
+    private String status; // 事件状态：firing-触发，resolved-恢复
+    private String message; // 告警描述
+    private Date firedAt; // 首次触发时间
+    private Date eventTime; // 事件时间
+    private Date createTime; // 创建时间
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getRuleId() {
+        return ruleId;
+    }
+
+    public void setRuleId(Long ruleId) {
+        this.ruleId = ruleId;
+    }
+
+    public String getRuleName() {
+        return ruleName;
+    }
+
+    public void setRuleName(String ruleName) {
+        this.ruleName = ruleName;
+    }
+
+    public Long getInstanceId() {
+        return instanceId;
+    }
+
+    public void setInstanceId(Long instanceId) {
+        this.instanceId = instanceId;
+    }
+
+    public String getInstanceName() {
+        return instanceName;
+    }
+
+    public void setInstanceName(String instanceName) {
+        this.instanceName = instanceName;
+    }
+
+    public String getMetric() {
+        return metric;
+    }
+
+    public void setMetric(String metric) {
+        this.metric = metric;
+    }
+
+    public String getOperator() {
+        return operator;
+    }
+
+    public void setOperator(String operator) {
+        this.operator = operator;
+    }
+
+    public Double getThreshold() {
+        return threshold;
+    }
+
+    public void setThreshold(Double threshold) {
+        this.threshold = threshold;
+    }
+
+    public Double getValue() {
+        return value;
+    }
+
+    public void setValue(Double value) {
+        this.value = value;
+    }
+
+    public String getSeverity() {
+        return severity;
+    }
+
+    public void setSeverity(String severity) {
+        this.severity = severity;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public Date getFiredAt() {
+        return firedAt;
+    }
+
+    public void setFiredAt(Date firedAt) {
+        this.firedAt = firedAt;
+    }
+
+    public Date getEventTime() {
+        return eventTime;
+    }
+
+    public void setEventTime(Date eventTime) {
+        this.eventTime = eventTime;
+    }
+
+    public Date getCreateTime() {
+        return createTime;
+    }
+
+    public void setCreateTime(Date createTime) {
+        this.createTime = createTime;
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.entity;
+
+import java.util.Date;
+
+/**
+ * 锁阻塞记录实体类（根阻塞事务）
+ */
+public class LockBlocker {
+    private Long id; // 记录ID
+    private Long instanceId; // 实例ID
+    private Date sampleTime; // 分析时间
+    private String trxId; // 根阻塞事务ID
+    private Long threadId; // 根阻塞事务的连接ID
+    private String sqlText; // 根阻塞事务当前执行的语句
+    private Long trxAge; // 根阻塞事务已持续时间（秒）
+    private Integer waiters; // 直接和间接被阻塞的事务数
+    private Integer directWaiters; // 直接被阻塞的事务数
+    private Integer depth; // 阻塞链最大深度
+    private Long maxWaitSecs; // 被阻塞事务的最长等待时间（秒）
+    private String lockedTables; // 等待的表
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getInstanceId() {
+        return instanceId;
+    }
+
+    public void setInstanceId(Long instanceId) {
+        this.instanceId = instanceId;
+    }
+
+    public Date getSampleTime() {
+        return sampleTime;
+    }
+
+    public void setSampleTime(Date sampleTime) {
+        this.sampleTime = sampleTime;
+    }
+
+    public String getTrxId() {
+        return trxId;
+    }
+
+    public void setTrxId(String trxId) {
+        this.trxId = trxId;
+    }
+
+    public Long getThreadId() {
+        return threadId;
+    }
+
+    public void setThreadId(Long threadId) {
+        this.threadId = threadId;
+    }
+
+    public String getSqlText() {
+        return sqlText;
+    }
+
+    public void setSqlText(String sqlText) {
+        this.sqlText = sqlText;
+    }
+
+    public Long getTrxAge() {
+        return trxAge;
+    }
+
+    public void setTrxAge(Long trxAge) {
+        this.trxAge = trxAge;
+    }
+
+    public Integer getWaiters() {
+        return waiters;
+    }
+
+    public void setWaiters(Integer waiters) {
+        this.waiters = waiters;
+    }
+
+    public Integer getDirectWaiters() {
+        return directWaiters;
+    }
+
+    public void setDirectWaiters(Integer directWaiters) {
+        this.directWaiters = directWaiters;
+    }
+
+    public Integer getDepth() {
+        return depth;
+    }
+
+    public void setDepth(Integer depth) {
+        this.depth = depth;
+    }
+
+    public Long getMaxWaitSecs() {
+        return maxWaitSecs;
+    }
+
+    public void setMaxWaitSecs(Long maxWaitSecs) {
+        this.maxWaitSecs = maxWaitSecs;
+    }
+
+    public String getLockedTables() {
+        return lockedTables;
+    }
+
+    public void setLockedTables(String lockedTables) {
+        this.lockedTables = lockedTables;
+    }
+}
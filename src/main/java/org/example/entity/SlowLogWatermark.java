@@ -0,0 +1,82 @@
+package org.example.entity;
+
+import java.util.Date;
+
+/**
+ * 慢查询采集水位实体类
+ */
+public class SlowLogWatermark {
+    private Long instanceId; // 实例ID
+    private String source; // 采集来源：table, file
+    private Long watermarkUs; // 表模式：已采集的最大 start_time（微秒时间戳）
+    private Integer watermarkSkip; // 表模式：start_time 等于水位且已采集的行数
+    private String filePath; // 文件模式：慢日志文件路径
+    private String fileKey; // 文件模式：文件标识
+    private Long fileOffset; // 文件模式：已读取的字节偏移
+    private Date updateTime; // 更新时间
+
+    // Getters and Setters
+    public Long getInstanceId() {
+        return instanceId;
+    }
+
+    public void setInstanceId(Long instanceId) {
+        this.instanceId = instanceId;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public Long getWatermarkUs() {
+        return watermarkUs;
+    }
+
+    public void setWatermarkUs(Long watermarkUs) {
+        this.watermarkUs = watermarkUs;
+    }
+
+    public Integer getWatermarkSkip() {
+        return watermarkSkip;
+    }
+
+    public void setWatermarkSkip(Integer watermarkSkip) {
+        this.watermarkSkip = watermarkSkip;
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public void setFilePath(String filePath) {
+        this.filePath = filePath;
+    }
+
+    public String getFileKey() {
+        return fileKey;
+    }
+
+    public void setFileKey(String fileKey) {
+        this.fileKey = fileKey;
+    }
+
+    public Long getFileOffset() {
+        return fileOffset;
+    }
+
+    public void setFileOffset(Long fileOffset) {
+        this.fileOffset = fileOffset;
+    }
+
+    public Date getUpdateTime() {
+        return updateTime;
+    }
+
+    public void setUpdateTime(Date updateTime) {
+        this.updateTime = updateTime;
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.entity;
+
+import java.util.Date;
+
+/**
+ * 慢查询日志实体类
+ */
+public class SlowQueryLog {
+    private Long id; // 记录ID
+    private Long instanceId; // 实例ID
+    private Date startTime; // 语句开始时间
+    private String userHost; // 用户和主机
+    private String db; // 默认库名
+    private Double queryTime; // 执行耗时（秒）
+    private Double lockTime; // 锁等待耗时（秒）
+    private Long rowsSent; // 返回行数
+    private Long rowsExamined; // 扫描行数
+    private String sqlText; // 语句文本
+    private String digest; // SQL指纹摘要
+    private Date createTime; // 创建时间
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getInstanceId() {
+        return instanceId;
+    }
+
+    public void setInstanceId(Long instanceId) {
+        this.instanceId = instanceId;
+    }
+
+    public Date getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(Date startTime) {
+        this.startTime = startTime;
+    }
+
+    public String getUserHost() {
+        return userHost;
+    }
+
+    public void setUserHost(String userHost) {
+        this.userHost = userHost;
+    }
+
+    public String getDb() {
+        return db;
+    }
+
+    public void setDb(String db) {
+        this.db = db;
+    }
+
+    public Double getQueryTime() {
+        return queryTime;
+    }
+
+    public void setQueryTime(Double queryTime) {
+        this.queryTime = queryTime;
+    }
+
+    public Double getLockTime() {
+        return lockTime;
+    }
+
+    public void setLockTime(Double lockTime) {
+        this.lockTime = lockTime;
+    }
+
+    public Long getRowsSent() {
+        return rowsSent;
+    }
+
+    public void setRowsSent(Long rowsSent) {
+        this.rowsSent = rowsSent;
+    }
+
+    public Long getRowsExamined() {
+        return rowsExamined;
+    }
+
+    public void setRowsExamined(Long rowsExamined) {
+        this.rowsExamined = rowsExamined;
+    }
+
+    public String getSqlText() {
+        return sqlText;
+    }
+
+    public void setSqlText(String sqlText) {
+        this.sqlText = sqlText;
+    }
+
+    public String getDigest() {
+        return digest;
+    }
+
+    public void setDigest(String digest) {
+        this.digest = digest;
+    }
+
+    public Date getCreateTime() {
+        return createTime;
+    }
+
+    public void setCreateTime(Date createTime) {
+        this.createTime = createTime;
+    }
+}
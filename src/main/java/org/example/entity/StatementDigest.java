@@ -0,0 +1,109 @@
+package org.example.entity;
+
+import java.util.Date;
+
+/**
+ * 语句摘要增量实体类
+ */
+public class StatementDigest {
+    private Long id; // 记录ID
+    private Long instanceId; // 实例ID
+    private String schemaName; // 默认库名
+    private String digest; // 语句摘要
+    private String digestText; // 规范化后的语句文本
+    private Date sampleTime; // 采集时间
+    private Long execCount; // 区间执行次数
+    private Long totalLatency; // 区间累计耗时（微秒）
+    private Long rowsExamined; // 区间扫描行数
+    private Long rowsSent; // 区间返回行数
+    private Long errors; // 区间错误次数
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getInstanceId() {
+        return instanceId;
+    }
+
+    public void setInstanceId(Long instanceId) {
+        this.instanceId = instanceId;
+    }
+
+    public String getSchemaName() {
+        return schemaName;
+    }
+
+    public void setSchemaName(String schemaName) {
+        this.schemaName = schemaName;
+    }
+
+    public String getDigest() {
+        return digest;
+    }
+
+    public void setDigest(String digest) {
+        this.digest = digest;
+    }
+
+    public String getDigestText() {
+        return digestText;
+    }
+
+    public void setDigestText(String digestText) {
+        this.digestText = digestText;
+    }
+
+    public Date getSampleTime() {
+        return sampleTime;
+    }
+
+    public void setSampleTime(Date sampleTime) {
+        this.sampleTime = sampleTime;
+    }
+
+    public Long getExecCount() {
+        return execCount;
+    }
+
+    public void setExecCount(Long execCount) {
+        this.execCount = execCount;
+    }
+
+    public Long getTotalLatency() {
+        return totalLatency;
+    }
+
+    public void setTotalLatency(Long totalLatency) {
+        this.totalLatency = totalLatency;
+    }
+
+    public Long getRowsExamined() {
+        return rowsExamined;
+    }
+
+    public void setRowsExamined(Long rowsExamined) {
+        this.rowsExamined = rowsExamined;
+    }
+
+    public Long getRowsSent() {
+        return rowsSent;
+    }
+
+    public void setRowsSent(Long rowsSent) {
+        this.rowsSent = rowsSent;
+    }
+
+    public Long getErrors() {
+        return errors;
+    }
+
+    public void setErrors(Long errors) {
+        this.errors = errors;
+    }
+}
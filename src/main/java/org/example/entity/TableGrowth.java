@@ -0,0 +1,127 @@
+package org.example.entity;
+
+import java.util.Date;
+
+/**
+ * 表增长趋势实体类（增量回归的累计量）
+ */
+public class TableGrowth {
+    private Long id; // 记录ID
+    private Long instanceId; // 实例ID
+    private String schemaName; // 库名
+    private String tableName; // 表名，空串表示整个库
+    private Date lastDate; // 最近采样日期
+    private Long lastSize; // 最近采样大小（字节）
+    private Integer samples; // 累计采样天数
+    private Double sumW; // 权重和
+    private Double sumX; // 加权横轴和
+    private Double sumY; // 加权大小和
+    private Double sumXx; // 加权横轴平方和
+    private Double sumXy; // 加权横轴与大小乘积和
+    private Double growthPerDay; // 每天增长字节数，样本不足时为空
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getInstanceId() {
+        return instanceId;
+    }
+
+    public void setInstanceId(Long instanceId) {
+        this.instanceId = instanceId;
+    }
+
+    public String getSchemaName() {
+        return schemaName;
+    }
+
+    public void setSchemaName(String schemaName) {
+        this.schemaName = schemaName;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public void setTableName(String tableName) {
+        this.tableName = tableName;
+    }
+
+    public Date getLastDate() {
+        return lastDate;
+    }
+
+    public void setLastDate(Date lastDate) {
+        this.lastDate = lastDate;
+    }
+
+    public Long getLastSize() {
+        return lastSize;
+    }
+
+    public void setLastSize(Long lastSize) {
+        this.lastSize = lastSize;
+    }
+
+    public Integer getSamples() {
+        return samples;
+    }
+
+    public void setSamples(Integer samples) {
+        this.samples = samples;
+    }
+
+    public Double getSumW() {
+        return sumW;
+    }
+
+    public void setSumW(Double sumW) {
+        this.sumW = sumW;
+    }
+
+    public Double getSumX() {
+        return sumX;
+    }
+
+    public void setSumX(Double sumX) {
+        this.sumX = sumX;
+    }
+
+    public Double getSumY() {
+        return sumY;
+    }
+
+    public void setSumY(Double sumY) {
+        this.sumY = sumY;
+    }
+
+    public Double getSumXx() {
+        return sumXx;
+    }
+
+    public void setSumXx(Double sumXx) {
+        this.sumXx = sumXx;
+    }
+
+    public Double getSumXy() {
+        return sumXy;
+    }
+
+    public void setSumXy(Double sumXy) {
+        this.sumXy = sumXy;
+    }
+
+    public Double getGrowthPerDay() {
+        return growthPerDay;
+    }
+
+    public void setGrowthPerDay(Double growthPerDay) {
+        this.growthPerDay = growthPerDay;
+    }
+}
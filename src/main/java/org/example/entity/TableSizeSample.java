@@ -0,0 +1,73 @@
+package org.example.entity;
+
+import java.util.Date;
+
+/**
+ * 表大小日采样实体类
+ */
+public class TableSizeSample {
+    private Long id; // 记录ID
+    private Long instanceId; // 实例ID
+    private String schemaName; // 库名
+    private String tableName; // 表名，空串表示整个库
+    private Date sampleDate; // 采样日期
+    private Long sizeBytes; // 数据和索引大小（字节）
+    private Long tableRows; // 估算行数
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getInstanceId() {
+        return instanceId;
+    }
+
+    public void setInstanceId(Long instanceId) {
+        this.instanceId = instanceId;
+    }
+
+    public String getSchemaName() {
+        return schemaName;
+    }
+
+    public void setSchemaName(String schemaName) {
+        this.schemaName = schemaName;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public void setTableName(String tableName) {
+        this.tableName = tableName;
+    }
+
+    public Date getSampleDate() {
+        return sampleDate;
+    }
+
+    public void setSampleDate(Date sampleDate) {
+        this.sampleDate = sampleDate;
+    }
+
+    public Long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(Long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
+
+    public Long getTableRows() {
+        return tableRows;
+    }
+
+    public void setTableRows(Long tableRows) {
+        this.tableRows = tableRows;
+    }
+}
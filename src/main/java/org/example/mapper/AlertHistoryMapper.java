@@ -0,0 +1,30 @@
+package org.example.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.example.entity.AlertHistory;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 告警历史Mapper接口
+ */
+@Mapper
+public interface AlertHistoryMapper {
+    
+    /**
+     * 批量插入告警记录（单条多行INSERT）
+     */
+    int insertBatch(@Param("list") List<AlertHistory> records);
+    
+    /**
+     * 按 (event_time, id) 倒序分页查询，游标为上一页最后一条记录的时间和ID，首页传 null
+     */
+    List<AlertHistory> selectPage(@Param("instanceId") Long instanceId,
+                                  @Param("severity") String severity,
+                                  @Param("status") String status,
+                                  @Param("beforeTime") Date beforeTime,
+                                  @Param("beforeId") Long beforeId,
+                                  @Param("limit") int limit);
+}
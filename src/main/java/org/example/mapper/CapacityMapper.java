@@ -0,0 +1,57 @@
+package org.example.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.example.entity.TableGrowth;
+import org.example.entity.TableSizeSample;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 容量趋势Mapper接口
+ */
+@Mapper
+public interface CapacityMapper {
+    
+    /**
+     * 批量写入日采样，同一天重复采样时覆盖
+     */
+    int upsertSamples(@Param("list") List<TableSizeSample> samples);
+    
+    /**
+     * 查询库中所有表（含库汇总行）的增长趋势
+     */
+    List<TableGrowth> selectGrowthBySchema(@Param("instanceId") Long instanceId, @Param("schemaName") String schemaName);
+    
+    /**
+     * 批量写入增长趋势
+     */
+    int upsertGrowth(@Param("list") List<TableGrowth> growth);
+    
+    /**
+     * 按达到 targetBytes 的剩余天数升序查询仍在增长、尚未达到目标的表（schemaLevel 为 true 时查询库汇总）
+     */
+    List<TableGrowth> selectForecast(@Param("instanceId") Long instanceId,
+                                     @Param("schemaName") String schemaName,
+                                     @Param("schemaLevel") boolean schemaLevel,
+                                     @Param("targetBytes") long targetBytes,
+                                     @Param("activeSince") Date activeSince,
+                                     @Param("limit") int limit);
+    
+    /**
+     * 按每天增长量倒序查询，instanceId 为空时查询所有实例
+     */
+    List<TableGrowth> selectTopGrowers(@Param("instanceId") Long instanceId,
+                                       @Param("schemaLevel") boolean schemaLevel,
+                                       @Param("activeSince") Date activeSince,
+                                       @Param("limit") int limit);
+    
+    /**
+     * 查询表（tableName 为空串时为整个库）从 from 起的日采样
+     */
+    List<TableSizeSample> selectSamples(@Param("instanceId") Long instanceId,
+                                        @Param("schemaName") String schemaName,
+                                        @Param("tableName") String tableName,
+                                        @Param("from") Date from);
+}
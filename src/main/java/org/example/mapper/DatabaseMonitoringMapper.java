@@ -2,7 +2,9 @@ package org.example.mapper;
 
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
@@ -18,6 +20,27 @@ public interface DatabaseMonitoringMapper {
      */
     List<Map<String, Object>> getGlobalStatus();
 
+    /**
+     * 批量采集监控数据（一次往返，依赖 allowMultiQueries）
+     * 依次返回：全局状态、活跃查询
+     */
+    List<List<Map<String, Object>>> collectMonitoringBatch();
+
+    /**
+     * 获取复制状态，每个复制通道一行，legacy 为 true 时使用 SHOW SLAVE STATUS（MySQL 8.0.22 之前及 MariaDB）
+     */
+    List<Map<String, Object>> getReplicaStatus(@Param("legacy") boolean legacy);
+
+    /**
+     * 获取实例自身的 server_id、主机名和端口
+     */
+    Map<String, Object> getServerIdentity();
+
+    /**
+     * 流式读取完整 processlist（含空闲连接），需在会话关闭前遍历完
+     */
+    Cursor<Map<String, Object>> streamProcesslist();
+
     /**
      * 获取慢查询列表
      */
@@ -29,9 +52,19 @@ public interface DatabaseMonitoringMapper {
     List<Map<String, Object>> getActiveQueries();
 
     /**
-     * 获取表空间信息
+     * 获取单个库的表空间信息
+     */
+    List<Map<String, Object>> getTableSpaceInfo(@Param("schema") String schema);
+
+    /**
+     * 获取用户库列表
      */
-    List<Map<String, Object>> getTableSpaceInfo();
+    List<String> getSchemaNames();
+
+    /**
+     * 获取单个库的 InnoDB 表空间文件大小，legacy 为 true 时读取 MySQL 5.7 的 innodb_sys_tablespaces
+     */
+    List<Map<String, Object>> getTablespaceFiles(@Param("schema") String schema, @Param("legacy") boolean legacy);
 
     /**
      * 获取数据库运行时间
@@ -62,4 +95,24 @@ public interface DatabaseMonitoringMapper {
      * 获取TPS相关统计
      */
     Map<String, Object> getTransactionsStats();
-}
\ No newline at end of file
+
+    /**
+     * 获取 performance_schema 语句摘要累计统计，since 为空时返回全部
+     */
+    List<Map<String, Object>> getStatementDigests(@Param("since") Date since);
+
+    /**
+     * 按 start_time 升序读取 mysql.slow_log 中不早于 after 的行
+     */
+    List<Map<String, Object>> getSlowLogSince(@Param("after") Date after, @Param("limit") int limit);
+
+    /**
+     * 从 performance_schema.data_lock_waits 读取锁等待关系（MySQL 8.0）
+     */
+    List<Map<String, Object>> getLockWaits(@Param("limit") int limit);
+
+    /**
+     * 从 sys.innodb_lock_waits 读取锁等待关系（MySQL 5.7），列与 getLockWaits 一致
+     */
+    List<Map<String, Object>> getLockWaitsFromSys(@Param("limit") int limit);
+}
@@ -0,0 +1,27 @@
+package org.example.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.example.entity.LockBlocker;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 锁阻塞记录Mapper接口
+ */
+@Mapper
+public interface LockBlockerMapper {
+    
+    /**
+     * 批量插入根阻塞事务记录（单条多行INSERT）
+     */
+    int insertBatch(@Param("list") List<LockBlocker> records);
+    
+    /**
+     * 查询时间范围内的根阻塞事务记录，按分析时间倒序
+     */
+    List<LockBlocker> selectRecent(@Param("instanceId") Long instanceId,
+                                   @Param("from") Date from,
+                                   @Param("limit") int limit);
+}
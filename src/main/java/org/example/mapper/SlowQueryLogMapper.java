@@ -0,0 +1,47 @@
+package org.example.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+import org.example.entity.SlowLogWatermark;
+import org.example.entity.SlowQueryLog;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 慢查询日志Mapper接口
+ */
+@Mapper
+public interface SlowQueryLogMapper {
+    
+    /**
+     * 批量插入慢查询记录（单条多行INSERT）
+     */
+    int insertBatch(@Param("list") List<SlowQueryLog> records);
+    
+    /**
+     * 按 (start_time, id) 倒序分页查询，游标为上一页最后一条记录的时间和ID，首页传 null
+     */
+    List<SlowQueryLog> selectPage(@Param("instanceId") Long instanceId,
+                                  @Param("beforeTime") Date beforeTime,
+                                  @Param("beforeId") Long beforeId,
+                                  @Param("limit") int limit);
+    
+    /**
+     * 按 (start_time, id) 顺序流式读取时间范围 [from, to) 内的记录，调用方负责在会话关闭前遍历并关闭游标
+     */
+    Cursor<SlowQueryLog> streamRange(@Param("instanceId") Long instanceId,
+                                     @Param("from") Date from,
+                                     @Param("to") Date to);
+    
+    /**
+     * 查询实例的采集水位
+     */
+    SlowLogWatermark selectWatermark(@Param("instanceId") Long instanceId);
+    
+    /**
+     * 保存实例的采集水位（不存在时插入）
+     */
+    int upsertWatermark(SlowLogWatermark watermark);
+}
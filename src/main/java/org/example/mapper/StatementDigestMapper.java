@@ -0,0 +1,34 @@
+package org.example.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.example.entity.StatementDigest;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 语句摘要Mapper接口
+ */
+@Mapper
+public interface StatementDigestMapper {
+    
+    /**
+     * 批量登记摘要文本，已存在的摘要忽略
+     */
+    int insertDigestTexts(@Param("list") List<StatementDigest> digests);
+    
+    /**
+     * 批量插入摘要增量（单条多行INSERT）
+     */
+    int insertBatch(@Param("list") List<StatementDigest> records);
+    
+    /**
+     * 汇总时间范围内各摘要的增量，按 orderBy（count 或 latency）倒序取前 limit 条
+     */
+    List<Map<String, Object>> selectTop(@Param("instanceId") Long instanceId,
+                                        @Param("from") Date from,
+                                        @Param("orderBy") String orderBy,
+                                        @Param("limit") int limit);
+}
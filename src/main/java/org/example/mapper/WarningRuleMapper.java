@@ -0,0 +1,44 @@
+package org.example.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.example.entity.WarningRule;
+
+import java.util.List;
+
+/**
+ * 告警规则Mapper接口
+ */
+@Mapper
+public interface WarningRuleMapper {
+    
+    /**
+     * 查询所有规则
+     */
+    List<WarningRule> selectAllRules();
+    
+    /**
+     * 查询启用的规则
+     */
+    List<WarningRule> selectEnabledRules();
+    
+    /**
+     * 根据ID查询规则
+     */
+    WarningRule selectById(@Param("id") Long id);
+    
+    /**
+     * 插入新规则
+     */
+    int insert(WarningRule rule);
+    
+    /**
+     * 更新规则
+     */
+    int update(WarningRule rule);
+    
+    /**
+     * 删除规则
+     */
+    int delete(@Param("id") Long id);
+}
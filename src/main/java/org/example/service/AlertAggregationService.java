@@ -0,0 +1,19 @@
+package org.example.service;
+
+/**
+ * 告警聚合服务接口
+ * 位于规则求值与通知发送之间：按（实例，规则）去重，分组窗口内的新告警合并通知，
+ * 抖动的告警只通知一次，恢复需保持一段时间才发送恢复通知
+ */
+public interface AlertAggregationService {
+
+    /**
+     * 当前跟踪中的告警数
+     */
+    int getActiveCount();
+
+    /**
+     * 因去重或抖动被抑制的事件数
+     */
+    long getSuppressedCount();
+}
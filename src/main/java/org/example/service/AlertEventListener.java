@@ -0,0 +1,15 @@
+package org.example.service;
+
+import org.example.dto.AlertEventDTO;
+
+/**
+ * 告警事件监听器
+ * 在采集线程中同步回调，实现方不应执行阻塞操作
+ */
+public interface AlertEventListener {
+
+    /**
+     * 处理一条触发或恢复事件
+     */
+    void onAlertEvent(AlertEventDTO event);
+}
@@ -0,0 +1,30 @@
+package org.example.service;
+
+import java.util.Map;
+
+/**
+ * 告警历史服务接口
+ * 告警事件经异步缓冲批量写入 alert_history 表，查询使用游标分页
+ */
+public interface AlertHistoryService {
+
+    /**
+     * 分页查询告警历史（按事件时间倒序）
+     *
+     * @param beforeTime 上一页最后一条记录的事件时间（毫秒时间戳），首页传 null
+     * @param beforeId 上一页最后一条记录的ID，首页传 null
+     * @return items 当前页记录，hasMore 是否还有下一页，nextCursor 下一页游标
+     */
+    Map<String, Object> getHistory(Long instanceId, String severity, String status,
+                                   Long beforeTime, Long beforeId, int size);
+
+    /**
+     * 等待写入的记录数
+     */
+    int getPendingCount();
+
+    /**
+     * 缓冲区已满被丢弃的记录数
+     */
+    long getDroppedCount();
+}
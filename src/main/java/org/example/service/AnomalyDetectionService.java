@@ -0,0 +1,28 @@
+package org.example.service;
+
+import org.example.dto.AlertEventDTO;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 异常检测服务接口
+ * 为每个实例的关键指标维护流式基线，偏离基线时产生异常事件（与阈值告警走同一事件通道）
+ */
+public interface AnomalyDetectionService {
+
+    /**
+     * 当前处于异常状态的指标
+     */
+    List<AlertEventDTO> getActiveAnomalies(Long instanceId);
+
+    /**
+     * 实例各指标的当前基线（期望值、标准差、最近一次偏离分数）
+     */
+    Map<String, Map<String, Object>> getBaselines(Long instanceId);
+
+    /**
+     * 清除实例的基线和异常状态（实例删除或停用后调用），处于异常状态的指标发出恢复事件
+     */
+    void evict(Long instanceId);
+}
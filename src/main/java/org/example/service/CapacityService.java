@@ -0,0 +1,40 @@
+package org.example.service;
+
+import org.example.entity.TableSizeSample;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 容量趋势服务接口
+ * 每张表和每个库每天保存一次大小采样，并增量更新加权线性回归，按增长率预测达到指定容量的天数
+ */
+public interface CapacityService {
+    
+    /**
+     * 记录一个库刷新得到的表大小，每个库每天只计入一次
+     *
+     * @param tables 表大小列表（table_name、size、table_rows）
+     */
+    void record(Long instanceId, String schemaName, List<Map<String, Object>> tables, long sampleTime);
+    
+    /**
+     * 按达到 targetGb 的剩余天数升序返回仍在增长的表（schemaLevel 为 true 时返回库），schemaName 为空表示全部库
+     */
+    List<Map<String, Object>> forecast(Long instanceId, String schemaName, boolean schemaLevel, double targetGb, int limit);
+    
+    /**
+     * 每天增长量最大的表（schemaLevel 为 true 时为库），instanceId 为空时在所有实例中排名
+     */
+    List<Map<String, Object>> topGrowers(Long instanceId, boolean schemaLevel, int limit);
+    
+    /**
+     * 最近 days 天的日采样，tableName 为空时返回整个库的采样
+     */
+    List<TableSizeSample> getHistory(Long instanceId, String schemaName, String tableName, int days);
+    
+    /**
+     * 清除实例的记录状态
+     */
+    void evict(Long instanceId);
+}
@@ -0,0 +1,21 @@
+package org.example.service;
+
+import java.util.Map;
+
+/**
+ * 计数器速率计算服务接口
+ * 根据相邻两次 SHOW GLOBAL STATUS 采样的计数器差值计算区间 QPS/TPS 等速率
+ */
+public interface CounterRateService {
+
+    /**
+     * 记录一次全局状态采样并返回与上一次采样之间的区间速率
+     * 首次采样或检测到实例重启时没有基准采样，返回空 Map，不输出速率字段
+     */
+    Map<String, Object> computeRates(Long instanceId, Map<String, String> globalStatus);
+
+    /**
+     * 移除实例的历史采样
+     */
+    void evict(Long instanceId);
+}
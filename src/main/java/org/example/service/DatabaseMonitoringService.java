@@ -2,8 +2,11 @@ package org.example.service;
 
 import org.example.entity.DatabaseInstance;
 
+import java.sql.SQLException;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * 数据库监控服务接口
@@ -62,7 +65,50 @@ public interface DatabaseMonitoringService {
     long getUptime(DatabaseInstance instance);
     
     /**
-     * 获取综合监控数据
+     * 获取综合监控数据；从库另含 replication（各复制通道状态）和 replica_lag、replica_io_running、replica_sql_running 指标
      */
     Map<String, Object> getComprehensiveMonitoringData(DatabaseInstance instance);
-}
\ No newline at end of file
+    
+    /**
+     * 获取 performance_schema 中 last_seen 不早于 since 的语句摘要累计统计（since 为空时返回全部）
+     * 与其他采集方法不同，查询失败时抛出异常，便于调用方区分“无变化”和“不可用”
+     */
+    List<Map<String, Object>> getStatementDigests(DatabaseInstance instance, Date since) throws SQLException;
+    
+    /**
+     * 按 start_time 升序读取 mysql.slow_log 中不早于 after 的行，最多 limit 条；查询失败时抛出异常
+     */
+    List<Map<String, Object>> getSlowLogSince(DatabaseInstance instance, Date after, int limit) throws SQLException;
+    
+    /**
+     * 读取锁等待关系，每行为一条 等待事务 -> 阻塞事务 的边，最多 limit 条；
+     * fromSys 为 true 时读取 sys.innodb_lock_waits（MySQL 5.7），否则读取 performance_schema（MySQL 8.0）。查询失败时抛出异常
+     */
+    List<Map<String, Object>> getLockWaits(DatabaseInstance instance, boolean fromSys, int limit) throws SQLException;
+    
+    /**
+     * 获取实例自身的 server_id、hostname 和 port；查询失败时抛出异常
+     */
+    Map<String, Object> getServerIdentity(DatabaseInstance instance) throws SQLException;
+    
+    /**
+     * 获取用户库列表；查询失败时抛出异常
+     */
+    List<String> getSchemaNames(DatabaseInstance instance) throws SQLException;
+    
+    /**
+     * 获取单个库各表的行数、数据、索引和碎片大小（不排序）；查询失败时抛出异常
+     */
+    List<Map<String, Object>> getSchemaTableSpace(DatabaseInstance instance, String schema) throws SQLException;
+    
+    /**
+     * 获取单个库的 InnoDB 表空间文件大小，legacy 为 true 时读取 MySQL 5.7 的视图；查询失败时抛出异常
+     */
+    List<Map<String, Object>> getTablespaceFiles(DatabaseInstance instance, String schema, boolean legacy)
+            throws SQLException;
+    
+    /**
+     * 流式读取完整 processlist（含空闲连接），每行回调一次，返回行数；会话在遍历期间保持打开。查询失败时抛出异常
+     */
+    long streamProcesslist(DatabaseInstance instance, Consumer<Map<String, Object>> consumer) throws SQLException;
+}
@@ -0,0 +1,33 @@
+package org.example.service;
+
+import org.example.entity.DatabaseInstance;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 被监控实例连接池服务接口
+ * 按实例ID维护小型连接池，供各监控采集器复用连接
+ */
+public interface InstanceDataSourceService {
+
+    /**
+     * 从实例连接池中获取连接（连接池按需懒创建）
+     */
+    Connection getConnection(DatabaseInstance instance) throws SQLException;
+
+    /**
+     * 实例配置变更后重建连接池，实例被禁用时移除连接池
+     */
+    void refresh(DatabaseInstance instance);
+
+    /**
+     * 移除并关闭实例连接池
+     */
+    void remove(Long instanceId);
+
+    /**
+     * 当前已创建的连接池数量
+     */
+    int getPoolCount();
+}
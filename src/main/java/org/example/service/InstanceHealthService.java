@@ -0,0 +1,26 @@
+package org.example.service;
+
+import org.example.dto.InstanceHealthDTO;
+import org.example.entity.DatabaseInstance;
+
+/**
+ * 实例健康检查服务接口
+ * 后台异步探测实例可达性并缓存结果，接口直接读取缓存，不在请求线程中建立连接
+ */
+public interface InstanceHealthService {
+
+    /**
+     * 获取缓存的健康状态，结果不存在或已过期时提交后台探测并立即返回当前结果
+     */
+    InstanceHealthDTO getHealth(DatabaseInstance instance);
+
+    /**
+     * 立即探测实例并更新缓存（同一实例的并发探测合并为一次）
+     */
+    InstanceHealthDTO probe(DatabaseInstance instance);
+
+    /**
+     * 移除实例的健康状态缓存
+     */
+    void evict(Long instanceId);
+}
@@ -0,0 +1,29 @@
+package org.example.service;
+
+import org.example.entity.LockBlocker;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 锁等待分析服务接口
+ * 实例存在行锁等待时读取锁等待关系，构建阻塞树并记录根阻塞事务；没有锁等待时不访问被监控实例
+ */
+public interface LockWaitService {
+    
+    /**
+     * 实例最近一次分析得到的阻塞树：sample_time、source、waits 以及按被阻塞事务数倒序的 roots，
+     * 每个节点的 blocked 为被它阻塞的事务；当前没有锁等待时 roots 为空
+     */
+    Map<String, Object> getBlockingTree(Long instanceId);
+    
+    /**
+     * 最近 minutes 分钟内记录的根阻塞事务，按分析时间倒序
+     */
+    List<LockBlocker> getBlockerHistory(Long instanceId, int minutes, int limit);
+    
+    /**
+     * 清除实例的分析状态
+     */
+    void evict(Long instanceId);
+}
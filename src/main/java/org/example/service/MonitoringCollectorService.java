@@ -0,0 +1,35 @@
+package org.example.service;
+
+import org.example.entity.DatabaseInstance;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 监控数据采集服务接口
+ * 后台定时采集所有启用实例的监控数据，并在内存中保存每个实例的最新快照
+ */
+public interface MonitoringCollectorService {
+
+    /**
+     * 获取实例的最新监控快照，不在调用线程中查询实例。尚未采集过时返回 collected=false 的占位结果：
+     * 禁用实例的 state 为 inactive；启用实例的 state 为 pending，并在后台预热采集一次
+     */
+    Map<String, Object> getLatestSnapshot(DatabaseInstance instance);
+
+    /**
+     * 立即采集实例监控数据并更新快照
+     */
+    Map<String, Object> collectNow(DatabaseInstance instance);
+
+    /**
+     * 所有启用实例的概要指标，快照在一个采集周期内的实例直接返回快照，
+     * 其余实例并行采集并受统一截止时间约束，超时的实例返回 timeout 标记而不阻塞整体响应
+     */
+    List<Map<String, Object>> collectOverview();
+
+    /**
+     * 移除实例的监控快照
+     */
+    void evict(Long instanceId);
+}
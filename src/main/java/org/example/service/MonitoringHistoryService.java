@@ -0,0 +1,24 @@
+package org.example.service;
+
+import org.example.entity.DatabaseInstance;
+
+import java.util.Map;
+
+/**
+ * 监控历史数据服务接口
+ * 将采集到的监控快照写入时间序列存储，并按时间范围提供图表数据
+ */
+public interface MonitoringHistoryService {
+
+    /**
+     * 获取实例历史监控数据
+     * @param timeRange 时间范围：1h、6h、24h、7d
+     * @return 指标名 -> {values, labels}
+     */
+    Map<String, Object> getHistoryData(DatabaseInstance instance, String timeRange);
+
+    /**
+     * 丢弃实例尚未结束的降采样桶（实例删除后调用）
+     */
+    void evict(Long instanceId);
+}
@@ -0,0 +1,17 @@
+package org.example.service;
+
+import org.example.entity.DatabaseInstance;
+
+import java.util.Map;
+
+/**
+ * 监控快照监听器
+ * 采集器每得到一份实例快照都会依次回调所有监听器，回调在采集线程中执行，实现需尽快返回
+ */
+public interface MonitoringSnapshotListener {
+
+    /**
+     * 收到实例的新监控快照（只读）
+     */
+    void onSnapshot(DatabaseInstance instance, Map<String, Object> snapshot);
+}
@@ -0,0 +1,27 @@
+package org.example.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * 监控数据推送服务接口
+ * 基于Server-Sent Events按实例推送采集器产生的监控快照
+ */
+public interface MonitoringStreamService {
+
+    /**
+     * 订阅实例的实时监控数据
+     * @param clientId 客户端标识，停止监控时用于关闭对应订阅
+     */
+    SseEmitter subscribe(Long instanceId, String clientId);
+
+    /**
+     * 关闭订阅，clientId 为空时关闭该实例的所有订阅
+     * @return 关闭的订阅数
+     */
+    int unsubscribe(Long instanceId, String clientId);
+
+    /**
+     * 实例当前订阅数
+     */
+    int getSubscriberCount(Long instanceId);
+}
@@ -0,0 +1,20 @@
+package org.example.service;
+
+/**
+ * 告警通知服务接口
+ * 消息放入有界队列后立即返回，由后台线程限流发送
+ */
+public interface NotificationService {
+
+    /**
+     * 提交一条告警通知
+     *
+     * @return 是否已放入发送队列（通知未启用或队列已满时返回 false）
+     */
+    boolean sendAlert(String title, String content);
+
+    /**
+     * 等待发送的通知数
+     */
+    int getPendingCount();
+}
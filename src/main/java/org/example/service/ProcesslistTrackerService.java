@@ -0,0 +1,43 @@
+package org.example.service;
+
+import org.example.dto.PageQueryDTO;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 活跃会话跟踪服务接口
+ * 按连接ID保存每个实例上一次的活跃会话列表，对外只提供相对某个版本的变化（新增或变化的会话、已结束的连接ID），
+ * 并维护按开始时间排序的长时间运行查询索引
+ */
+public interface ProcesslistTrackerService {
+    
+    /** 分页查询可用的排序字段 */
+    List<String> SORT_FIELDS = Collections.unmodifiableList(
+            Arrays.asList("time", "started_at", "id", "user", "db", "command", "state"));
+    
+    /**
+     * 相对 since 版本的变化：version 当前版本，full 是否为全量，upserts 新增或变化的会话，removed 已结束的连接ID。
+     * since 为 0、早于保留的删除记录或大于当前版本时返回全量
+     */
+    Map<String, Object> getChanges(Long instanceId, long since);
+    
+    /**
+     * 已执行至少 minSeconds 秒的查询，按开始时间从早到晚
+     */
+    List<Map<String, Object>> getLongRunning(Long instanceId, int minSeconds, int limit);
+    
+    /**
+     * 清除实例的跟踪数据
+     */
+    void evict(Long instanceId);
+    
+    /**
+     * 分页查询当前活跃会话：user、db、command 精确匹配，keyword 匹配语句文本，minTime 为最短执行秒数，为空表示不过滤；
+     * 按 time 排序时实际按开始时间反向排序，游标为开始时间，翻页期间执行时间增长不影响分页
+     */
+    Map<String, Object> getPage(Long instanceId, String user, String db, String command, String keyword, int minTime,
+                                PageQueryDTO query);
+}
@@ -0,0 +1,27 @@
+package org.example.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 查询摘要统计服务接口
+ * 按 SQL 指纹聚合各实例的活跃查询和慢查询，在滑动时间窗口内统计执行次数和累计耗时最高的语句
+ */
+public interface QueryDigestService {
+
+    /** 按执行次数排序 */
+    String SORT_BY_COUNT = "count";
+
+    /** 按累计耗时排序 */
+    String SORT_BY_TIME = "time";
+
+    /**
+     * 最近 minutes 分钟内执行次数或累计耗时最高的 SQL 指纹
+     */
+    List<Map<String, Object>> getTopQueries(Long instanceId, int minutes, String sortBy, int limit);
+
+    /**
+     * 清除实例的统计数据
+     */
+    void evict(Long instanceId);
+}
@@ -0,0 +1,28 @@
+package org.example.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 复制拓扑服务接口
+ * 复制状态随每次监控采集在同一连接上单独读取（SHOW REPLICA STATUS），延迟和 IO/SQL 线程状态作为快照指标
+ * 写入时间序列；本服务把各从库的复制源匹配到被监控实例，缓存 源 -> 从 的拓扑图
+ */
+public interface ReplicationTopologyService {
+
+    /**
+     * 复制拓扑：nodes 为被监控实例（role 为 source、replica、intermediate 或 standalone）及未被监控的外部复制源，
+     * edges 为 源 -> 从 的复制通道，附带最近一次采集的线程状态和延迟
+     */
+    Map<String, Object> getTopology();
+
+    /**
+     * 实例最近一次采集到的各复制通道状态，非从库返回空列表
+     */
+    List<Map<String, Object>> getReplicaStatus(Long instanceId);
+
+    /**
+     * 清除实例的复制状态和缓存的实例标识
+     */
+    void evict(Long instanceId);
+}
@@ -0,0 +1,39 @@
+package org.example.service;
+
+import org.example.entity.DatabaseInstance;
+import org.example.entity.SlowQueryLog;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 慢查询采集服务接口
+ * 按实例水位增量采集 mysql.slow_log（或本地慢日志文件）到本地慢查询表，界面只查询本地表
+ */
+public interface SlowLogService {
+    
+    /**
+     * 分页查询已采集的慢查询（按开始时间倒序）
+     *
+     * @param beforeTime 上一页最后一条记录的开始时间（毫秒时间戳），首页传 null
+     * @param beforeId 上一页最后一条记录的ID，首页传 null
+     * @return items 当前页记录，hasMore 是否还有下一页，nextCursor 下一页游标
+     */
+    Map<String, Object> getSlowQueries(Long instanceId, Long beforeTime, Long beforeId, int size);
+    
+    /**
+     * 按开始时间顺序逐条读取时间范围 [from, to) 内已采集的慢查询，不在内存中保留结果，返回读取的条数
+     */
+    long streamSlowQueries(Long instanceId, Date from, Date to, Consumer<SlowQueryLog> consumer);
+    
+    /**
+     * 采集一次实例的新增慢查询，返回本次采集的条数
+     */
+    int ingest(DatabaseInstance instance);
+    
+    /**
+     * 清除实例的内存采集状态（持久化的水位保留）
+     */
+    void evict(Long instanceId);
+}
@@ -0,0 +1,34 @@
+package org.example.service;
+
+import org.example.entity.DatabaseInstance;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 语句摘要采集服务接口
+ * 定期读取被监控实例 performance_schema 的语句摘要累计统计，与上一次快照比较后只保存有变化的摘要增量
+ */
+public interface StatementDigestService {
+    
+    /** 按执行次数排序 */
+    String SORT_BY_COUNT = "count";
+    
+    /** 按累计耗时排序 */
+    String SORT_BY_LATENCY = "latency";
+    
+    /**
+     * 采集一次实例的语句摘要并保存增量，返回保存的摘要数（首次采集只建立基准，返回0）
+     */
+    int collect(DatabaseInstance instance);
+    
+    /**
+     * 最近 minutes 分钟内执行次数或累计耗时最高的语句
+     */
+    List<Map<String, Object>> getTopStatements(Long instanceId, int minutes, String sortBy, int limit);
+    
+    /**
+     * 清除实例的快照基准
+     */
+    void evict(Long instanceId);
+}
@@ -0,0 +1,42 @@
+package org.example.service;
+
+import org.example.dto.PageQueryDTO;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 表空间清单服务接口
+ * 后台按库逐个刷新各实例的表空间并缓存，实时监控和接口只读取缓存，不扫描 information_schema.tables
+ */
+public interface TableSpaceService {
+    
+    /** 表分页查询可用的排序字段 */
+    List<String> TABLE_SORT_FIELDS = Collections.unmodifiableList(
+            Arrays.asList("size", "data_size", "index_size", "data_free", "table_rows", "file_size", "table_name"));
+    
+    /**
+     * 实例各库的表空间汇总（name、size、data_size、index_size、data_free、file_size、percent_used 等），按大小倒序；
+     * 尚未刷新过的库不在结果中
+     */
+    List<Map<String, Object>> getSchemaSizes(Long instanceId);
+    
+    /**
+     * 分页查询已缓存的表：schema 为空时查询所有库，keyword 匹配表名，engine 精确匹配，minSize 为最小数据和索引大小
+     */
+    Map<String, Object> getTablePage(Long instanceId, String schema, String keyword, String engine, long minSize,
+                                     PageQueryDTO query);
+    
+    /**
+     * 逐行遍历已缓存的表（schema 为空时遍历所有库），不复制表列表，返回遍历的行数
+     */
+    long forEachTable(Long instanceId, String schema, Consumer<Map<String, Object>> consumer);
+    
+    /**
+     * 清除实例的缓存
+     */
+    void evict(Long instanceId);
+}
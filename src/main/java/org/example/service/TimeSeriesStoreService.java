@@ -0,0 +1,30 @@
+package org.example.service;
+
+import org.example.dto.TimeSeriesDTO;
+
+/**
+ * 时间序列存储服务接口
+ * 本地磁盘嵌入式存储，按 (实例ID, 指标) 保存压缩的监控采样；各级降采样单独存储
+ */
+public interface TimeSeriesStoreService {
+
+    /**
+     * 追加一个采样点，时间戳单位为秒
+     */
+    void append(Long instanceId, String metric, long timestamp, double value);
+
+    /**
+     * 查询 [from, to] 时间范围内（秒，闭区间）的采样点
+     */
+    TimeSeriesDTO query(Long instanceId, String metric, long from, long to);
+
+    /**
+     * 追加一个降采样桶的值，时间戳为桶起始时间（秒）
+     */
+    void appendRollup(String tier, Long instanceId, String series, long timestamp, double value);
+
+    /**
+     * 查询降采样级别中 [from, to] 时间范围内（秒，闭区间）的桶
+     */
+    TimeSeriesDTO queryRollup(String tier, Long instanceId, String series, long from, long to);
+}
@@ -0,0 +1,53 @@
+package org.example.service;
+
+import org.example.dto.AlertEventDTO;
+import org.example.entity.WarningRule;
+
+import java.util.List;
+
+/**
+ * 告警规则服务接口
+ * 维护持久化的告警规则，并将启用的规则编译后对每次采集结果增量求值
+ */
+public interface WarningRuleService {
+
+    /**
+     * 查询所有规则
+     */
+    List<WarningRule> getAllRules();
+
+    /**
+     * 根据ID查询规则
+     */
+    WarningRule getRuleById(Long id);
+
+    /**
+     * 添加规则，参数不合法时抛出 IllegalArgumentException
+     */
+    boolean addRule(WarningRule rule);
+
+    /**
+     * 更新规则，参数不合法时抛出 IllegalArgumentException
+     */
+    boolean updateRule(WarningRule rule);
+
+    /**
+     * 删除规则
+     */
+    boolean deleteRule(Long id);
+
+    /**
+     * 从数据库重新加载并编译启用的规则
+     */
+    void reloadRules();
+
+    /**
+     * 清除实例的求值状态（实例删除或停用后调用），处于触发状态的告警发出恢复事件
+     */
+    void evict(Long instanceId);
+
+    /**
+     * 当前处于触发状态的告警
+     */
+    List<AlertEventDTO> getActiveAlerts(Long instanceId);
+}
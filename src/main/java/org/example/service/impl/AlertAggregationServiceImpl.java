@@ -0,0 +1,356 @@
+package org.example.service.impl;
+
+import org.example.dto.AlertEventDTO;
+import org.example.service.AlertAggregationService;
+import org.example.service.AlertEventListener;
+import org.example.service.NotificationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 告警聚合服务实现类
+ * 每个（实例，规则）只保留一条跟踪状态：
+ * 新触发的告警先进入按规则划分的分组，分组窗口结束时合并为一条通知；
+ * 恢复事件需保持 resolve-hold 时间不再触发才发送恢复通知，期间重新触发视为抖动而不再通知；
+ * 状态变化历史独立于跟踪状态保留 flap-window，告警恢复后再次触发仍能识别抖动；
+ * 窗口期内状态变化次数达到 flap-threshold 的告警标记为抖动，只通知一次，
+ * 之后的触发和恢复都不再通知，直到 flap-window 内没有状态变化时发送一条抖动停止通知。
+ * 跟踪的告警数和状态变化历史数都受 max-active 限制，超出部分只计数并在下一条通知中提示。
+ */
+@Service
+public class AlertAggregationServiceImpl implements AlertAggregationService, AlertEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertAggregationServiceImpl.class);
+
+    /** 单条通知中最多列出的实例数 */
+    private static final int MAX_LISTED = 20;
+
+    /** 实例ID:规则ID -> 跟踪状态 */
+    private final Map<String, AlertState> states = new HashMap<>();
+
+    /** 实例ID:规则ID -> 状态变化历史，最后一次变化超过 flap-window 后移除；按访问顺序淘汰最久未变化的 */
+    private final Map<String, FlapHistory> histories = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** 规则ID -> 分组窗口内新触发、尚未通知的告警 */
+    private final Map<Long, FiringGroup> pendingGroups = new LinkedHashMap<>();
+
+    private long suppressed;
+    private long overflow;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Value("${monitoring.alert.group-window:30000}")
+    private long groupWindow;
+
+    @Value("${monitoring.alert.resolve-hold:60000}")
+    private long resolveHold;
+
+    @Value("${monitoring.alert.flap-window:600000}")
+    private long flapWindow;
+
+    @Value("${monitoring.alert.flap-threshold:4}")
+    private int flapThreshold;
+
+    @Value("${monitoring.alert.max-active:5000}")
+    private int maxActive;
+
+    @Override
+    public synchronized void onAlertEvent(AlertEventDTO event) {
+        String key = event.getInstanceId() + ":" + event.getRuleId();
+        long now = System.currentTimeMillis();
+        AlertState state = states.get(key);
+
+        if (event.isFiring()) {
+            if (state == null) {
+                if (states.size() >= maxActive) {
+                    overflow++;
+                    return;
+                }
+                FlapHistory history = history(key, event);
+                history.recordTransition(now);
+                state = new AlertState(event, history);
+                states.put(key, state);
+                if (history.flapping) {
+                    // 抖动中的告警再次触发，已通知过抖动，不再发送触发通知
+                    state.notified = true;
+                    suppressed++;
+                } else if (history.isFlapping(now, flapWindow)) {
+                    state.notified = true;
+                    markFlapping(state);
+                } else {
+                    pendingGroups.computeIfAbsent(event.getRuleId(), k -> new FiringGroup(now)).alerts.add(state);
+                }
+            } else if (state.resolvedAt > 0) {
+                // 恢复保持期内再次触发：撤销恢复，不重复通知
+                state.resolvedAt = 0;
+                state.history.recordTransition(now);
+                suppressed++;
+                if (!state.history.flapping && state.history.isFlapping(now, flapWindow)) {
+                    markFlapping(state);
+                }
+            } else {
+                suppressed++;
+            }
+            return;
+        }
+
+        if (state == null) {
+            return;
+        }
+        state.history.recordTransition(now);
+        if (!state.notified) {
+            // 分组窗口内触发又恢复，不发送任何通知
+            FiringGroup group = pendingGroups.get(event.getRuleId());
+            if (group != null) {
+                group.alerts.remove(state);
+            }
+            states.remove(key);
+            suppressed++;
+            return;
+        }
+        state.resolvedAt = now;
+    }
+
+    /**
+     * 发送窗口已结束的分组通知和已稳定恢复的告警
+     */
+    @Scheduled(fixedDelayString = "${monitoring.alert.tick:1000}")
+    public void flush() {
+        List<String[]> messages = new ArrayList<>();
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            Iterator<FiringGroup> groups = pendingGroups.values().iterator();
+            while (groups.hasNext()) {
+                FiringGroup group = groups.next();
+                if (now - group.openedAt < groupWindow) {
+                    continue;
+                }
+                groups.remove();
+                if (!group.alerts.isEmpty()) {
+                    for (AlertState state : group.alerts) {
+                        state.notified = true;
+                    }
+                    messages.add(firingMessage(group.alerts));
+                }
+            }
+
+            Map<Long, List<AlertState>> resolvedByRule = new LinkedHashMap<>();
+            Iterator<AlertState> it = states.values().iterator();
+            while (it.hasNext()) {
+                AlertState state = it.next();
+                if (state.resolvedAt > 0 && now - state.resolvedAt >= resolveHold) {
+                    it.remove();
+                    if (!state.history.flapping) {
+                        resolvedByRule.computeIfAbsent(state.firing.getRuleId(), k -> new ArrayList<>()).add(state);
+                    }
+                }
+            }
+            for (List<AlertState> resolved : resolvedByRule.values()) {
+                messages.add(resolvedMessage(resolved));
+            }
+
+            // flap-window 内没有状态变化且已恢复的历史移除，抖动中的告警此时发送一条抖动停止通知
+            Map<Long, List<FlapHistory>> settledByRule = new LinkedHashMap<>();
+            Iterator<Map.Entry<String, FlapHistory>> expired = histories.entrySet().iterator();
+            while (expired.hasNext()) {
+                Map.Entry<String, FlapHistory> entry = expired.next();
+                FlapHistory history = entry.getValue();
+                if (now - history.lastTransition() <= flapWindow || states.containsKey(entry.getKey())) {
+                    continue;
+                }
+                expired.remove();
+                if (history.flapping) {
+                    settledByRule.computeIfAbsent(history.event.getRuleId(), k -> new ArrayList<>()).add(history);
+                }
+            }
+            for (List<FlapHistory> settled : settledByRule.values()) {
+                messages.add(settledMessage(settled));
+            }
+        }
+        for (String[] message : messages) {
+            notificationService.sendAlert(message[0], message[1]);
+        }
+    }
+
+    @Override
+    public synchronized int getActiveCount() {
+        return states.size();
+    }
+
+    @Override
+    public synchronized long getSuppressedCount() {
+        return suppressed;
+    }
+
+    /**
+     * 取出或创建（实例，规则）的状态变化历史，超过 max-active 时淘汰最久未变化的历史，调用方需持有锁
+     */
+    private FlapHistory history(String key, AlertEventDTO event) {
+        FlapHistory history = histories.get(key);
+        if (history == null) {
+            if (histories.size() >= maxActive) {
+                Iterator<Map.Entry<String, FlapHistory>> eldest = histories.entrySet().iterator();
+                while (eldest.hasNext()) {
+                    if (!states.containsKey(eldest.next().getKey())) {
+                        eldest.remove();
+                        break;
+                    }
+                }
+            }
+            history = new FlapHistory(flapThreshold);
+            histories.put(key, history);
+        }
+        history.event = event;
+        return history;
+    }
+
+    /**
+     * 调用方需持有锁；通知服务只入队不阻塞
+     */
+    private void markFlapping(AlertState state) {
+        state.history.flapping = true;
+        AlertEventDTO event = state.firing;
+        logger.info("告警 {}:{} 状态频繁变化，已抑制后续通知", event.getInstanceId(), event.getRuleId());
+        notificationService.sendAlert(String.format("[%s] %s 告警抖动", event.getSeverity(), event.getRuleName()),
+                String.format("%s 在 %d 分钟内状态变化 %d 次，稳定恢复前不再通知", event.getInstanceName(),
+                        flapWindow / 60000, flapThreshold));
+    }
+
+    private String[] firingMessage(List<AlertState> alerts) {
+        AlertEventDTO first = alerts.get(0).firing;
+        String title = String.format("[%s] %s 触发（%d 个实例）", first.getSeverity(), first.getRuleName(), alerts.size());
+        StringBuilder content = new StringBuilder();
+        int listed = 0;
+        for (AlertState state : alerts) {
+            if (listed++ == MAX_LISTED) {
+                content.append("\n……另有 ").append(alerts.size() - MAX_LISTED).append(" 个实例");
+                break;
+            }
+            AlertEventDTO event = state.firing;
+            content.append('\n').append(event.getInstanceName()).append("：").append(event.getMessage());
+        }
+        appendOverflow(content);
+        return new String[]{title, content.substring(1)};
+    }
+
+    private String[] resolvedMessage(List<AlertState> alerts) {
+        AlertEventDTO first = alerts.get(0).firing;
+        String title = String.format("[%s] %s 恢复（%d 个实例）", first.getSeverity(), first.getRuleName(), alerts.size());
+        StringBuilder content = new StringBuilder();
+        int listed = 0;
+        for (AlertState state : alerts) {
+            if (listed++ == MAX_LISTED) {
+                content.append("\n……另有 ").append(alerts.size() - MAX_LISTED).append(" 个实例");
+                break;
+            }
+            long duration = (state.resolvedAt - state.firing.getFiredAt()) / 1000;
+            content.append('\n').append(state.firing.getInstanceName()).append("：持续 ")
+                    .append(duration / 60).append(" 分 ").append(duration % 60).append(" 秒");
+        }
+        appendOverflow(content);
+        return new String[]{title, content.substring(1)};
+    }
+
+    private String[] settledMessage(List<FlapHistory> histories) {
+        AlertEventDTO first = histories.get(0).event;
+        String title = String.format("[%s] %s 抖动停止（%d 个实例）", first.getSeverity(), first.getRuleName(),
+                histories.size());
+        StringBuilder content = new StringBuilder();
+        int listed = 0;
+        for (FlapHistory history : histories) {
+            if (listed++ == MAX_LISTED) {
+                content.append("\n……另有 ").append(histories.size() - MAX_LISTED).append(" 个实例");
+                break;
+            }
+            content.append('\n').append(history.event.getInstanceName()).append("：已恢复，")
+                    .append(flapWindow / 60000).append(" 分钟内无状态变化");
+        }
+        appendOverflow(content);
+        return new String[]{title, content.substring(1)};
+    }
+
+    private void appendOverflow(StringBuilder content) {
+        if (overflow > 0) {
+            content.append("\n跟踪的告警数已达上限，另有 ").append(overflow).append(" 条告警未单独通知");
+            overflow = 0;
+        }
+    }
+
+    /**
+     * 单个（实例，规则）的告警跟踪状态
+     */
+    private static class AlertState {
+        final AlertEventDTO firing;
+        /** 已发送触发通知 */
+        boolean notified;
+        /** 进入恢复保持期的时间，0 表示仍在触发 */
+        long resolvedAt;
+        final FlapHistory history;
+
+        AlertState(AlertEventDTO firing, FlapHistory history) {
+            this.firing = firing;
+            this.history = history;
+        }
+    }
+
+    /**
+     * 单个（实例，规则）的状态变化历史，比跟踪状态多保留 flap-window
+     */
+    private static class FlapHistory {
+        /** 最近一次触发事件，用于通知内容 */
+        AlertEventDTO event;
+        /** 已通知抖动，稳定前不再发送触发和恢复通知 */
+        boolean flapping;
+        /** 最近若干次状态变化时间（环形） */
+        final long[] transitions;
+        int transitionCount;
+
+        FlapHistory(int flapThreshold) {
+            this.transitions = new long[Math.max(2, flapThreshold)];
+        }
+
+        long lastTransition() {
+            return transitionCount == 0 ? 0L : transitions[(transitionCount - 1) % transitions.length];
+        }
+
+        void recordTransition(long time) {
+            transitions[transitionCount % transitions.length] = time;
+            transitionCount++;
+        }
+
+        /**
+         * 最近 transitions.length 次状态变化是否都发生在窗口期内
+         */
+        boolean isFlapping(long now, long window) {
+            if (transitionCount < transitions.length) {
+                return false;
+            }
+            long oldest = transitions[transitionCount % transitions.length];
+            return now - oldest <= window;
+        }
+    }
+
+    /**
+     * 同一规则在分组窗口内新触发的告警
+     */
+    private static class FiringGroup {
+        final long openedAt;
+        final List<AlertState> alerts = new ArrayList<>();
+
+        FiringGroup(long openedAt) {
+            this.openedAt = openedAt;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package org.example.service.impl;
+
+import org.example.dto.AlertEventDTO;
+import org.example.entity.AlertHistory;
+import org.example.mapper.AlertHistoryMapper;
+import org.example.service.AlertEventListener;
+import org.example.service.AlertHistoryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 告警历史服务实现类
+ * 告警事件只放入有界队列即返回，由独立写入线程攒批后以多行 INSERT 写库，
+ * 告警风暴时采集线程不会等待数据库；队列写满时丢弃新事件并计数。
+ */
+@Service
+public class AlertHistoryServiceImpl implements AlertHistoryService, AlertEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertHistoryServiceImpl.class);
+
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_MESSAGE_LENGTH = 500;
+
+    @Autowired
+    private AlertHistoryMapper alertHistoryMapper;
+
+    @Value("${monitoring.alert-history.buffer-capacity:10000}")
+    private int bufferCapacity;
+
+    @Value("${monitoring.alert-history.batch-size:200}")
+    private int batchSize;
+
+    @Value("${monitoring.alert-history.flush-interval:1000}")
+    private long flushInterval;
+
+    private BlockingQueue<AlertHistory> buffer;
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean running = true;
+    private Thread writer;
+
+    @PostConstruct
+    public void init() {
+        buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        writer = new Thread(this::writeLoop, "alert-history-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * 停止写入线程，并把缓冲区中剩余的记录写完
+     */
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    @Override
+    public void onAlertEvent(AlertEventDTO event) {
+        if (!buffer.offer(toRecord(event))) {
+            long count = dropped.incrementAndGet();
+            if (count % 1000 == 1) {
+                logger.warn("告警历史缓冲区已满，累计丢弃 {} 条记录", count);
+            }
+        }
+    }
+
+    @Override
+    public Map<String, Object> getHistory(Long instanceId, String severity, String status,
+                                          Long beforeTime, Long beforeId, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Date before = beforeTime != null && beforeId != null ? new Date(beforeTime) : null;
+        // 多取一条用于判断是否还有下一页
+        List<AlertHistory> rows = alertHistoryMapper.selectPage(instanceId, severity, status, before,
+                before != null ? beforeId : null, limit + 1);
+
+        boolean hasMore = rows.size() > limit;
+        List<AlertHistory> items = hasMore ? new ArrayList<>(rows.subList(0, limit)) : rows;
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("items", items);
+        result.put("hasMore", hasMore);
+        if (hasMore) {
+            AlertHistory last = items.get(items.size() - 1);
+            Map<String, Object> cursor = new HashMap<>();
+            cursor.put("beforeTime", last.getEventTime().getTime());
+            cursor.put("beforeId", last.getId());
+            result.put("nextCursor", cursor);
+        }
+        return result;
+    }
+
+    @Override
+    public int getPendingCount() {
+        return buffer.size();
+    }
+
+    @Override
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private void writeLoop() {
+        List<AlertHistory> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                AlertHistory first = running ? buffer.poll(flushInterval, TimeUnit.MILLISECONDS) : buffer.poll();
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                // 停机时由 running 标记结束循环，剩余记录继续写完
+                continue;
+            }
+            buffer.drainTo(batch, batchSize - 1);
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<AlertHistory> batch) {
+        try {
+            alertHistoryMapper.insertBatch(batch);
+        } catch (Exception e) {
+            logger.error("写入告警历史失败，丢弃 {} 条记录", batch.size(), e);
+        }
+    }
+
+    private static AlertHistory toRecord(AlertEventDTO event) {
+        AlertHistory record = new AlertHistory();
+        record.setRuleId(event.getRuleId());
+        record.setRuleName(event.getRuleName());
+        record.setInstanceId(event.getInstanceId());
+        record.setInstanceName(event.getInstanceName());
+        record.setMetric(event.getMetric());
+        record.setOperator(event.getOperator());
+        record.setThreshold(event.getThreshold());
+        record.setValue(event.getValue());
+        record.setSeverity(event.getSeverity());
+        record.setStatus(event.getStatus());
+        String message = event.getMessage();
+        record.setMessage(message != null && message.length() > MAX_MESSAGE_LENGTH
+                ? message.substring(0, MAX_MESSAGE_LENGTH) : message);
+        record.setFiredAt(event.getFiredAt() != null ? new Date(event.getFiredAt()) : null);
+        record.setEventTime(new Date(event.getTimestamp() != null ? event.getTimestamp() : System.currentTimeMillis()));
+        return record;
+    }
+}
@@ -0,0 +1,242 @@
+package org.example.service.impl;
+
+import org.example.dto.AlertEventDTO;
+import org.example.entity.DatabaseInstance;
+import org.example.service.AlertEventListener;
+import org.example.service.AnomalyDetectionService;
+import org.example.service.MonitoringSnapshotListener;
+import org.example.util.SeasonalBaseline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 异常检测服务实现类
+ * 对每个（实例，指标）维护 EWMA 均值/方差和按时段划分的日内季节性基线，采样先与基线比较
+ * 得到偏离分数（z-score）再更新基线；连续若干次偏离超过阈值时产生异常事件，恢复到阈值以内时结束。
+ * 异常事件使用负数规则ID（按指标区分），与阈值告警一起进入告警历史和告警聚合。
+ */
+@Service
+public class AnomalyDetectionServiceImpl implements AnomalyDetectionService, MonitoringSnapshotListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnomalyDetectionServiceImpl.class);
+
+    /** 参与异常检测的指标，下标用于生成规则ID */
+    private static final String[] DETECTED_METRICS = {"qps", "tps", "threads_running", "threads_connected",
+            "slow_queries_per_sec"};
+
+    /** 实例ID:指标 -> 检测状态 */
+    private final Map<String, SeriesState> series = new ConcurrentHashMap<>();
+
+    @Autowired(required = false)
+    private List<AlertEventListener> alertEventListeners = Collections.emptyList();
+
+    @Value("${monitoring.anomaly.alpha:0.05}")
+    private double alpha;
+
+    @Value("${monitoring.anomaly.seasonal-alpha:0.01}")
+    private double seasonalAlpha;
+
+    @Value("${monitoring.anomaly.slots:24}")
+    private int slots;
+
+    @Value("${monitoring.anomaly.warmup:60}")
+    private int warmup;
+
+    @Value("${monitoring.anomaly.threshold:4.0}")
+    private double threshold;
+
+    @Value("${monitoring.anomaly.consecutive:3}")
+    private int consecutive;
+
+    /** 标准差下限的相对部分，避免平稳序列上的微小波动被放大 */
+    @Value("${monitoring.anomaly.min-relative-deviation:0.05}")
+    private double minRelativeDeviation;
+
+    @Override
+    public void onSnapshot(DatabaseInstance instance, Map<String, Object> snapshot) {
+        if (snapshot.containsKey("error") || !(snapshot.get("timestamp") instanceof Number)) {
+            return;
+        }
+        long timestamp = ((Number) snapshot.get("timestamp")).longValue();
+        long zoneOffset = TimeZone.getDefault().getOffset(timestamp);
+        for (int i = 0; i < DETECTED_METRICS.length; i++) {
+            Object raw = snapshot.get(DETECTED_METRICS[i]);
+            if (!(raw instanceof Number)) {
+                continue;
+            }
+            final int metricIndex = i;
+            SeriesState state = series.computeIfAbsent(instance.getId() + ":" + DETECTED_METRICS[i],
+                    k -> new SeriesState(metricIndex, new SeasonalBaseline(alpha, seasonalAlpha, slots, warmup)));
+            AlertEventDTO event;
+            synchronized (state) {
+                event = evaluate(instance, state, ((Number) raw).doubleValue(), timestamp, zoneOffset);
+            }
+            if (event != null) {
+                publish(event);
+            }
+        }
+    }
+
+    @Override
+    public List<AlertEventDTO> getActiveAnomalies(Long instanceId) {
+        List<AlertEventDTO> anomalies = new ArrayList<>();
+        for (Map.Entry<String, SeriesState> entry : series.entrySet()) {
+            if (instanceId != null && !entry.getKey().startsWith(instanceId + ":")) {
+                continue;
+            }
+            AlertEventDTO active = entry.getValue().active;
+            if (active != null) {
+                anomalies.add(active);
+            }
+        }
+        return anomalies;
+    }
+
+    @Override
+    public Map<String, Map<String, Object>> getBaselines(Long instanceId) {
+        Map<String, Map<String, Object>> baselines = new LinkedHashMap<>();
+        long now = System.currentTimeMillis();
+        long zoneOffset = TimeZone.getDefault().getOffset(now);
+        for (String metric : DETECTED_METRICS) {
+            SeriesState state = series.get(instanceId + ":" + metric);
+            if (state == null) {
+                continue;
+            }
+            Map<String, Object> baseline = new LinkedHashMap<>();
+            synchronized (state) {
+                int slot = state.baseline.slotOf(now, zoneOffset);
+                baseline.put("expected", round(state.baseline.expected(slot)));
+                baseline.put("deviation", round(state.baseline.deviation(slot)));
+                baseline.put("score", round(state.lastScore));
+                baseline.put("samples", state.baseline.getCount());
+                baseline.put("anomalous", state.active != null);
+            }
+            baselines.put(metric, baseline);
+        }
+        return baselines;
+    }
+
+    @Override
+    public void evict(Long instanceId) {
+        if (instanceId == null) {
+            return;
+        }
+        for (String metric : DETECTED_METRICS) {
+            SeriesState state = series.remove(instanceId + ":" + metric);
+            if (state == null) {
+                continue;
+            }
+            AlertEventDTO resolved = null;
+            synchronized (state) {
+                if (state.active != null) {
+                    resolved = state.active.withStatus(AlertEventDTO.STATUS_RESOLVED, null,
+                            System.currentTimeMillis(), "实例已删除或停用");
+                    state.active = null;
+                }
+            }
+            if (resolved != null) {
+                publish(resolved);
+            }
+        }
+    }
+
+    /**
+     * 先与基线比较再更新基线，返回需要发布的事件；调用方需持有 state 的锁
+     */
+    private AlertEventDTO evaluate(DatabaseInstance instance, SeriesState state, double value,
+                                   long timestamp, long zoneOffset) {
+        SeasonalBaseline baseline = state.baseline;
+        int slot = baseline.slotOf(timestamp, zoneOffset);
+        boolean warmedUp = baseline.getCount() >= warmup;
+        double expected = baseline.expected(slot);
+        double deviation = Math.max(baseline.deviation(slot), 1.0 + minRelativeDeviation * Math.abs(expected));
+        double score = warmedUp ? (value - expected) / deviation : 0.0;
+        state.lastScore = score;
+        // 偏离过大的采样截断到阈值边界且不计入方差，异常期间基线只缓慢跟随，持续的水平变化最终仍会被吸收
+        double bound = threshold * deviation;
+        boolean outlier = Math.abs(score) > threshold;
+        baseline.update(slot, outlier ? Math.max(expected - bound, Math.min(expected + bound, value)) : value, !outlier);
+
+        if (Math.abs(score) > threshold) {
+            state.streak++;
+            if (state.active == null && state.streak >= consecutive) {
+                state.active = anomalyEvent(instance, state.metricIndex, value, expected, score, timestamp);
+                logger.info("实例 {} 指标 {} 偏离基线，当前值 {}，期望值 {}", instance.getId(),
+                        DETECTED_METRICS[state.metricIndex], value, round(expected));
+                return state.active;
+            }
+        } else {
+            state.streak = 0;
+            if (state.active != null) {
+                AlertEventDTO resolved = state.active.withStatus(AlertEventDTO.STATUS_RESOLVED, value, timestamp,
+                        String.format("%s 已回到基线范围，当前值 %.2f，期望值 %.2f",
+                                DETECTED_METRICS[state.metricIndex], value, expected));
+                state.active = null;
+                return resolved;
+            }
+        }
+        return null;
+    }
+
+    private AlertEventDTO anomalyEvent(DatabaseInstance instance, int metricIndex, double value, double expected,
+                                       double score, long timestamp) {
+        String metric = DETECTED_METRICS[metricIndex];
+        AlertEventDTO event = new AlertEventDTO();
+        event.setRuleId(-(metricIndex + 1L));
+        event.setRuleName("异常检测：" + metric);
+        event.setInstanceId(instance.getId());
+        event.setInstanceName(instance.getName());
+        event.setMetric(metric);
+        event.setOperator(score > 0 ? ">" : "<");
+        event.setThreshold(round(expected));
+        event.setValue(value);
+        event.setSeverity("warning");
+        event.setStatus(AlertEventDTO.STATUS_FIRING);
+        event.setFiredAt(timestamp);
+        event.setTimestamp(timestamp);
+        event.setMessage(String.format("%s %s基线：当前值 %.2f，期望值 %.2f，偏离 %.1f 个标准差", metric,
+                score > 0 ? "高于" : "低于", value, expected, Math.abs(score)));
+        return event;
+    }
+
+    private void publish(AlertEventDTO event) {
+        for (AlertEventListener listener : alertEventListeners) {
+            try {
+                listener.onAlertEvent(event);
+            } catch (Exception e) {
+                logger.error("告警事件监听器 {} 处理失败", listener.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    /**
+     * 单个序列的基线与异常状态
+     */
+    private static class SeriesState {
+        final int metricIndex;
+        final SeasonalBaseline baseline;
+        int streak;
+        double lastScore;
+        AlertEventDTO active;
+
+        SeriesState(int metricIndex, SeasonalBaseline baseline) {
+            this.metricIndex = metricIndex;
+            this.baseline = baseline;
+        }
+    }
+}
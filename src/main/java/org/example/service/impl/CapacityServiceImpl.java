@@ -0,0 +1,214 @@
+package org.example.service.impl;
+
+import org.example.entity.TableGrowth;
+import org.example.entity.TableSizeSample;
+import org.example.mapper.CapacityMapper;
+import org.example.service.CapacityService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 容量趋势服务实现类
+ * 每张表保存加权最小二乘的五个累计量（权重、x、y、x²、xy），横轴以最近采样日为原点：
+ * 新的一天到来时把累计量平移到新原点并按 decay^间隔天数 衰减，再加入当天样本，增长率即斜率，
+ * 更新只需上一次的累计量，不读取历史采样；预测和排名只读取趋势表。
+ */
+@Service
+public class CapacityServiceImpl implements CapacityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CapacityServiceImpl.class);
+
+    private static final double BYTES_PER_GB = 1024.0 * 1024 * 1024;
+
+    /** 实例ID -> 库名 -> 最近一次计入的日期 */
+    private final Map<Long, Map<String, LocalDate>> recordedDates = new ConcurrentHashMap<>();
+
+    @Autowired
+    private CapacityMapper capacityMapper;
+
+    /** 历史样本每天的衰减系数，越小越偏重近期趋势 */
+    @Value("${monitoring.capacity.decay:0.97}")
+    private double decay;
+
+    /** 计算增长率所需的最少采样天数 */
+    @Value("${monitoring.capacity.min-samples:3}")
+    private int minSamples;
+
+    /** 超过该天数未采样的表（已删除或库已不可访问）不参与预测和排名 */
+    @Value("${monitoring.capacity.stale-days:7}")
+    private int staleDays;
+
+    @Value("${monitoring.capacity.batch-size:500}")
+    private int batchSize;
+
+    @Override
+    public void record(Long instanceId, String schemaName, List<Map<String, Object>> tables, long sampleTime) {
+        LocalDate today = Instant.ofEpochMilli(sampleTime).atZone(ZoneId.systemDefault()).toLocalDate();
+        Map<String, LocalDate> recorded = recordedDates.computeIfAbsent(instanceId, k -> new ConcurrentHashMap<>());
+        if (today.equals(recorded.get(schemaName))) {
+            return;
+        }
+        Date sampleDate = java.sql.Date.valueOf(today);
+        try {
+            Map<String, TableGrowth> growth = new HashMap<>();
+            for (TableGrowth item : capacityMapper.selectGrowthBySchema(instanceId, schemaName)) {
+                growth.put(item.getTableName(), item);
+            }
+            List<TableSizeSample> samples = new ArrayList<>(tables.size() + 1);
+            List<TableGrowth> changed = new ArrayList<>(tables.size() + 1);
+            long schemaSize = 0;
+            long schemaRows = 0;
+            for (Map<String, Object> table : tables) {
+                long size = toLong(table.get("size"));
+                long rows = toLong(table.get("table_rows"));
+                schemaSize += size;
+                schemaRows += rows;
+                String tableName = String.valueOf(table.get("table_name"));
+                addSample(instanceId, schemaName, tableName, sampleDate, today, size, rows, growth, samples, changed);
+            }
+            // 空串表名为整个库的汇总
+            addSample(instanceId, schemaName, "", sampleDate, today, schemaSize, schemaRows, growth, samples, changed);
+
+            for (int i = 0; i < samples.size(); i += batchSize) {
+                capacityMapper.upsertSamples(samples.subList(i, Math.min(i + batchSize, samples.size())));
+            }
+            for (int i = 0; i < changed.size(); i += batchSize) {
+                capacityMapper.upsertGrowth(changed.subList(i, Math.min(i + batchSize, changed.size())));
+            }
+            recorded.put(schemaName, today);
+        } catch (Exception e) {
+            logger.error("记录实例 {} 库 {} 的容量采样失败，下次刷新时重试", instanceId, schemaName, e);
+        }
+    }
+
+    @Override
+    public List<Map<String, Object>> forecast(Long instanceId, String schemaName, boolean schemaLevel,
+                                              double targetGb, int limit) {
+        long targetBytes = (long) (targetGb * BYTES_PER_GB);
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (TableGrowth item : capacityMapper.selectForecast(instanceId, schemaName, schemaLevel, targetBytes,
+                activeSince(), limit)) {
+            Map<String, Object> row = toRow(item);
+            row.put("target_gb", targetGb);
+            row.put("days_to_target", Math.round((targetBytes - item.getLastSize()) / item.getGrowthPerDay() * 10) / 10.0);
+            result.add(row);
+        }
+        return result;
+    }
+
+    @Override
+    public List<Map<String, Object>> topGrowers(Long instanceId, boolean schemaLevel, int limit) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (TableGrowth item : capacityMapper.selectTopGrowers(instanceId, schemaLevel, activeSince(), limit)) {
+            result.add(toRow(item));
+        }
+        return result;
+    }
+
+    @Override
+    public List<TableSizeSample> getHistory(Long instanceId, String schemaName, String tableName, int days) {
+        Date from = java.sql.Date.valueOf(LocalDate.now().minusDays(days));
+        return capacityMapper.selectSamples(instanceId, schemaName, tableName != null ? tableName : "", from);
+    }
+
+    @Override
+    public void evict(Long instanceId) {
+        recordedDates.remove(instanceId);
+    }
+
+    private void addSample(Long instanceId, String schemaName, String tableName, Date sampleDate, LocalDate today,
+                           long size, long rows, Map<String, TableGrowth> growth,
+                           List<TableSizeSample> samples, List<TableGrowth> changed) {
+        TableSizeSample sample = new TableSizeSample();
+        sample.setInstanceId(instanceId);
+        sample.setSchemaName(schemaName);
+        sample.setTableName(tableName);
+        sample.setSampleDate(sampleDate);
+        sample.setSizeBytes(size);
+        sample.setTableRows(rows);
+        samples.add(sample);
+
+        TableGrowth item = growth.get(tableName);
+        if (item == null) {
+            item = new TableGrowth();
+            item.setInstanceId(instanceId);
+            item.setSchemaName(schemaName);
+            item.setTableName(tableName);
+            item.setSamples(0);
+            item.setSumW(0.0);
+            item.setSumX(0.0);
+            item.setSumY(0.0);
+            item.setSumXx(0.0);
+            item.setSumXy(0.0);
+        } else {
+            LocalDate lastDate = new java.sql.Date(item.getLastDate().getTime()).toLocalDate();
+            long gap = ChronoUnit.DAYS.between(lastDate, today);
+            if (gap <= 0) {
+                return; // 当天已计入（服务重启后再次采样）
+            }
+            shift(item, gap, Math.pow(decay, gap));
+        }
+        // 当天样本位于原点 x=0，只影响权重和与 y 的累计量
+        item.setSumW(item.getSumW() + 1);
+        item.setSumY(item.getSumY() + size);
+        item.setSamples(item.getSamples() + 1);
+        item.setLastDate(sampleDate);
+        item.setLastSize(size);
+        double det = item.getSumW() * item.getSumXx() - item.getSumX() * item.getSumX();
+        item.setGrowthPerDay(item.getSamples() >= minSamples && det > 1e-9
+                ? (item.getSumW() * item.getSumXy() - item.getSumX() * item.getSumY()) / det : null);
+        changed.add(item);
+    }
+
+    /**
+     * 把原点后移 gap 天（已有样本的横轴都减去 gap）并乘以衰减系数
+     */
+    private static void shift(TableGrowth item, long gap, double factor) {
+        double w = item.getSumW();
+        double x = item.getSumX();
+        double y = item.getSumY();
+        item.setSumXy(factor * (item.getSumXy() - gap * y));
+        item.setSumXx(factor * (item.getSumXx() - 2.0 * gap * x + (double) gap * gap * w));
+        item.setSumX(factor * (x - gap * w));
+        item.setSumY(factor * y);
+        item.setSumW(factor * w);
+    }
+
+    private Date activeSince() {
+        return java.sql.Date.valueOf(LocalDate.now().minusDays(staleDays));
+    }
+
+    private static Map<String, Object> toRow(TableGrowth item) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("instance_id", item.getInstanceId());
+        row.put("schema_name", item.getSchemaName());
+        row.put("table_name", item.getTableName());
+        row.put("size", item.getLastSize());
+        row.put("size_gb", Math.round(item.getLastSize() / BYTES_PER_GB * 100) / 100.0);
+        row.put("growth_per_day", item.getGrowthPerDay() != null ? Math.round(item.getGrowthPerDay()) : null);
+        row.put("growth_gb_per_30d", item.getGrowthPerDay() != null
+                ? Math.round(item.getGrowthPerDay() * 30 / BYTES_PER_GB * 100) / 100.0 : null);
+        row.put("samples", item.getSamples());
+        row.put("last_date", item.getLastDate());
+        return row;
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+}
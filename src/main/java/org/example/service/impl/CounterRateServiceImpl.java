@@ -0,0 +1,145 @@
+package org.example.service.impl;
+
+import org.example.service.CounterRateService;
+import org.example.util.CounterRingBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 计数器速率计算服务实现类
+ * 每个实例保留最近几次计数器采样，速率取最新采样与至少间隔 min-interval 的历史采样之差，
+ * Uptime 变小或计数器回退时视为实例重启，丢弃旧采样；没有基准采样时不输出速率，
+ * 避免把自启动以来的平均值当作当前速率写入快照、历史和基线
+ */
+@Service
+public class CounterRateServiceImpl implements CounterRateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CounterRateServiceImpl.class);
+
+    /** 参与速率计算的计数器，顺序即环形缓冲区中的列序 */
+    private static final String[] COUNTERS = {"Queries", "Com_commit", "Com_rollback", "Slow_queries", "Connections"};
+    private static final int QUERIES = 0;
+    private static final int COM_COMMIT = 1;
+    private static final int COM_ROLLBACK = 2;
+    private static final int SLOW_QUERIES = 3;
+    private static final int CONNECTIONS = 4;
+
+    /** 实例ID -> 计数器采样 */
+    private final Map<Long, CounterRingBuffer> buffers = new ConcurrentHashMap<>();
+
+    @Value("${monitoring.rate.buffer-size:8}")
+    private int bufferSize;
+
+    @Value("${monitoring.rate.min-interval:1000}")
+    private long minIntervalMillis;
+
+    @Override
+    public Map<String, Object> computeRates(Long instanceId, Map<String, String> globalStatus) {
+        long now = System.currentTimeMillis();
+        long uptime = parseLong(globalStatus.get("Uptime"));
+        long[] values = new long[COUNTERS.length];
+        for (int i = 0; i < COUNTERS.length; i++) {
+            values[i] = parseLong(globalStatus.get(COUNTERS[i]));
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        if (instanceId == null) {
+            return result;
+        }
+
+        double[] rates = new double[COUNTERS.length];
+        double interval;
+        CounterRingBuffer buffer = buffers.computeIfAbsent(instanceId,
+                id -> new CounterRingBuffer(bufferSize, COUNTERS.length));
+        synchronized (buffer) {
+            if (buffer.size() > 0 && isReset(buffer, uptime, values)) {
+                logger.info("实例 {} 计数器已重置（Uptime {} -> {}），重新开始速率计算",
+                        instanceId, buffer.uptime(buffer.slot(0)), uptime);
+                buffer.clear();
+            }
+            int base = findBaseSlot(buffer, now);
+            if (base < 0) {
+                buffer.add(now, uptime, values);
+                return result; // 首次采样或刚重置，下一次采样才有区间速率
+            }
+            interval = (now - buffer.timestamp(base)) / 1000.0;
+            for (int i = 0; i < COUNTERS.length; i++) {
+                rates[i] = (values[i] - buffer.counter(base, i)) / interval;
+            }
+            buffer.add(now, uptime, values);
+        }
+
+        result.put("qps", round(rates[QUERIES]));
+        result.put("tps", round(rates[COM_COMMIT] + rates[COM_ROLLBACK]));
+        result.put("commit_per_sec", round(rates[COM_COMMIT]));
+        result.put("rollback_per_sec", round(rates[COM_ROLLBACK]));
+        result.put("slow_queries_per_sec", round(rates[SLOW_QUERIES]));
+        result.put("connections_per_sec", round(rates[CONNECTIONS]));
+        result.put("rate_interval", round(interval));
+        return result;
+    }
+
+    @Override
+    public void evict(Long instanceId) {
+        if (instanceId != null) {
+            buffers.remove(instanceId);
+        }
+    }
+
+    /**
+     * Uptime 变小或任一计数器回退，说明实例已重启（或计数器被 FLUSH STATUS 清零）
+     */
+    private boolean isReset(CounterRingBuffer buffer, long uptime, long[] values) {
+        int latest = buffer.slot(0);
+        if (uptime < buffer.uptime(latest)) {
+            return true;
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] < buffer.counter(latest, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 选取距今至少 min-interval 的最新采样作为基准，避免两次采样过近导致速率抖动；
+     * 都不满足时退而使用最旧的采样，没有可用采样返回 -1
+     */
+    private int findBaseSlot(CounterRingBuffer buffer, long now) {
+        int candidate = -1;
+        for (int age = 0; age < buffer.size(); age++) {
+            int slot = buffer.slot(age);
+            long elapsed = now - buffer.timestamp(slot);
+            if (elapsed <= 0) {
+                continue;
+            }
+            candidate = slot;
+            if (elapsed >= minIntervalMillis) {
+                break;
+            }
+        }
+        return candidate;
+    }
+
+    private long parseLong(String value) {
+        if (value == null || value.isEmpty()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    private double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
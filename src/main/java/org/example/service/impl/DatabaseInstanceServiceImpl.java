@@ -1,8 +1,23 @@
 package org.example.service.impl;
 
+import org.example.dto.InstanceHealthDTO;
 import org.example.entity.DatabaseInstance;
 import org.example.mapper.DatabaseInstanceMapper;
+import org.example.service.AnomalyDetectionService;
+import org.example.service.CapacityService;
 import org.example.service.DatabaseInstanceService;
+import org.example.service.InstanceDataSourceService;
+import org.example.service.InstanceHealthService;
+import org.example.service.LockWaitService;
+import org.example.service.MonitoringCollectorService;
+import org.example.service.MonitoringHistoryService;
+import org.example.service.ProcesslistTrackerService;
+import org.example.service.QueryDigestService;
+import org.example.service.ReplicationTopologyService;
+import org.example.service.SlowLogService;
+import org.example.service.StatementDigestService;
+import org.example.service.TableSpaceService;
+import org.example.service.WarningRuleService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,6 +38,48 @@ public class DatabaseInstanceServiceImpl implements DatabaseInstanceService {
     @Autowired
     private DatabaseInstanceMapper databaseInstanceMapper;
     
+    @Autowired
+    private InstanceDataSourceService instanceDataSourceService;
+    
+    @Autowired
+    private MonitoringCollectorService monitoringCollectorService;
+    
+    @Autowired
+    private InstanceHealthService instanceHealthService;
+    
+    @Autowired
+    private WarningRuleService warningRuleService;
+
+    @Autowired
+    private AnomalyDetectionService anomalyDetectionService;
+    
+    @Autowired
+    private QueryDigestService queryDigestService;
+    
+    @Autowired
+    private StatementDigestService statementDigestService;
+    
+    @Autowired
+    private SlowLogService slowLogService;
+    
+    @Autowired
+    private ProcesslistTrackerService processlistTrackerService;
+    
+    @Autowired
+    private LockWaitService lockWaitService;
+    
+    @Autowired
+    private TableSpaceService tableSpaceService;
+    
+    @Autowired
+    private CapacityService capacityService;
+    
+    @Autowired
+    private ReplicationTopologyService replicationTopologyService;
+
+    @Autowired
+    private MonitoringHistoryService monitoringHistoryService;
+    
     @Override
     public List<DatabaseInstance> getAllInstances() {
         try {
@@ -63,6 +120,18 @@ public class DatabaseInstanceServiceImpl implements DatabaseInstanceService {
         try {
             logger.info("更新数据库实例: {}", instance.getName());
             int result = databaseInstanceMapper.update(instance);
+            if (result > 0) {
+                // 连接配置可能已变化，重建或移除实例连接池
+                instanceDataSourceService.refresh(instance);
+                monitoringCollectorService.evict(instance.getId());
+                instanceHealthService.evict(instance.getId());
+                replicationTopologyService.evict(instance.getId());
+                // 停用后不再产生采样，触发中的告警在此恢复，否则会一直保持触发状态
+                if (!Integer.valueOf(1).equals(instance.getStatus())) {
+                    warningRuleService.evict(instance.getId());
+                    anomalyDetectionService.evict(instance.getId());
+                }
+            }
             return result > 0;
         } catch (Exception e) {
             logger.error("更新数据库实例失败", e);
@@ -75,6 +144,20 @@ public class DatabaseInstanceServiceImpl implements DatabaseInstanceService {
         try {
             logger.info("删除数据库实例: {}", id);
             int result = databaseInstanceMapper.delete(id);
+            instanceDataSourceService.remove(id);
+            monitoringCollectorService.evict(id);
+            instanceHealthService.evict(id);
+            warningRuleService.evict(id);
+            anomalyDetectionService.evict(id);
+            queryDigestService.evict(id);
+            statementDigestService.evict(id);
+            slowLogService.evict(id);
+            processlistTrackerService.evict(id);
+            lockWaitService.evict(id);
+            tableSpaceService.evict(id);
+            capacityService.evict(id);
+            replicationTopologyService.evict(id);
+            monitoringHistoryService.evict(id);
             return result > 0;
         } catch (Exception e) {
             logger.error("删除数据库实例失败", e);
@@ -99,6 +182,13 @@ public class DatabaseInstanceServiceImpl implements DatabaseInstanceService {
         try {
             logger.info("测试数据库连接: {}:{}", instance.getHost(), instance.getPort());
             
+            // 已保存的实例走健康检查探测：复用实例连接池、合并并发探测并刷新健康状态缓存
+            if (instance.getId() != null) {
+                InstanceHealthDTO health = instanceHealthService.probe(instance);
+                logger.info("数据库连接测试{}", health.isUp() ? "成功" : "失败");
+                return health.isUp();
+            }
+            
             // 构建JDBC URL
             String url = String.format("jdbc:mysql://%s:%d/%s?useUnicode=true&characterEncoding=utf-8&useSSL=false&connectTimeout=5000",
                     instance.getHost(), instance.getPort(), instance.getDatabase() != null ? instance.getDatabase() : "");
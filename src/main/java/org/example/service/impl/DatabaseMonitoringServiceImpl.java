@@ -1,31 +1,63 @@
 package org.example.service.impl;
 
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.defaults.DefaultSqlSession;
+import org.apache.ibatis.transaction.jdbc.JdbcTransaction;
 import org.example.entity.DatabaseInstance;
+import org.example.entity.SlowQueryLog;
+import org.example.service.CounterRateService;
 import org.example.service.DatabaseMonitoringService;
+import org.example.service.InstanceDataSourceService;
+import org.example.util.SqlFingerprint;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import org.example.mapper.DatabaseMonitoringMapper;
-import javax.sql.DataSource;
+import org.example.mapper.SlowQueryLogMapper;
+import java.io.IOException;
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 /**
  * 数据库监控服务实现类
- * 使用JDBC获取真实的MySQL监控数据
+ * 使用JDBC获取真实的MySQL监控数据，连接取自被监控实例自己的连接池
  */
 @Service
 public class DatabaseMonitoringServiceImpl implements DatabaseMonitoringService {
     
     private static final Logger logger = LoggerFactory.getLogger(DatabaseMonitoringServiceImpl.class);
     
+    /** 综合监控数据中慢查询列表的条数 */
+    private static final int SLOW_QUERY_LIST_LIMIT = 10;
+    
+    @Autowired
+    private InstanceDataSourceService instanceDataSourceService;
+    
     @Autowired
-    private DataSource dataSource;
+    private SqlSessionFactory sqlSessionFactory;
     
     @Autowired
-    private DatabaseMonitoringMapper monitoringMapper;
+    private CounterRateService counterRateService;
+    
+    @Autowired
+    private SlowQueryLogMapper slowQueryLogMapper;
+    
+    /** 复制状态读取失败后的重试间隔 */
+    @Value("${monitoring.replication.retry-after:600000}")
+    private long replicaStatusRetryAfter;
+    
+    /** 实例ID -> 复制状态读取失败后下一次重试的时间 */
+    private final Map<Long, Long> replicaStatusRetryAt = new ConcurrentHashMap<>();
     
     @Override
     public Map<String, Object> getDatabaseStatus(DatabaseInstance instance) {
@@ -33,7 +65,7 @@ public class DatabaseMonitoringServiceImpl implements DatabaseMonitoringService
         Connection conn = null;
         
         try {
-            conn = dataSource.getConnection();
+            conn = instanceDataSourceService.getConnection(instance);
             
             // 获取全局状态
             String statusQuery = "SHOW GLOBAL STATUS";
@@ -53,17 +85,8 @@ public class DatabaseMonitoringServiceImpl implements DatabaseMonitoringService
             status.put("threads_connected", Integer.parseInt(globalStatus.getOrDefault("Threads_connected", "0")));
             status.put("slow_queries", Integer.parseInt(globalStatus.getOrDefault("Slow_queries", "0")));
             
-            // 计算QPS和TPS
-            long uptime = Long.parseLong(globalStatus.getOrDefault("Uptime", "1"));
-            long queries = Long.parseLong(globalStatus.getOrDefault("Queries", "0"));
-            long comCommit = Long.parseLong(globalStatus.getOrDefault("Com_commit", "0"));
-            long comRollback = Long.parseLong(globalStatus.getOrDefault("Com_rollback", "0"));
-            
-            double qps = uptime > 0 ? (double) queries / uptime : 0.0;
-            double tps = uptime > 0 ? (double) (comCommit + comRollback) / uptime : 0.0;
-            
-            status.put("qps", Math.round(qps * 100.0) / 100.0);
-            status.put("tps", Math.round(tps * 100.0) / 100.0);
+            // 根据与上一次采样的计数器差值计算区间QPS和TPS
+            status.putAll(counterRateService.computeRates(instance.getId(), globalStatus));
             
             logger.info("成功获取数据库 {} 的状态信息", instance.getName());
             
@@ -87,7 +110,7 @@ public class DatabaseMonitoringServiceImpl implements DatabaseMonitoringService
     public int getConnectionCount(DatabaseInstance instance) {
         Connection conn = null;
         try {
-            conn = dataSource.getConnection();
+            conn = instanceDataSourceService.getConnection(instance);
             String query = "SELECT COUNT(*) as count FROM information_schema.processlist WHERE DB = DATABASE()";
             
             try (PreparedStatement stmt = conn.prepareStatement(query);
@@ -126,7 +149,7 @@ public class DatabaseMonitoringServiceImpl implements DatabaseMonitoringService
     public int getSlowQueryCount(DatabaseInstance instance) {
         Connection conn = null;
         try {
-            conn = dataSource.getConnection();
+            conn = instanceDataSourceService.getConnection(instance);
             String query = "SHOW STATUS LIKE 'Slow_queries'";
             
             try (Statement stmt = conn.createStatement();
@@ -153,7 +176,7 @@ public class DatabaseMonitoringServiceImpl implements DatabaseMonitoringService
     public int getActiveConnections(DatabaseInstance instance) {
         Connection conn = null;
         try {
-            conn = dataSource.getConnection();
+            conn = instanceDataSourceService.getConnection(instance);
             String query = "SELECT COUNT(*) as active_connections FROM information_schema.PROCESSLIST WHERE COMMAND != 'Sleep'";
             
             try (Statement stmt = conn.createStatement();
@@ -179,50 +202,50 @@ public class DatabaseMonitoringServiceImpl implements DatabaseMonitoringService
     @Override
     public List<Map<String, Object>> getSlowQueries(DatabaseInstance instance, int limit) {
         List<Map<String, Object>> slowQueries = new ArrayList<>();
-        Connection conn = null;
         
+        // 读取后台按水位增量采集到本地的慢查询，不再每次扫描排序 mysql.slow_log
         try {
-            conn = dataSource.getConnection();
-            
-            // 查询慢查询日志（如果启用）
-            String query = "SELECT * FROM mysql.slow_log ORDER BY start_time DESC LIMIT ?";
+            for (SlowQueryLog log : slowQueryLogMapper.selectPage(instance.getId(), null, null, limit)) {
+                Map<String, Object> queryInfo = new HashMap<>();
+                queryInfo.put("query", log.getSqlText());
+                queryInfo.put("digest", log.getDigest());
+                queryInfo.put("execution_time", log.getQueryTime());
+                queryInfo.put("lock_time", log.getLockTime());
+                queryInfo.put("rows_sent", log.getRowsSent());
+                queryInfo.put("database", log.getDb());
+                queryInfo.put("query_time", log.getStartTime());
+                slowQueries.add(queryInfo);
+            }
+        } catch (Exception e) {
+            logger.error("读取本地慢查询记录失败: {}", e.getMessage());
+        }
+        if (!slowQueries.isEmpty()) {
+            return slowQueries;
+        }
+        
+        Connection conn = null;
+        try {
+            conn = instanceDataSourceService.getConnection(instance);
             
-            try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            // 尚未采集到慢查询时，取执行超过1秒的活跃查询
+            String alternativeQuery = "SELECT * FROM information_schema.PROCESSLIST WHERE TIME > 1 ORDER BY TIME DESC LIMIT ?";
+            try (PreparedStatement pstmt = conn.prepareStatement(alternativeQuery)) {
                 pstmt.setInt(1, limit);
                 try (ResultSet rs = pstmt.executeQuery()) {
                     while (rs.next()) {
                         Map<String, Object> queryInfo = new HashMap<>();
-                        queryInfo.put("query", rs.getString("sql_text"));
-                        queryInfo.put("execution_time", rs.getString("query_time"));
-                        queryInfo.put("lock_time", rs.getString("lock_time"));
-                        queryInfo.put("rows_sent", rs.getInt("rows_sent"));
-                        queryInfo.put("database", rs.getString("db"));
-                        queryInfo.put("query_time", rs.getTimestamp("start_time"));
+                        queryInfo.put("query", rs.getString("INFO"));
+                        attachDigest(queryInfo, "query");
+                        queryInfo.put("execution_time", rs.getLong("TIME"));
+                        queryInfo.put("lock_time", "0");
+                        queryInfo.put("rows_sent", 0);
+                        queryInfo.put("database", rs.getString("DB"));
+                        queryInfo.put("query_time", new java.util.Date());
                         slowQueries.add(queryInfo);
                     }
                 }
             }
             
-            // 如果mysql.slow_log表不存在，尝试information_schema
-            if (slowQueries.isEmpty()) {
-                String alternativeQuery = "SELECT * FROM information_schema.PROCESSLIST WHERE TIME > 1 ORDER BY TIME DESC LIMIT ?";
-                try (PreparedStatement pstmt = conn.prepareStatement(alternativeQuery)) {
-                    pstmt.setInt(1, limit);
-                    try (ResultSet rs = pstmt.executeQuery()) {
-                        while (rs.next()) {
-                            Map<String, Object> queryInfo = new HashMap<>();
-                            queryInfo.put("query", rs.getString("INFO"));
-                            queryInfo.put("execution_time", rs.getLong("TIME"));
-                            queryInfo.put("lock_time", "0");
-                            queryInfo.put("rows_sent", 0);
-                            queryInfo.put("database", rs.getString("DB"));
-                            queryInfo.put("query_time", new java.util.Date());
-                            slowQueries.add(queryInfo);
-                        }
-                    }
-                }
-            }
-            
         } catch (Exception e) {
             logger.error("获取慢查询列表失败: {}", e.getMessage());
         } finally {
@@ -244,7 +267,7 @@ public class DatabaseMonitoringServiceImpl implements DatabaseMonitoringService
         Connection conn = null;
         
         try {
-            conn = dataSource.getConnection();
+            conn = instanceDataSourceService.getConnection(instance);
             String query = "SELECT * FROM information_schema.PROCESSLIST WHERE COMMAND != 'Sleep' ORDER BY TIME DESC";
             
             try (Statement stmt = conn.createStatement();
@@ -259,6 +282,7 @@ public class DatabaseMonitoringServiceImpl implements DatabaseMonitoringService
                     queryInfo.put("time", rs.getLong("TIME"));
                     queryInfo.put("state", rs.getString("STATE"));
                     queryInfo.put("info", rs.getString("INFO"));
+                    attachDigest(queryInfo, "info");
                     activeQueries.add(queryInfo);
                 }
             }
@@ -284,7 +308,7 @@ public class DatabaseMonitoringServiceImpl implements DatabaseMonitoringService
         Connection conn = null;
         
         try {
-            conn = dataSource.getConnection();
+            conn = instanceDataSourceService.getConnection(instance);
             String query = "SELECT table_schema, SUM(data_length + index_length) as size, SUM(data_length) as data_size, SUM(index_length) as index_size FROM information_schema.TABLES GROUP BY table_schema";
             
             try (Statement stmt = conn.createStatement();
@@ -324,7 +348,7 @@ public class DatabaseMonitoringServiceImpl implements DatabaseMonitoringService
     public long getUptime(DatabaseInstance instance) {
         Connection conn = null;
         try {
-            conn = dataSource.getConnection();
+            conn = instanceDataSourceService.getConnection(instance);
             String query = "SHOW STATUS LIKE 'Uptime'";
             
             try (Statement stmt = conn.createStatement();
@@ -351,44 +375,43 @@ public class DatabaseMonitoringServiceImpl implements DatabaseMonitoringService
     public Map<String, Object> getComprehensiveMonitoringData(DatabaseInstance instance) {
         Map<String, Object> data = new HashMap<>();
         
-        try {
-            // 使用MyBatis获取全局状态信息
-            List<Map<String, Object>> globalStatusList = monitoringMapper.getGlobalStatus();
+        try (SqlSession session = openInstanceSession(instance)) {
+            DatabaseMonitoringMapper monitoringMapper = session.getMapper(DatabaseMonitoringMapper.class);
+            
+            // 一次往返获取全局状态和活跃查询两个结果集，表空间由 TableSpaceService 缓存
+            List<List<Map<String, Object>>> batch = monitoringMapper.collectMonitoringBatch();
+            List<Map<String, Object>> globalStatusList = batch.get(0);
+            List<Map<String, Object>> activeQueries = batch.get(1);
+            for (Map<String, Object> query : activeQueries) {
+                attachDigest(query, "info");
+            }
+            
             Map<String, String> globalStatus = new HashMap<>();
             for (Map<String, Object> status : globalStatusList) {
-                globalStatus.put((String) status.get("Variable_name"), (String) status.get("Value"));
+                globalStatus.put((String) status.get("Variable_name"), String.valueOf(status.get("Value")));
             }
             
             // 解析关键指标
             data.put("uptime", Long.parseLong(globalStatus.getOrDefault("Uptime", "0")));
-            data.put("connections", Integer.parseInt(globalStatus.getOrDefault("Connections", "0")));
+            data.put("connections", Long.parseLong(globalStatus.getOrDefault("Connections", "0")));
             data.put("threads_running", Integer.parseInt(globalStatus.getOrDefault("Threads_running", "0")));
             data.put("threads_connected", Integer.parseInt(globalStatus.getOrDefault("Threads_connected", "0")));
-            data.put("slow_queries", Integer.parseInt(globalStatus.getOrDefault("Slow_queries", "0")));
-            
-            // 计算QPS和TPS
-            long uptime = Long.parseLong(globalStatus.getOrDefault("Uptime", "1"));
-            long queries = Long.parseLong(globalStatus.getOrDefault("Queries", "0"));
-            long comCommit = Long.parseLong(globalStatus.getOrDefault("Com_commit", "0"));
-            long comRollback = Long.parseLong(globalStatus.getOrDefault("Com_rollback", "0"));
-            
-            double qps = uptime > 0 ? (double) queries / uptime : 0.0;
-            double tps = uptime > 0 ? (double) (comCommit + comRollback) / uptime : 0.0;
+            data.put("slow_queries", Long.parseLong(globalStatus.getOrDefault("Slow_queries", "0")));
+            data.put("innodb_row_lock_current_waits",
+                    Long.parseLong(globalStatus.getOrDefault("Innodb_row_lock_current_waits", "0")));
             
-            data.put("qps", Math.round(qps * 100.0) / 100.0);
-            data.put("tps", Math.round(tps * 100.0) / 100.0);
+            // 根据与上一次采样的计数器差值计算区间QPS和TPS
+            data.putAll(counterRateService.computeRates(instance.getId(), globalStatus));
             
-            // 使用MyBatis获取慢查询列表
-            List<Map<String, Object>> slowQueries = monitoringMapper.getSlowQueries(10);
-            data.put("slow_queries_list", slowQueries);
+            // processlist 在被监控实例上不做排序，按执行时间倒序在本地排序
+            activeQueries.sort((a, b) -> Long.compare(toLong(b.get("time")), toLong(a.get("time"))));
             
-            // 使用MyBatis获取活跃查询列表
-            List<Map<String, Object>> activeQueries = monitoringMapper.getActiveQueries();
+            // 慢查询即执行超过1秒的活跃查询，直接从活跃查询结果中筛选，不再单独扫描processlist
+            data.put("slow_queries_list", extractSlowQueries(activeQueries, SLOW_QUERY_LIST_LIMIT));
             data.put("active_queries", activeQueries);
             
-            // 使用MyBatis获取表空间信息
-            List<Map<String, Object>> tableSpace = monitoringMapper.getTableSpaceInfo();
-            data.put("table_space", tableSpace);
+            // 复制状态单独读取，失败（通常是缺少 REPLICATION CLIENT 权限）不影响其他监控数据
+            collectReplicationStatus(instance, monitoringMapper, session.getConnection(), data);
             
             // 添加时间戳
             data.put("timestamp", System.currentTimeMillis());
@@ -403,5 +426,229 @@ public class DatabaseMonitoringServiceImpl implements DatabaseMonitoringService
         return data;
     }
     
+    @Override
+    public List<Map<String, Object>> getStatementDigests(DatabaseInstance instance, java.util.Date since) throws SQLException {
+        try (SqlSession session = openInstanceSession(instance)) {
+            return session.getMapper(DatabaseMonitoringMapper.class).getStatementDigests(since);
+        }
+    }
+    
+    @Override
+    public List<Map<String, Object>> getSlowLogSince(DatabaseInstance instance, java.util.Date after, int limit)
+            throws SQLException {
+        try (SqlSession session = openInstanceSession(instance)) {
+            return session.getMapper(DatabaseMonitoringMapper.class).getSlowLogSince(after, limit);
+        }
+    }
+    
+    @Override
+    public List<Map<String, Object>> getLockWaits(DatabaseInstance instance, boolean fromSys, int limit)
+            throws SQLException {
+        try (SqlSession session = openInstanceSession(instance)) {
+            DatabaseMonitoringMapper mapper = session.getMapper(DatabaseMonitoringMapper.class);
+            return fromSys ? mapper.getLockWaitsFromSys(limit) : mapper.getLockWaits(limit);
+        }
+    }
+    
+    @Override
+    public List<String> getSchemaNames(DatabaseInstance instance) throws SQLException {
+        try (SqlSession session = openInstanceSession(instance)) {
+            return session.getMapper(DatabaseMonitoringMapper.class).getSchemaNames();
+        }
+    }
+    
+    @Override
+    public Map<String, Object> getServerIdentity(DatabaseInstance instance) throws SQLException {
+        try (SqlSession session = openInstanceSession(instance)) {
+            return session.getMapper(DatabaseMonitoringMapper.class).getServerIdentity();
+        }
+    }
+    
+    @Override
+    public List<Map<String, Object>> getSchemaTableSpace(DatabaseInstance instance, String schema) throws SQLException {
+        try (SqlSession session = openInstanceSession(instance)) {
+            return session.getMapper(DatabaseMonitoringMapper.class).getTableSpaceInfo(schema);
+        }
+    }
+    
+    @Override
+    public List<Map<String, Object>> getTablespaceFiles(DatabaseInstance instance, String schema, boolean legacy)
+            throws SQLException {
+        try (SqlSession session = openInstanceSession(instance)) {
+            return session.getMapper(DatabaseMonitoringMapper.class).getTablespaceFiles(schema, legacy);
+        }
+    }
+    
+    @Override
+    public long streamProcesslist(DatabaseInstance instance, Consumer<Map<String, Object>> consumer)
+            throws SQLException {
+        long count = 0;
+        try (SqlSession session = openInstanceSession(instance);
+             Cursor<Map<String, Object>> cursor = session.getMapper(DatabaseMonitoringMapper.class).streamProcesslist()) {
+            for (Map<String, Object> row : cursor) {
+                attachDigest(row, "info");
+                consumer.accept(row);
+                count++;
+            }
+        } catch (IOException e) {
+            throw new SQLException("关闭 processlist 游标失败", e);
+        }
+        return count;
+    }
+    
+    /**
+     * 是否支持 SHOW REPLICA STATUS（MySQL 8.0.22 及以上），版本取自连接握手信息，不访问服务器
+     */
+    private static boolean supportsReplicaStatus(Connection connection) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        String version = metaData.getDatabaseProductVersion();
+        if (version == null || version.contains("MariaDB")) {
+            return false;
+        }
+        int major = metaData.getDatabaseMajorVersion();
+        int minor = metaData.getDatabaseMinorVersion();
+        if (major > 8 || (major == 8 && minor > 0)) {
+            return true; // 8.1 及以后（含 8.4 LTS，已移除 SHOW SLAVE STATUS）
+        }
+        if (major < 8) {
+            return false;
+        }
+        // 8.0 从 8.0.22 起支持
+        String[] parts = version.split("[.-]");
+        try {
+            return parts.length > 2 && Integer.parseInt(parts[2]) >= 22;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * 读取复制状态写入 data；失败时记录日志并在 retryAfter 内不再读取该实例的复制状态，data 中不输出复制字段
+     */
+    private void collectReplicationStatus(DatabaseInstance instance, DatabaseMonitoringMapper monitoringMapper,
+                                          Connection connection, Map<String, Object> data) {
+        long now = System.currentTimeMillis();
+        Long retryAt = replicaStatusRetryAt.get(instance.getId());
+        if (retryAt != null && now < retryAt) {
+            return;
+        }
+        try {
+            putReplicationStatus(data, monitoringMapper.getReplicaStatus(!supportsReplicaStatus(connection)));
+            if (retryAt != null) {
+                replicaStatusRetryAt.remove(instance.getId());
+            }
+        } catch (Exception e) {
+            replicaStatusRetryAt.put(instance.getId(), now + replicaStatusRetryAfter);
+            logger.warn("实例 {} 读取复制状态失败（可能缺少 REPLICATION CLIENT 权限），{} 秒后重试: {}",
+                    instance.getId(), replicaStatusRetryAfter / 1000, e.getMessage());
+        }
+    }
+    
+    /**
+     * 把复制状态各通道统一为新旧语法通用的字段，写入 replication；从库同时写入标量指标
+     * replica_lag（各通道最大延迟秒数，有通道 SQL 线程未运行时延迟未知，不输出）、
+     * replica_io_running 和 replica_sql_running（所有通道线程都在运行时为 1，否则为 0），供历史曲线和告警规则使用
+     */
+    private void putReplicationStatus(Map<String, Object> data, List<Map<String, Object>> rows) {
+        List<Map<String, Object>> channels = new ArrayList<>(rows.size());
+        boolean ioRunning = true;
+        boolean sqlRunning = true;
+        Long lag = null;
+        boolean lagKnown = true;
+        for (Map<String, Object> row : rows) {
+            Map<String, Object> channel = new LinkedHashMap<>();
+            channel.put("channel", replicaValue(row, "Channel_Name", "Connection_name"));
+            channel.put("source_host", replicaValue(row, "Source_Host", "Master_Host"));
+            channel.put("source_port", replicaValue(row, "Source_Port", "Master_Port"));
+            channel.put("source_server_id", replicaValue(row, "Source_Server_Id", "Master_Server_Id"));
+            String io = replicaString(row, "Replica_IO_Running", "Slave_IO_Running");
+            String sql = replicaString(row, "Replica_SQL_Running", "Slave_SQL_Running");
+            Object behind = replicaValue(row, "Seconds_Behind_Source", "Seconds_Behind_Master");
+            Long seconds = behind instanceof Number ? Long.valueOf(((Number) behind).longValue()) : null;
+            channel.put("io_running", io);
+            channel.put("sql_running", sql);
+            channel.put("seconds_behind", seconds);
+            channel.put("last_io_error", row.get("Last_IO_Error"));
+            channel.put("last_sql_error", row.get("Last_SQL_Error"));
+            channels.add(channel);
 
+            ioRunning &= "Yes".equals(io);
+            sqlRunning &= "Yes".equals(sql);
+            if (seconds == null) {
+                lagKnown = false;
+            } else {
+                lag = lag == null ? seconds : Math.max(lag, seconds);
+            }
+        }
+        data.put("replication", channels);
+        if (!channels.isEmpty()) {
+            data.put("replica_io_running", ioRunning ? 1 : 0);
+            data.put("replica_sql_running", sqlRunning ? 1 : 0);
+            if (lagKnown && lag != null) {
+                data.put("replica_lag", lag);
+            }
+        }
+    }
+    
+    private static Object replicaValue(Map<String, Object> row, String name, String legacyName) {
+        Object value = row.get(name);
+        return value != null ? value : row.get(legacyName);
+    }
+    
+    private static String replicaString(Map<String, Object> row, String name, String legacyName) {
+        Object value = replicaValue(row, name, legacyName);
+        return value != null ? value.toString() : null;
+    }
+    
+    /**
+     * 从按执行时间倒序的活跃查询中筛选执行超过1秒的查询，转换为慢查询列表格式
+     */
+    private List<Map<String, Object>> extractSlowQueries(List<Map<String, Object>> activeQueries, int limit) {
+        List<Map<String, Object>> slowQueries = new ArrayList<>();
+        for (Map<String, Object> query : activeQueries) {
+            Object time = query.get("time");
+            if (!(time instanceof Number) || ((Number) time).longValue() <= 1) {
+                continue;
+            }
+            Map<String, Object> queryInfo = new HashMap<>();
+            queryInfo.put("query", query.get("info"));
+            queryInfo.put("digest", query.get("digest"));
+            queryInfo.put("execution_time", ((Number) time).longValue());
+            queryInfo.put("lock_time", "0");
+            queryInfo.put("rows_sent", 0);
+            queryInfo.put("database", query.get("db"));
+            queryInfo.put("query_time", new java.util.Date());
+            slowQueries.add(queryInfo);
+            if (slowQueries.size() >= limit) {
+                break;
+            }
+        }
+        return slowQueries;
+    }
+    
+    /**
+     * 为查询行附加SQL指纹摘要，只有常量不同的语句摘要相同
+     */
+    private static void attachDigest(Map<String, Object> row, String sqlKey) {
+        Object sql = row.get(sqlKey);
+        String fingerprint = sql == null ? null : SqlFingerprint.fingerprint(sql.toString());
+        if (fingerprint != null) {
+            row.put("digest", SqlFingerprint.digest(fingerprint));
+        }
+    }
+    
+    private static long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+    
+    /**
+     * 基于实例连接池中的连接打开MyBatis会话，复用已注册的Mapper语句
+     * 会话关闭时连接归还实例连接池
+     */
+    private SqlSession openInstanceSession(DatabaseInstance instance) throws SQLException {
+        Configuration configuration = sqlSessionFactory.getConfiguration();
+        Executor executor = configuration.newExecutor(
+                new JdbcTransaction(instanceDataSourceService.getConnection(instance)), ExecutorType.SIMPLE);
+        return new DefaultSqlSession(configuration, executor, false);
+    }
 }
\ No newline at end of file
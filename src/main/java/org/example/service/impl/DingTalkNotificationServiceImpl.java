@@ -0,0 +1,194 @@
+package org.example.service.impl;
+
+import org.example.service.NotificationService;
+import org.example.util.DingTalkRobotUtil;
+import org.example.util.TokenBucket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 钉钉告警通知服务实现类
+ * 通知进入有界队列后由单独的发送线程按令牌桶限流发送（钉钉机器人约每分钟20条）；
+ * 令牌耗尽期间积压的通知在下一个令牌可用时合并为一条汇总消息，发送失败按指数退避重试。
+ */
+@Service
+public class DingTalkNotificationServiceImpl implements NotificationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DingTalkNotificationServiceImpl.class);
+
+    /** 单条消息的最大长度，超出部分截断 */
+    private static final int MAX_CONTENT_LENGTH = 4000;
+
+    @Value("${monitoring.notify.dingtalk.enabled:false}")
+    private boolean enabled;
+
+    @Value("${monitoring.notify.dingtalk.url:https://oapi.dingtalk.com/robot/send}")
+    private String url;
+
+    @Value("${monitoring.notify.dingtalk.token:}")
+    private String token;
+
+    @Value("${monitoring.notify.dingtalk.secret:}")
+    private String secret;
+
+    @Value("${monitoring.notify.dingtalk.at-all:true}")
+    private boolean atAll;
+
+    @Value("${monitoring.notify.rate-per-minute:20}")
+    private int ratePerMinute;
+
+    /** 允许的突发条数，超出后到达的通知在等待令牌期间合并为一条 */
+    @Value("${monitoring.notify.burst:2}")
+    private int burst;
+
+    @Value("${monitoring.notify.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${monitoring.notify.max-retries:3}")
+    private int maxRetries;
+
+    @Value("${monitoring.notify.retry-backoff:1000}")
+    private long retryBackoff;
+
+    private BlockingQueue<Notification> queue;
+    private TokenBucket tokenBucket;
+    private DingTalkRobotUtil robot;
+    private volatile boolean running = true;
+    private Thread sender;
+
+    @PostConstruct
+    public void init() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        if (!enabled) {
+            logger.info("钉钉告警通知未启用");
+            return;
+        }
+        // 突发与补充速率之和不超过 ratePerMinute，任意 60 秒内发送的消息数不超过机器人的频率限制
+        int capacity = Math.max(1, Math.min(burst, ratePerMinute - 1));
+        tokenBucket = new TokenBucket(capacity, Math.max(1, ratePerMinute - capacity));
+        robot = new DingTalkRobotUtil(url, token, secret);
+        sender = new Thread(this::sendLoop, "dingtalk-notifier");
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        running = false;
+        if (sender != null) {
+            sender.interrupt();
+        }
+        if (!queue.isEmpty()) {
+            logger.warn("停机时仍有 {} 条告警通知未发送", queue.size());
+        }
+    }
+
+    @Override
+    public boolean sendAlert(String title, String content) {
+        if (!enabled) {
+            return false;
+        }
+        if (!queue.offer(new Notification(title, content))) {
+            logger.warn("告警通知队列已满，丢弃通知: {}", title);
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    private void sendLoop() {
+        while (running) {
+            try {
+                Notification first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<Notification> pending = new ArrayList<>();
+                pending.add(first);
+                if (!tokenBucket.tryAcquire()) {
+                    // 已达到频率上限：等待下一个令牌，期间到达的通知合并为一条
+                    TimeUnit.NANOSECONDS.sleep(tokenBucket.nanosUntilAvailable());
+                    queue.drainTo(pending);
+                    tokenBucket.acquire();
+                }
+                deliver(pending);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    break;
+                }
+            } catch (Exception e) {
+                logger.error("发送告警通知异常", e);
+            }
+        }
+    }
+
+    /**
+     * 发送一条（或合并后的）通知，失败时按指数退避重试，每次重试同样受限流约束
+     */
+    private void deliver(List<Notification> pending) throws InterruptedException {
+        String content = pending.size() == 1 ? format(pending.get(0)) : digest(pending);
+        for (int attempt = 0; attempt <= maxRetries; attempt++) {
+            if (attempt > 0) {
+                Thread.sleep(retryBackoff << (attempt - 1));
+                tokenBucket.acquire();
+            }
+            if (robot.sendTextMessage(content, null, atAll)) {
+                return;
+            }
+        }
+        logger.error("告警通知发送失败，已重试 {} 次，丢弃 {} 条通知", maxRetries, pending.size());
+    }
+
+    private String format(Notification notification) {
+        return truncate("【告警通知】" + notification.title + "\n" + notification.content);
+    }
+
+    private String digest(List<Notification> pending) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("【告警汇总】共 ").append(pending.size()).append(" 条通知");
+        int included = 0;
+        for (Notification notification : pending) {
+            String line = "\n" + (included + 1) + ". " + notification.title;
+            if (sb.length() + line.length() > MAX_CONTENT_LENGTH - 32) {
+                break;
+            }
+            sb.append(line);
+            included++;
+        }
+        if (included < pending.size()) {
+            sb.append("\n……另有 ").append(pending.size() - included).append(" 条未列出");
+        }
+        return sb.toString();
+    }
+
+    private static String truncate(String content) {
+        return content.length() > MAX_CONTENT_LENGTH ? content.substring(0, MAX_CONTENT_LENGTH) + "…" : content;
+    }
+
+    /**
+     * 待发送的通知
+     */
+    private static class Notification {
+        final String title;
+        final String content;
+
+        Notification(String title, String content) {
+            this.title = title;
+            this.content = content;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package org.example.service.impl;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import org.example.entity.DatabaseInstance;
+import org.example.service.InstanceDataSourceService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * 被监控实例连接池服务实现类
+ * 每个实例一个小容量Druid连接池，所有连接池共享创建/销毁调度线程，
+ * 避免实例数量增多时线程数随之线性增长
+ */
+@Service
+public class InstanceDataSourceServiceImpl implements InstanceDataSourceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InstanceDataSourceServiceImpl.class);
+
+    /** 实例ID -> 连接池 */
+    private final Map<Long, PoolHolder> pools = new ConcurrentHashMap<>();
+
+    /** 所有连接池共享的建连/回收调度线程 */
+    private final ScheduledExecutorService createScheduler = Executors.newScheduledThreadPool(2);
+    private final ScheduledExecutorService destroyScheduler = Executors.newScheduledThreadPool(1);
+
+    @Value("${monitoring.pool.max-active:3}")
+    private int maxActive;
+
+    @Value("${monitoring.pool.max-wait:3000}")
+    private long maxWait;
+
+    @Value("${monitoring.pool.connect-timeout:3000}")
+    private int connectTimeout;
+
+    @Value("${monitoring.pool.socket-timeout:10000}")
+    private int socketTimeout;
+
+    @Value("${monitoring.pool.idle-timeout:600000}")
+    private long idleTimeout;
+
+    @Override
+    public Connection getConnection(DatabaseInstance instance) throws SQLException {
+        if (instance == null || instance.getId() == null) {
+            throw new SQLException("实例ID为空，无法获取实例连接池");
+        }
+        final String fingerprint = fingerprint(instance);
+        PoolHolder holder = pools.compute(instance.getId(), (id, existing) -> {
+            if (existing != null && existing.fingerprint.equals(fingerprint)) {
+                return existing;
+            }
+            if (existing != null) {
+                logger.info("实例 {} 连接配置已变化，重建连接池", id);
+                closeQuietly(existing);
+            }
+            return createPool(instance, fingerprint);
+        });
+        holder.lastAccess = System.currentTimeMillis();
+        return holder.dataSource.getConnection();
+    }
+
+    @Override
+    public void refresh(DatabaseInstance instance) {
+        if (instance == null || instance.getId() == null) {
+            return;
+        }
+        if (instance.getStatus() != null && instance.getStatus() != 1) {
+            remove(instance.getId());
+            return;
+        }
+        final String fingerprint = fingerprint(instance);
+        PoolHolder stale = pools.get(instance.getId());
+        if (stale != null && !stale.fingerprint.equals(fingerprint) && pools.remove(instance.getId(), stale)) {
+            logger.info("实例 {} 配置已更新，关闭旧连接池", instance.getId());
+            closeQuietly(stale);
+        }
+    }
+
+    @Override
+    public void remove(Long instanceId) {
+        if (instanceId == null) {
+            return;
+        }
+        PoolHolder holder = pools.remove(instanceId);
+        if (holder != null) {
+            logger.info("移除实例 {} 的连接池", instanceId);
+            closeQuietly(holder);
+        }
+    }
+
+    @Override
+    public int getPoolCount() {
+        return pools.size();
+    }
+
+    /**
+     * 定期关闭长时间未使用的连接池
+     */
+    @Scheduled(fixedDelayString = "${monitoring.pool.evict-interval:60000}")
+    public void evictIdlePools() {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<Long, PoolHolder>> it = pools.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, PoolHolder> entry = it.next();
+            PoolHolder holder = entry.getValue();
+            if (now - holder.lastAccess > idleTimeout && holder.dataSource.getActiveCount() == 0
+                    && pools.remove(entry.getKey(), holder)) {
+                logger.info("实例 {} 的连接池空闲超时，已关闭", entry.getKey());
+                closeQuietly(holder);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        for (PoolHolder holder : pools.values()) {
+            closeQuietly(holder);
+        }
+        pools.clear();
+        createScheduler.shutdownNow();
+        destroyScheduler.shutdownNow();
+    }
+
+    /**
+     * 构建实例JDBC URL
+     */
+    public static String buildJdbcUrl(DatabaseInstance instance, int connectTimeout, int socketTimeout) {
+        return String.format("jdbc:mysql://%s:%d/%s?useUnicode=true&characterEncoding=utf-8&allowMultiQueries=true&useSSL=false&connectTimeout=%d&socketTimeout=%d",
+                instance.getHost(), instance.getPort(), instance.getDatabase() != null ? instance.getDatabase() : "",
+                connectTimeout, socketTimeout);
+    }
+
+    private PoolHolder createPool(DatabaseInstance instance, String fingerprint) {
+        logger.info("创建实例 {} 的连接池: {}:{}", instance.getId(), instance.getHost(), instance.getPort());
+        DruidDataSource ds = new DruidDataSource();
+        ds.setName("instance-" + instance.getId());
+        ds.setDriverClassName("com.mysql.cj.jdbc.Driver");
+        ds.setUrl(buildJdbcUrl(instance, connectTimeout, socketTimeout));
+        ds.setUsername(instance.getUsername());
+        ds.setPassword(instance.getPassword());
+        ds.setInitialSize(0);
+        ds.setMinIdle(0);
+        ds.setMaxActive(maxActive);
+        ds.setMaxWait(maxWait);
+        ds.setValidationQuery("SELECT 1");
+        ds.setTestWhileIdle(true);
+        ds.setTestOnBorrow(false);
+        ds.setTimeBetweenEvictionRunsMillis(60000);
+        ds.setMinEvictableIdleTimeMillis(300000);
+        // 实例不可达时快速失败，不在后台无限重试
+        ds.setConnectionErrorRetryAttempts(1);
+        ds.setBreakAfterAcquireFailure(true);
+        ds.setFailFast(true);
+        ds.setCreateScheduler(createScheduler);
+        ds.setDestroyScheduler(destroyScheduler);
+        return new PoolHolder(ds, fingerprint);
+    }
+
+    private String fingerprint(DatabaseInstance instance) {
+        return instance.getHost() + ":" + instance.getPort() + "/" + instance.getDatabase()
+                + "|" + instance.getUsername() + "|" + Objects.hashCode(instance.getPassword());
+    }
+
+    private void closeQuietly(PoolHolder holder) {
+        try {
+            holder.dataSource.close();
+        } catch (Exception e) {
+            logger.error("关闭实例连接池失败", e);
+        }
+    }
+
+    /**
+     * 连接池及其配置指纹
+     */
+    private static class PoolHolder {
+        final DruidDataSource dataSource;
+        final String fingerprint;
+        volatile long lastAccess;
+
+        PoolHolder(DruidDataSource dataSource, String fingerprint) {
+            this.dataSource = dataSource;
+            this.fingerprint = fingerprint;
+            this.lastAccess = System.currentTimeMillis();
+        }
+    }
+}
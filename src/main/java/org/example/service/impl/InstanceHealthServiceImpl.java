@@ -0,0 +1,187 @@
+package org.example.service.impl;
+
+import org.example.dto.InstanceHealthDTO;
+import org.example.entity.DatabaseInstance;
+import org.example.mapper.DatabaseInstanceMapper;
+import org.example.service.InstanceDataSourceService;
+import org.example.service.InstanceHealthService;
+import org.example.service.MonitoringSnapshotListener;
+import org.example.util.SingleFlight;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Connection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 实例健康检查服务实现类
+ * 定时在后台线程池中探测所有启用实例（从实例连接池取连接并校验），结果带有效期缓存；
+ * 采集器的每次快照也会刷新状态，采集正常的实例无需额外探测。
+ */
+@Service
+public class InstanceHealthServiceImpl implements InstanceHealthService, MonitoringSnapshotListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(InstanceHealthServiceImpl.class);
+
+    /** 实例ID -> 最近一次检查结果 */
+    private final Map<Long, InstanceHealthDTO> healthCache = new ConcurrentHashMap<>();
+
+    /** 已提交后台探测尚未完成的实例 */
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    private final SingleFlight<Long, InstanceHealthDTO> probeFlight = new SingleFlight<>();
+
+    @Autowired
+    private DatabaseInstanceMapper databaseInstanceMapper;
+
+    @Autowired
+    private InstanceDataSourceService instanceDataSourceService;
+
+    @Value("${monitoring.health.ttl:60000}")
+    private long ttl;
+
+    @Value("${monitoring.health.validation-timeout:3}")
+    private int validationTimeout;
+
+    @Value("${monitoring.health.threads:2}")
+    private int probeThreads;
+
+    private ExecutorService probeExecutor;
+
+    @PostConstruct
+    public void init() {
+        final AtomicInteger counter = new AtomicInteger();
+        probeExecutor = new ThreadPoolExecutor(probeThreads, probeThreads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(200), r -> {
+                    Thread t = new Thread(r, "monitoring-health-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        probeExecutor.shutdownNow();
+    }
+
+    /**
+     * 定时探测结果已过期的启用实例
+     */
+    @Scheduled(initialDelay = 1000, fixedDelayString = "${monitoring.health.interval:30000}")
+    public void probeActiveInstances() {
+        List<DatabaseInstance> instances;
+        try {
+            instances = databaseInstanceMapper.selectActiveInstances();
+        } catch (Exception e) {
+            logger.error("查询启用实例失败，跳过本轮健康检查", e);
+            return;
+        }
+        for (DatabaseInstance instance : instances) {
+            if (isExpired(healthCache.get(instance.getId()))) {
+                probeAsync(instance);
+            }
+        }
+    }
+
+    @Override
+    public InstanceHealthDTO getHealth(DatabaseInstance instance) {
+        InstanceHealthDTO cached = healthCache.get(instance.getId());
+        if (!isExpired(cached)) {
+            return cached;
+        }
+        probeAsync(instance);
+        if (cached == null) {
+            return InstanceHealthDTO.unknown(instance.getId());
+        }
+        InstanceHealthDTO stale = copy(cached);
+        stale.setStale(true);
+        return stale;
+    }
+
+    @Override
+    public InstanceHealthDTO probe(DatabaseInstance instance) {
+        return probeFlight.execute(instance.getId(), () -> doProbe(instance));
+    }
+
+    @Override
+    public void evict(Long instanceId) {
+        if (instanceId != null) {
+            healthCache.remove(instanceId);
+        }
+    }
+
+    /**
+     * 采集成功说明实例可达，采集失败记录错误；不覆盖探测得到的耗时
+     */
+    @Override
+    public void onSnapshot(DatabaseInstance instance, Map<String, Object> snapshot) {
+        InstanceHealthDTO previous = healthCache.get(instance.getId());
+        Long latency = previous != null ? previous.getLatency() : null;
+        Object error = snapshot.get("error");
+        healthCache.put(instance.getId(), new InstanceHealthDTO(instance.getId(),
+                error == null ? InstanceHealthDTO.STATUS_UP : InstanceHealthDTO.STATUS_DOWN,
+                latency, error == null ? null : String.valueOf(error), System.currentTimeMillis()));
+    }
+
+    private void probeAsync(DatabaseInstance instance) {
+        if (!pending.add(instance.getId())) {
+            return;
+        }
+        try {
+            probeExecutor.execute(() -> {
+                try {
+                    probe(instance);
+                } finally {
+                    pending.remove(instance.getId());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(instance.getId());
+            logger.warn("健康检查队列已满，实例 {} 本次跳过", instance.getId());
+        }
+    }
+
+    private InstanceHealthDTO doProbe(DatabaseInstance instance) {
+        long start = System.currentTimeMillis();
+        InstanceHealthDTO health;
+        try (Connection conn = instanceDataSourceService.getConnection(instance)) {
+            boolean valid = conn.isValid(validationTimeout);
+            long now = System.currentTimeMillis();
+            health = new InstanceHealthDTO(instance.getId(),
+                    valid ? InstanceHealthDTO.STATUS_UP : InstanceHealthDTO.STATUS_DOWN,
+                    now - start, valid ? null : "连接校验失败", now);
+        } catch (Exception e) {
+            long now = System.currentTimeMillis();
+            health = new InstanceHealthDTO(instance.getId(), InstanceHealthDTO.STATUS_DOWN, now - start,
+                    e.getMessage(), now);
+            logger.warn("实例 {} 健康检查失败: {}", instance.getId(), e.getMessage());
+        }
+        healthCache.put(instance.getId(), health);
+        return health;
+    }
+
+    private boolean isExpired(InstanceHealthDTO health) {
+        return health == null || health.getCheckedAt() == null
+                || System.currentTimeMillis() - health.getCheckedAt() > ttl;
+    }
+
+    private static InstanceHealthDTO copy(InstanceHealthDTO source) {
+        return new InstanceHealthDTO(source.getInstanceId(), source.getStatus(), source.getLatency(),
+                source.getLastError(), source.getCheckedAt());
+    }
+}
@@ -0,0 +1,407 @@
+package org.example.service.impl;
+
+import org.example.entity.DatabaseInstance;
+import org.example.entity.LockBlocker;
+import org.example.mapper.LockBlockerMapper;
+import org.example.service.DatabaseMonitoringService;
+import org.example.service.LockWaitService;
+import org.example.service.MonitoringSnapshotListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 锁等待分析服务实现类
+ * 快照中 Innodb_row_lock_current_waits 大于0时，在后台线程读取锁等待关系（每行一条 等待事务 -> 阻塞事务 的边），
+ * 构建阻塞树：自身未在等待的阻塞事务为根，按层展开被它直接和间接阻塞的事务，记录根的事务时长、被阻塞事务数和链深度。
+ * 没有锁等待的实例只检查快照中的计数，不访问被监控实例。
+ */
+@Service
+public class LockWaitServiceImpl implements LockWaitService, MonitoringSnapshotListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(LockWaitServiceImpl.class);
+
+    private static final int MAX_DEPTH = 32;
+    private static final int MAX_SQL_LENGTH = 4096;
+    private static final int MAX_LOCKED_TABLES_LENGTH = 512;
+
+    /** 实例ID -> 分析状态 */
+    private final Map<Long, InstanceLocks> instances = new ConcurrentHashMap<>();
+
+    @Autowired
+    private DatabaseMonitoringService databaseMonitoringService;
+
+    @Autowired
+    private LockBlockerMapper lockBlockerMapper;
+
+    @Value("${monitoring.lock-wait.enabled:true}")
+    private boolean enabled;
+
+    /** 锁等待持续存在时两次分析的最小间隔 */
+    @Value("${monitoring.lock-wait.min-interval:10000}")
+    private long minInterval;
+
+    /** 单次最多读取的锁等待关系数 */
+    @Value("${monitoring.lock-wait.max-waits:1000}")
+    private int maxWaits;
+
+    @Value("${monitoring.lock-wait.threads:1}")
+    private int analyzeThreads;
+
+    /** 锁等待视图不可用（版本不支持或无权限）时的重试间隔 */
+    @Value("${monitoring.lock-wait.retry-after:600000}")
+    private long retryAfter;
+
+    private ExecutorService analyzeExecutor;
+
+    @PostConstruct
+    public void init() {
+        final AtomicInteger counter = new AtomicInteger();
+        analyzeExecutor = new ThreadPoolExecutor(analyzeThreads, analyzeThreads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(100), r -> {
+                    Thread t = new Thread(r, "monitoring-lock-wait-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        analyzeExecutor.shutdownNow();
+    }
+
+    @Override
+    public void onSnapshot(DatabaseInstance instance, Map<String, Object> snapshot) {
+        if (!enabled) {
+            return;
+        }
+        Object waits = snapshot.get("innodb_row_lock_current_waits");
+        InstanceLocks state = instances.get(instance.getId());
+        if (!(waits instanceof Number) || ((Number) waits).longValue() <= 0) {
+            if (state != null) {
+                state.latest = null;
+            }
+            return;
+        }
+        if (state == null) {
+            state = instances.computeIfAbsent(instance.getId(), k -> new InstanceLocks());
+        }
+        long now = System.currentTimeMillis();
+        if (now < state.unavailableUntil || now - state.analyzedAt < minInterval || !state.pending.compareAndSet(false, true)) {
+            return;
+        }
+        final InstanceLocks target = state;
+        try {
+            analyzeExecutor.execute(() -> {
+                try {
+                    analyze(instance, target);
+                } finally {
+                    target.pending.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            state.pending.set(false);
+            logger.warn("锁等待分析队列已满，实例 {} 本次跳过", instance.getId());
+        }
+    }
+
+    @Override
+    public Map<String, Object> getBlockingTree(Long instanceId) {
+        InstanceLocks state = instances.get(instanceId);
+        Map<String, Object> latest = state != null ? state.latest : null;
+        if (latest != null) {
+            return latest;
+        }
+        Map<String, Object> empty = new LinkedHashMap<>();
+        empty.put("sample_time", System.currentTimeMillis());
+        empty.put("waits", 0);
+        empty.put("roots", Collections.emptyList());
+        return empty;
+    }
+
+    @Override
+    public List<LockBlocker> getBlockerHistory(Long instanceId, int minutes, int limit) {
+        Date from = new Date(System.currentTimeMillis() - minutes * 60000L);
+        return lockBlockerMapper.selectRecent(instanceId, from, limit);
+    }
+
+    @Override
+    public void evict(Long instanceId) {
+        instances.remove(instanceId);
+    }
+
+    private void analyze(DatabaseInstance instance, InstanceLocks state) {
+        long now = System.currentTimeMillis();
+        state.analyzedAt = now;
+        List<Map<String, Object>> edges;
+        try {
+            edges = readLockWaits(instance, state);
+        } catch (Exception e) {
+            state.unavailableUntil = now + retryAfter;
+            logger.warn("实例 {} 读取锁等待关系失败，{} 秒后重试: {}", instance.getId(), retryAfter / 1000, e.getMessage());
+            return;
+        }
+        if (edges.isEmpty()) {
+            // 计数来自稍早的快照，读取时锁等待已经结束
+            state.latest = null;
+            return;
+        }
+
+        List<Map<String, Object>> roots = buildRoots(edges);
+        Map<String, Object> tree = new LinkedHashMap<>();
+        tree.put("sample_time", now);
+        tree.put("source", state.fromSys ? "sys.innodb_lock_waits" : "performance_schema.data_lock_waits");
+        tree.put("waits", edges.size());
+        tree.put("truncated", edges.size() >= maxWaits);
+        tree.put("roots", roots);
+        state.latest = tree;
+
+        Date sampleTime = new Date(now);
+        List<LockBlocker> records = new ArrayList<>();
+        for (Map<String, Object> root : roots) {
+            records.add(toRecord(instance.getId(), sampleTime, root));
+        }
+        try {
+            lockBlockerMapper.insertBatch(records);
+        } catch (Exception e) {
+            logger.error("保存实例 {} 的锁阻塞记录失败", instance.getId(), e);
+        }
+        Map<String, Object> top = roots.get(0);
+        logger.info("实例 {} 存在锁等待 {} 条，根阻塞事务 {} 个，最大阻塞 {} 个事务（事务 {}，连接 {}，已持续 {} 秒）",
+                instance.getId(), edges.size(), roots.size(), top.get("waiters"), top.get("trx_id"),
+                top.get("thread_id"), top.get("trx_age"));
+    }
+
+    /**
+     * MySQL 8.0 读取 performance_schema，不支持时（5.7 没有 data_lock_waits）改用 sys 视图并记住选择
+     */
+    private List<Map<String, Object>> readLockWaits(DatabaseInstance instance, InstanceLocks state) throws SQLException {
+        if (state.fromSys) {
+            return databaseMonitoringService.getLockWaits(instance, true, maxWaits);
+        }
+        try {
+            return databaseMonitoringService.getLockWaits(instance, false, maxWaits);
+        } catch (SQLException e) {
+            List<Map<String, Object>> edges = databaseMonitoringService.getLockWaits(instance, true, maxWaits);
+            state.fromSys = true;
+            logger.info("实例 {} 不支持 performance_schema.data_lock_waits，改用 sys.innodb_lock_waits", instance.getId());
+            return edges;
+        }
+    }
+
+    /**
+     * 由锁等待关系构建阻塞树，返回按被阻塞事务数倒序的根节点。
+     * 一个事务可能同时等待多个事务，每棵树内按层展开，每个事务只出现在最先到达它的位置
+     */
+    static List<Map<String, Object>> buildRoots(List<Map<String, Object>> edges) {
+        Map<String, Node> nodes = new LinkedHashMap<>();
+        for (Map<String, Object> edge : edges) {
+            Node waiter = node(nodes, edge.get("waiting_trx_id"));
+            Node blocker = node(nodes, edge.get("blocking_trx_id"));
+            if (waiter == null || blocker == null || waiter == blocker) {
+                continue;
+            }
+            waiter.describe(edge.get("waiting_pid"), edge.get("waiting_query"), edge.get("waiting_trx_age"));
+            waiter.waitSecs = Math.max(waiter.waitSecs, toLong(edge.get("wait_secs")));
+            if (waiter.lockedTable == null) {
+                waiter.lockedTable = asString(edge.get("locked_table"));
+                waiter.lockedIndex = asString(edge.get("locked_index"));
+                waiter.lockMode = asString(edge.get("lock_mode"));
+            }
+            waiter.waiting = true;
+            blocker.describe(edge.get("blocking_pid"), edge.get("blocking_query"), edge.get("blocking_trx_age"));
+            blocker.blocked.add(waiter);
+        }
+
+        List<Node> candidates = new ArrayList<>();
+        for (Node node : nodes.values()) {
+            if (!node.waiting && !node.blocked.isEmpty()) {
+                candidates.add(node);
+            }
+        }
+        // 循环等待（死锁尚未被检测回滚）中的事务都在等待，取其中持续最久的事务作为根
+        List<Node> cyclic = new ArrayList<>();
+        for (Node node : nodes.values()) {
+            if (node.waiting && !node.blocked.isEmpty()) {
+                cyclic.add(node);
+            }
+        }
+        cyclic.sort((a, b) -> Long.compare(b.trxAge, a.trxAge));
+
+        Set<Node> reached = new HashSet<>();
+        List<Map<String, Object>> roots = new ArrayList<>();
+        for (Node root : candidates) {
+            roots.add(expand(root, reached));
+        }
+        for (Node root : cyclic) {
+            if (!reached.contains(root)) {
+                roots.add(expand(root, reached));
+            }
+        }
+        roots.sort((a, b) -> Integer.compare((Integer) b.get("waiters"), (Integer) a.get("waiters")));
+        return roots;
+    }
+
+    /**
+     * 按层展开根节点阻塞的事务并汇总；reached 收集所有树中已到达的事务
+     */
+    private static Map<String, Object> expand(Node root, Set<Node> reached) {
+        Map<String, Object> rootRow = root.toRow();
+        Set<Node> seen = new HashSet<>();
+        seen.add(root);
+        reached.add(root);
+        Map<Node, Map<String, Object>> rows = new HashMap<>();
+        rows.put(root, rootRow);
+        Set<String> lockedTables = new LinkedHashSet<>();
+        long maxWaitSecs = 0;
+        int depth = 0;
+        List<Node> level = Collections.singletonList(root);
+        while (!level.isEmpty() && depth < MAX_DEPTH) {
+            List<Node> next = new ArrayList<>();
+            for (Node parent : level) {
+                for (Node child : parent.blocked) {
+                    if (!seen.add(child)) {
+                        continue;
+                    }
+                    reached.add(child);
+                    Map<String, Object> row = child.toRow();
+                    row.put("wait_secs", child.waitSecs);
+                    row.put("locked_table", child.lockedTable);
+                    row.put("locked_index", child.lockedIndex);
+                    row.put("lock_mode", child.lockMode);
+                    children(rows.get(parent)).add(row);
+                    rows.put(child, row);
+                    maxWaitSecs = Math.max(maxWaitSecs, child.waitSecs);
+                    if (child.lockedTable != null) {
+                        lockedTables.add(child.lockedTable);
+                    }
+                    next.add(child);
+                }
+            }
+            if (!next.isEmpty()) {
+                depth++;
+            }
+            level = next;
+        }
+        rootRow.put("waiters", seen.size() - 1);
+        rootRow.put("direct_waiters", root.blocked.size());
+        rootRow.put("depth", depth);
+        rootRow.put("max_wait_secs", maxWaitSecs);
+        rootRow.put("locked_tables", new ArrayList<>(lockedTables));
+        return rootRow;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> children(Map<String, Object> row) {
+        return (List<Map<String, Object>>) row.computeIfAbsent("blocked", k -> new ArrayList<Map<String, Object>>());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static LockBlocker toRecord(Long instanceId, Date sampleTime, Map<String, Object> root) {
+        LockBlocker record = new LockBlocker();
+        record.setInstanceId(instanceId);
+        record.setSampleTime(sampleTime);
+        record.setTrxId((String) root.get("trx_id"));
+        record.setThreadId((Long) root.get("thread_id"));
+        String sql = (String) root.get("sql");
+        record.setSqlText(sql != null && sql.length() > MAX_SQL_LENGTH ? sql.substring(0, MAX_SQL_LENGTH) : sql);
+        record.setTrxAge((Long) root.get("trx_age"));
+        record.setWaiters((Integer) root.get("waiters"));
+        record.setDirectWaiters((Integer) root.get("direct_waiters"));
+        record.setDepth((Integer) root.get("depth"));
+        record.setMaxWaitSecs((Long) root.get("max_wait_secs"));
+        String tables = String.join(",", (List<String>) root.get("locked_tables"));
+        record.setLockedTables(tables.length() > MAX_LOCKED_TABLES_LENGTH
+                ? tables.substring(0, MAX_LOCKED_TABLES_LENGTH) : tables);
+        return record;
+    }
+
+    private static Node node(Map<String, Node> nodes, Object trxId) {
+        return trxId == null ? null : nodes.computeIfAbsent(trxId.toString(), Node::new);
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+
+    private static String asString(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    /**
+     * 单个实例的分析状态
+     */
+    private static class InstanceLocks {
+        final AtomicBoolean pending = new AtomicBoolean();
+        volatile Map<String, Object> latest;
+        volatile long analyzedAt;
+        volatile long unavailableUntil;
+        /** 已确认需要使用 sys 视图 */
+        volatile boolean fromSys;
+    }
+
+    /**
+     * 锁等待关系中的一个事务
+     */
+    private static class Node {
+        final String trxId;
+        Long threadId;
+        String sql;
+        long trxAge;
+        long waitSecs;
+        String lockedTable;
+        String lockedIndex;
+        String lockMode;
+        /** 自身在等待其他事务 */
+        boolean waiting;
+        /** 被该事务阻塞的事务 */
+        final Set<Node> blocked = new LinkedHashSet<>();
+
+        Node(String trxId) {
+            this.trxId = trxId;
+        }
+
+        void describe(Object pid, Object query, Object age) {
+            if (threadId == null && pid instanceof Number) {
+                threadId = ((Number) pid).longValue();
+            }
+            if (sql == null && query != null) {
+                sql = query.toString();
+            }
+            trxAge = Math.max(trxAge, toLong(age));
+        }
+
+        Map<String, Object> toRow() {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("trx_id", trxId);
+            row.put("thread_id", threadId);
+            row.put("sql", sql);
+            row.put("trx_age", trxAge);
+            return row;
+        }
+    }
+}
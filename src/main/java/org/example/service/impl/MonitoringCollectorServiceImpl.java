@@ -0,0 +1,323 @@
+package org.example.service.impl;
+
+import org.example.entity.DatabaseInstance;
+import org.example.mapper.DatabaseInstanceMapper;
+import org.example.service.CounterRateService;
+import org.example.service.DatabaseMonitoringService;
+import org.example.service.MonitoringCollectorService;
+import org.example.service.MonitoringSnapshotListener;
+import org.example.service.TableSpaceService;
+import org.example.util.SingleFlight;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 监控数据采集服务实现类
+ * 定时遍历启用的实例并采集监控数据，浏览器轮询只读取内存快照，
+ * 被监控数据库的负载与查看人数无关
+ */
+@Service
+public class MonitoringCollectorServiceImpl implements MonitoringCollectorService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MonitoringCollectorServiceImpl.class);
+
+    /** 概览中保留的标量指标，列表类数据不返回 */
+    private static final String[] OVERVIEW_METRICS = {"uptime", "connections", "threads_running", "threads_connected",
+            "slow_queries", "qps", "tps"};
+
+    /** 实例ID -> 最新监控快照 */
+    private final Map<Long, Map<String, Object>> snapshots = new ConcurrentHashMap<>();
+
+    /** 实例ID -> 最新快照的采集完成时间，采集失败的快照也记录 */
+    private final Map<Long, Long> collectedAt = new ConcurrentHashMap<>();
+
+    /** 正在采集中的实例，避免上一轮未完成时重复提交 */
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    /** 同一实例的并发采集（定时任务、概览、接口调用）合并为一次查询 */
+    private final SingleFlight<Long, Map<String, Object>> collectFlight = new SingleFlight<>();
+
+    @Autowired
+    private DatabaseInstanceMapper databaseInstanceMapper;
+
+    @Autowired
+    private DatabaseMonitoringService databaseMonitoringService;
+
+    @Autowired
+    private CounterRateService counterRateService;
+
+    @Autowired
+    private TableSpaceService tableSpaceService;
+
+    @Autowired(required = false)
+    private List<MonitoringSnapshotListener> snapshotListeners = Collections.emptyList();
+
+    @Value("${monitoring.collector.threads:4}")
+    private int collectorThreads;
+
+    @Value("${monitoring.collector.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${monitoring.overview.threads:8}")
+    private int overviewThreads;
+
+    @Value("${monitoring.overview.queue-capacity:200}")
+    private int overviewQueueCapacity;
+
+    @Value("${monitoring.overview.timeout:3000}")
+    private long overviewTimeout;
+
+    /** 快照在该时长内视为新鲜，概览直接返回而不查询实例，默认一个采集周期 */
+    @Value("${monitoring.overview.max-age:${monitoring.collector.interval:10000}}")
+    private long overviewMaxAge;
+
+    private ExecutorService collectorExecutor;
+
+    /** 概览接口专用线程池，与定时采集隔离 */
+    private ExecutorService overviewExecutor;
+
+    @PostConstruct
+    public void init() {
+        collectorExecutor = new ThreadPoolExecutor(collectorThreads, collectorThreads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(queueCapacity), namedThreadFactory("monitoring-collector-"));
+        overviewExecutor = new ThreadPoolExecutor(overviewThreads, overviewThreads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(overviewQueueCapacity), namedThreadFactory("monitoring-overview-"));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        collectorExecutor.shutdownNow();
+        overviewExecutor.shutdownNow();
+    }
+
+    /**
+     * 定时采集所有启用实例的监控数据
+     */
+    @Scheduled(initialDelayString = "${monitoring.collector.initial-delay:5000}",
+            fixedDelayString = "${monitoring.collector.interval:10000}")
+    public void collectActiveInstances() {
+        List<DatabaseInstance> instances;
+        try {
+            instances = databaseInstanceMapper.selectActiveInstances();
+        } catch (Exception e) {
+            logger.error("查询启用实例失败，跳过本轮采集", e);
+            return;
+        }
+
+        Set<Long> activeIds = new HashSet<>();
+        for (DatabaseInstance instance : instances) {
+            activeIds.add(instance.getId());
+            if (!submitCollect(instance)) {
+                logger.debug("实例 {} 上一轮采集尚未完成或队列已满，本轮未提交", instance.getId());
+            }
+        }
+
+        // 清理已删除或已禁用实例的快照
+        for (Long instanceId : snapshots.keySet()) {
+            if (!activeIds.contains(instanceId)) {
+                evict(instanceId);
+            }
+        }
+    }
+
+    @Override
+    public Map<String, Object> getLatestSnapshot(DatabaseInstance instance) {
+        Map<String, Object> snapshot = snapshots.get(instance.getId());
+        if (snapshot != null) {
+            return snapshot;
+        }
+        if (!Integer.valueOf(1).equals(instance.getStatus())) {
+            return notCollected("inactive", "实例已禁用，不采集监控数据");
+        }
+        // 启用实例尚无快照时在后台预热采集一次，inFlight 保证同一实例同时只有一个预热任务
+        submitCollect(instance);
+        return notCollected("pending", "实例尚未完成首次采集，请稍后刷新");
+    }
+
+    @Override
+    public Map<String, Object> collectNow(DatabaseInstance instance) {
+        return collectFlight.execute(instance.getId(), () -> collect(instance));
+    }
+
+    private Map<String, Object> collect(DatabaseInstance instance) {
+        Map<String, Object> data = databaseMonitoringService.getComprehensiveMonitoringData(instance);
+        // 表空间来自后台按库刷新的缓存，实时采集不扫描 information_schema.tables
+        data.put("table_space", tableSpaceService.getSchemaSizes(instance.getId()));
+        Map<String, Object> snapshot = Collections.unmodifiableMap(data);
+        snapshots.put(instance.getId(), snapshot);
+        collectedAt.put(instance.getId(), System.currentTimeMillis());
+        for (MonitoringSnapshotListener listener : snapshotListeners) {
+            try {
+                listener.onSnapshot(instance, snapshot);
+            } catch (Exception e) {
+                logger.error("监控快照监听器 {} 处理失败", listener.getClass().getSimpleName(), e);
+            }
+        }
+        return snapshot;
+    }
+
+    @Override
+    public List<Map<String, Object>> collectOverview() {
+        List<DatabaseInstance> instances = databaseInstanceMapper.selectActiveInstances();
+        long now = System.currentTimeMillis();
+        long deadline = now + overviewTimeout;
+
+        // 定时采集维护的快照足够新时直接使用，只为缺失或过期的实例提交采集，
+        // 先全部提交，再按统一截止时间等待，总耗时不超过 timeout
+        List<CompletableFuture<Map<String, Object>>> futures = new ArrayList<>(instances.size());
+        for (DatabaseInstance instance : instances) {
+            Map<String, Object> fresh = freshSnapshot(instance.getId(), now);
+            CompletableFuture<Map<String, Object>> future;
+            try {
+                future = fresh != null ? CompletableFuture.completedFuture(fresh)
+                        : CompletableFuture.supplyAsync(() -> collectNow(instance), overviewExecutor);
+            } catch (RejectedExecutionException e) {
+                future = new CompletableFuture<>();
+                future.completeExceptionally(e);
+            }
+            futures.add(future);
+        }
+
+        List<Map<String, Object>> overview = new ArrayList<>(instances.size());
+        for (int i = 0; i < instances.size(); i++) {
+            DatabaseInstance instance = instances.get(i);
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("instanceId", instance.getId());
+            item.put("instanceName", instance.getName());
+            item.put("environment", instance.getEnvironment());
+            try {
+                long remaining = Math.max(0L, deadline - System.currentTimeMillis());
+                Map<String, Object> data = futures.get(i).get(remaining, TimeUnit.MILLISECONDS);
+                if (data.containsKey("error")) {
+                    item.put("state", "error");
+                    item.put("error", data.get("error"));
+                } else {
+                    item.put("state", "ok");
+                }
+                for (String metric : OVERVIEW_METRICS) {
+                    item.put(metric, data.get(metric));
+                }
+                item.put("timestamp", data.get("timestamp"));
+            } catch (TimeoutException e) {
+                // 采集任务继续在后台完成并刷新快照，本次响应不再等待
+                item.put("state", "timeout");
+                fillFromSnapshot(item, instance.getId());
+            } catch (ExecutionException e) {
+                item.put("state", e.getCause() instanceof RejectedExecutionException ? "rejected" : "error");
+                item.put("error", String.valueOf(e.getCause() != null ? e.getCause().getMessage() : e.getMessage()));
+                fillFromSnapshot(item, instance.getId());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                item.put("state", "timeout");
+            }
+            overview.add(item);
+        }
+        return overview;
+    }
+
+    @Override
+    public void evict(Long instanceId) {
+        if (instanceId != null) {
+            snapshots.remove(instanceId);
+            collectedAt.remove(instanceId);
+            counterRateService.evict(instanceId);
+        }
+    }
+
+    /**
+     * 提交实例的后台采集，实例已有采集任务在执行或队列已满时不提交并返回 false
+     */
+    private boolean submitCollect(DatabaseInstance instance) {
+        if (!inFlight.add(instance.getId())) {
+            return false;
+        }
+        try {
+            collectorExecutor.execute(() -> {
+                try {
+                    collectNow(instance);
+                } finally {
+                    inFlight.remove(instance.getId());
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(instance.getId());
+            logger.warn("采集队列已满，实例 {} 本轮跳过", instance.getId());
+            return false;
+        }
+    }
+
+    /**
+     * 尚无快照时的占位结果，collected 为 false，state 说明原因
+     */
+    private static Map<String, Object> notCollected(String state, String message) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("collected", false);
+        data.put("state", state);
+        data.put("message", message);
+        data.put("timestamp", System.currentTimeMillis());
+        return data;
+    }
+
+    /**
+     * 采集时间在 max-age 以内的快照，没有或已过期时返回 null
+     */
+    private Map<String, Object> freshSnapshot(Long instanceId, long now) {
+        Long time = collectedAt.get(instanceId);
+        if (time == null || now - time > overviewMaxAge) {
+            return null;
+        }
+        return snapshots.get(instanceId);
+    }
+
+    /**
+     * 未能按时采集的实例附带上一次快照的指标，并标注快照时间
+     */
+    private void fillFromSnapshot(Map<String, Object> item, Long instanceId) {
+        Map<String, Object> snapshot = snapshots.get(instanceId);
+        if (snapshot == null) {
+            return;
+        }
+        Map<String, Object> previous = new HashMap<>();
+        for (String metric : OVERVIEW_METRICS) {
+            previous.put(metric, snapshot.get(metric));
+        }
+        previous.put("timestamp", snapshot.get("timestamp"));
+        item.put("lastSnapshot", previous);
+    }
+
+    private static ThreadFactory namedThreadFactory(String prefix) {
+        final AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
@@ -0,0 +1,279 @@
+package org.example.service.impl;
+
+import org.example.dto.TimeSeriesDTO;
+import org.example.entity.DatabaseInstance;
+import org.example.service.MonitoringHistoryService;
+import org.example.service.MonitoringSnapshotListener;
+import org.example.service.TimeSeriesStoreService;
+import org.example.util.RollupBucket;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 监控历史数据服务实现类
+ * 作为快照监听器把每次采集的标量指标写入时间序列存储，同时增量维护 1 分钟、5 分钟、1 小时
+ * 三级降采样（min/max/avg/last/count，每个桶结束时写入该级别的降采样存储）。查询时选用不超过图表间隔的
+ * 最粗一级，7 天曲线只需读取一百多个预聚合桶。
+ */
+@Service
+public class MonitoringHistoryServiceImpl implements MonitoringHistoryService, MonitoringSnapshotListener {
+
+    /** 写入时间序列存储的快照指标 */
+    private static final String[] RECORDED_METRICS = {"qps", "tps", "commit_per_sec", "rollback_per_sec",
+            "slow_queries_per_sec", "connections_per_sec", "threads_connected", "threads_running",
+            "replica_lag", "replica_io_running", "replica_sql_running"};
+
+    /** 降采样级别名称及桶宽度（秒），由细到粗 */
+    private static final String[] ROLLUP_TIERS = {"1m", "5m", "1h"};
+    private static final long[] ROLLUP_WIDTHS = {60L, 5 * 60L, 60 * 60L};
+
+    /** 图表指标 -> 存储的序列 */
+    private static final Map<String, String> CHART_SERIES = new LinkedHashMap<>();
+
+    static {
+        CHART_SERIES.put("qps", "qps");
+        CHART_SERIES.put("tps", "tps");
+        CHART_SERIES.put("connections", "threads_connected");
+        CHART_SERIES.put("slow_queries", "slow_queries_per_sec");
+        CHART_SERIES.put("threads_running", "threads_running");
+        CHART_SERIES.put("replica_lag", "replica_lag");
+    }
+
+    /** 实例ID:指标:级别 -> 当前未结束的降采样桶 */
+    private final Map<String, RollupState> rollups = new ConcurrentHashMap<>();
+
+    @Autowired
+    private TimeSeriesStoreService timeSeriesStoreService;
+
+    @Override
+    public void onSnapshot(DatabaseInstance instance, Map<String, Object> snapshot) {
+        if (snapshot.containsKey("error") || !(snapshot.get("timestamp") instanceof Number)) {
+            return;
+        }
+        long timestamp = ((Number) snapshot.get("timestamp")).longValue() / 1000;
+        for (String metric : RECORDED_METRICS) {
+            Object value = snapshot.get(metric);
+            if (value instanceof Number) {
+                double v = ((Number) value).doubleValue();
+                timeSeriesStoreService.append(instance.getId(), metric, timestamp, v);
+                updateRollups(instance.getId(), metric, timestamp, v);
+            }
+        }
+    }
+
+    /**
+     * 输出已过期但一直没有新采样触发的桶（如实例已停用或采集失败）
+     */
+    @Scheduled(fixedDelayString = "${monitoring.history.flush-interval:60000}")
+    public void flushIdleRollups() {
+        long now = System.currentTimeMillis() / 1000;
+        for (RollupState state : rollups.values()) {
+            synchronized (state) {
+                RollupBucket bucket = state.bucket;
+                if (bucket.getCount() > 0 && bucket.getStart() + bucket.getWidth() + 60 < now) {
+                    flush(state);
+                }
+            }
+        }
+    }
+
+    /**
+     * 停机前输出所有未结束的桶；重启后同一时间桶会再输出一次，查询时按个数加权合并
+     */
+    @PreDestroy
+    public void destroy() {
+        for (RollupState state : rollups.values()) {
+            synchronized (state) {
+                flush(state);
+            }
+        }
+    }
+
+    @Override
+    public Map<String, Object> getHistoryData(DatabaseInstance instance, String timeRange) {
+        int dataPoints;
+        long interval;
+        // 根据时间范围确定数据点数量和间隔（秒）
+        switch (timeRange) {
+            case "1h": dataPoints = 12; interval = 5 * 60L; break;        // 5分钟间隔
+            case "6h": dataPoints = 18; interval = 20 * 60L; break;       // 20分钟间隔
+            case "7d": dataPoints = 28; interval = 6 * 60 * 60L; break;   // 6小时间隔
+            case "24h":
+            default: dataPoints = 24; interval = 60 * 60L; break;         // 1小时间隔
+        }
+
+        long to = System.currentTimeMillis() / 1000;
+        long from = to - dataPoints * interval;
+        int tier = chooseTier(interval);
+        SimpleDateFormat labelFormat = new SimpleDateFormat("7d".equals(timeRange) ? "MM-dd HH:mm" : "HH:mm");
+
+        Map<String, Object> historyData = new HashMap<>();
+        for (Map.Entry<String, String> chart : CHART_SERIES.entrySet()) {
+            double[] sums = new double[dataPoints];
+            long[] counts = new long[dataPoints];
+            if (tier < 0) {
+                accumulateRaw(instance.getId(), chart.getValue(), from, to, interval, sums, counts);
+            } else {
+                accumulateRollup(instance.getId(), chart.getValue(), tier, from, to, interval, sums, counts);
+            }
+            historyData.put(chart.getKey(), toChartData(sums, counts, from, interval, labelFormat));
+        }
+        historyData.put("resolution", tier < 0 ? "raw" : ROLLUP_TIERS[tier]);
+        return historyData;
+    }
+
+    @Override
+    public void evict(Long instanceId) {
+        if (instanceId != null) {
+            String prefix = instanceId + ":";
+            rollups.keySet().removeIf(key -> key.startsWith(prefix));
+        }
+    }
+
+    private void updateRollups(Long instanceId, String metric, long timestamp, double value) {
+        for (int tier = 0; tier < ROLLUP_TIERS.length; tier++) {
+            final int t = tier;
+            RollupState state = rollups.computeIfAbsent(rollupKey(instanceId, metric, tier),
+                    k -> new RollupState(instanceId, metric, t));
+            synchronized (state) {
+                if (state.bucket.isAfterBucket(timestamp)) {
+                    flush(state);
+                }
+                if (state.bucket.getCount() > 0 && timestamp < state.bucket.getStart()) {
+                    continue; // 早于当前桶的乱序采样
+                }
+                state.bucket.add(timestamp, value);
+            }
+        }
+    }
+
+    /**
+     * 把已结束的桶写入存储，调用方需持有 state 的锁
+     */
+    private void flush(RollupState state) {
+        RollupBucket bucket = state.bucket;
+        if (bucket.getCount() == 0) {
+            return;
+        }
+        String tier = ROLLUP_TIERS[state.tier];
+        long start = bucket.getStart();
+        timeSeriesStoreService.appendRollup(tier, state.instanceId, state.metric + ".min", start, bucket.getMin());
+        timeSeriesStoreService.appendRollup(tier, state.instanceId, state.metric + ".max", start, bucket.getMax());
+        timeSeriesStoreService.appendRollup(tier, state.instanceId, state.metric + ".avg", start, bucket.getAvg());
+        timeSeriesStoreService.appendRollup(tier, state.instanceId, state.metric + ".last", start, bucket.getLast());
+        timeSeriesStoreService.appendRollup(tier, state.instanceId, state.metric + ".count", start, bucket.getCount());
+        bucket.reset();
+    }
+
+    /**
+     * 选取桶宽度不超过图表间隔的最粗一级，没有合适的级别返回 -1（读取原始采样）
+     */
+    private int chooseTier(long interval) {
+        for (int tier = ROLLUP_WIDTHS.length - 1; tier >= 0; tier--) {
+            if (ROLLUP_WIDTHS[tier] <= interval && interval % ROLLUP_WIDTHS[tier] == 0) {
+                return tier;
+            }
+        }
+        return -1;
+    }
+
+    private void accumulateRaw(Long instanceId, String metric, long from, long to, long interval,
+                               double[] sums, long[] counts) {
+        TimeSeriesDTO series = timeSeriesStoreService.query(instanceId, metric, from + 1, to);
+        long[] timestamps = series.getTimestamps();
+        double[] values = series.getValues();
+        for (int i = 0; i < timestamps.length; i++) {
+            accumulate(timestamps[i] - from - 1, interval, values[i], 1, sums, counts);
+        }
+    }
+
+    /**
+     * 读取预聚合桶，按各桶采样个数加权合并到图表间隔；当前未结束的桶从内存中补齐
+     */
+    private void accumulateRollup(Long instanceId, String metric, int tier, long from, long to, long interval,
+                                  double[] sums, long[] counts) {
+        String tierName = ROLLUP_TIERS[tier];
+        long width = ROLLUP_WIDTHS[tier];
+        // 桶以起始时间存储，(from, to] 范围内的采样落在起始时间为 [from+1-width, to] 的桶中
+        long alignedFrom = from + 1 - Math.floorMod(from + 1, width);
+        TimeSeriesDTO avg = timeSeriesStoreService.queryRollup(tierName, instanceId, metric + ".avg", alignedFrom, to);
+        TimeSeriesDTO count = timeSeriesStoreService.queryRollup(tierName, instanceId, metric + ".count",
+                alignedFrom, to);
+        long[] timestamps = avg.getTimestamps();
+        double[] avgValues = avg.getValues();
+        boolean weighted = count.size() == avg.size();
+        for (int i = 0; i < timestamps.length; i++) {
+            long n = weighted ? (long) count.getValues()[i] : 1L;
+            accumulate(Math.max(0L, timestamps[i] - from - 1), interval, avgValues[i] * n, n, sums, counts);
+        }
+
+        RollupState state = rollups.get(rollupKey(instanceId, metric, tier));
+        if (state != null) {
+            synchronized (state) {
+                RollupBucket bucket = state.bucket;
+                if (bucket.getCount() > 0 && bucket.getStart() <= to) {
+                    accumulate(Math.max(0L, bucket.getStart() - from - 1), interval,
+                            bucket.getSum(), bucket.getCount(), sums, counts);
+                }
+            }
+        }
+    }
+
+    private void accumulate(long offset, long interval, double sum, long n, double[] sums, long[] counts) {
+        int index = (int) (offset / interval);
+        if (index >= 0 && index < sums.length) {
+            sums[index] += sum;
+            counts[index] += n;
+        }
+    }
+
+    /**
+     * 生成图表数据，没有采样的点返回 null
+     */
+    private Map<String, List<Object>> toChartData(double[] sums, long[] counts, long from, long interval,
+                                                  SimpleDateFormat labelFormat) {
+        List<Object> values = new ArrayList<>(sums.length);
+        List<Object> labels = new ArrayList<>(sums.length);
+        for (int i = 0; i < sums.length; i++) {
+            values.add(counts[i] == 0 ? null : Math.round(sums[i] / counts[i] * 100.0) / 100.0);
+            labels.add(labelFormat.format(new Date((from + (i + 1) * interval) * 1000)));
+        }
+
+        Map<String, List<Object>> metricData = new HashMap<>();
+        metricData.put("values", values);
+        metricData.put("labels", labels);
+        return metricData;
+    }
+
+    private static String rollupKey(Long instanceId, String metric, int tier) {
+        return instanceId + ":" + metric + ":" + tier;
+    }
+
+    /**
+     * 单个序列在某一级别上正在累加的桶
+     */
+    private static class RollupState {
+        final Long instanceId;
+        final String metric;
+        final int tier;
+        final RollupBucket bucket;
+
+        RollupState(Long instanceId, String metric, int tier) {
+            this.instanceId = instanceId;
+            this.metric = metric;
+            this.tier = tier;
+            this.bucket = new RollupBucket(ROLLUP_WIDTHS[tier]);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package org.example.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.entity.DatabaseInstance;
+import org.example.service.MonitoringSnapshotListener;
+import org.example.service.MonitoringStreamService;
+import org.example.service.ProcesslistTrackerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 监控数据推送服务实现类
+ * 每次采集得到的快照只序列化一次，再在独立的推送线程中分发给该实例的所有订阅者；
+ * 活跃会话不随快照推送，而是以相对上一次推送的增量（processlist 事件）发送，推送量与会话变化量成正比。
+ * 推送线程按实例分片，同一实例的事件始终由同一个线程按顺序发送，活跃会话增量不会乱序；
+ * 慢客户端不会阻塞采集线程；定时发送心跳注释以保持连接并及时发现已断开的订阅。
+ */
+@Service
+public class MonitoringStreamServiceImpl implements MonitoringStreamService, MonitoringSnapshotListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(MonitoringStreamServiceImpl.class);
+
+    /** 实例ID -> (客户端标识 -> 订阅) */
+    private final Map<Long, Map<String, SseEmitter>> subscribers = new ConcurrentHashMap<>();
+
+    /** 实例ID -> 最近一次推送的快照JSON，新订阅者连接后立即收到 */
+    private final Map<Long, String> lastPayloads = new ConcurrentHashMap<>();
+
+    /** 实例ID -> 最近一次推送的活跃会话版本，下一次只推送此后的变化 */
+    private final Map<Long, Long> pushedVersions = new ConcurrentHashMap<>();
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProcesslistTrackerService processlistTrackerService;
+
+    @Value("${monitoring.stream.timeout:1800000}")
+    private long emitterTimeout;
+
+    @Value("${monitoring.stream.threads:2}")
+    private int pushThreads;
+
+    /** 单线程推送队列，按实例ID分片 */
+    private ExecutorService[] pushExecutors;
+
+    @PostConstruct
+    public void init() {
+        pushExecutors = new ExecutorService[Math.max(1, pushThreads)];
+        for (int i = 0; i < pushExecutors.length; i++) {
+            final String name = "monitoring-stream-" + (i + 1);
+            // 队列满时丢弃最旧的事件；丢失的增量由客户端按版本不连续检测并重新拉取全量
+            pushExecutors[i] = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(1000), r -> {
+                        Thread t = new Thread(r, name);
+                        t.setDaemon(true);
+                        return t;
+                    }, new ThreadPoolExecutor.DiscardOldestPolicy());
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        for (ExecutorService executor : pushExecutors) {
+            executor.shutdownNow();
+        }
+        for (Map<String, SseEmitter> emitters : subscribers.values()) {
+            for (SseEmitter emitter : emitters.values()) {
+                emitter.complete();
+            }
+        }
+        subscribers.clear();
+    }
+
+    @Override
+    public SseEmitter subscribe(Long instanceId, String clientId) {
+        final String id = clientId == null || clientId.isEmpty() ? UUID.randomUUID().toString() : clientId;
+        SseEmitter emitter = new SseEmitter(emitterTimeout);
+        Map<String, SseEmitter> emitters = subscribers.computeIfAbsent(instanceId, k -> new ConcurrentHashMap<>());
+        SseEmitter previous = emitters.put(id, emitter);
+        if (previous != null) {
+            previous.complete();
+        }
+
+        Runnable cleanup = () -> remove(instanceId, id, emitter);
+        emitter.onCompletion(cleanup);
+        emitter.onTimeout(cleanup);
+        emitter.onError(e -> cleanup.run());
+
+        try {
+            emitter.send(SseEmitter.event().name("subscribed").data(id));
+            String payload = lastPayloads.get(instanceId);
+            if (payload != null) {
+                emitter.send(SseEmitter.event().name("snapshot").data(payload));
+                emitter.send(SseEmitter.event().name("processlist")
+                        .data(objectMapper.writeValueAsString(processlistTrackerService.getChanges(instanceId, 0))));
+            }
+        } catch (IOException e) {
+            remove(instanceId, id, emitter);
+        }
+        logger.info("实例 {} 新增实时数据订阅 {}，当前订阅数 {}", instanceId, id, getSubscriberCount(instanceId));
+        return emitter;
+    }
+
+    @Override
+    public int unsubscribe(Long instanceId, String clientId) {
+        Map<String, SseEmitter> emitters = subscribers.get(instanceId);
+        if (emitters == null) {
+            return 0;
+        }
+        List<SseEmitter> closing = new ArrayList<>();
+        if (clientId == null || clientId.isEmpty()) {
+            closing.addAll(emitters.values());
+        } else if (emitters.containsKey(clientId)) {
+            closing.add(emitters.get(clientId));
+        }
+        for (SseEmitter emitter : closing) {
+            emitter.complete();
+        }
+        if (clientId == null || clientId.isEmpty()) {
+            emitters.clear();
+        } else {
+            emitters.remove(clientId);
+        }
+        cleanupInstance(instanceId);
+        return closing.size();
+    }
+
+    @Override
+    public int getSubscriberCount(Long instanceId) {
+        Map<String, SseEmitter> emitters = subscribers.get(instanceId);
+        return emitters == null ? 0 : emitters.size();
+    }
+
+    @Override
+    public void onSnapshot(DatabaseInstance instance, Map<String, Object> snapshot) {
+        Long instanceId = instance.getId();
+        Map<String, SseEmitter> emitters = subscribers.get(instanceId);
+        if (emitters == null || emitters.isEmpty()) {
+            return;
+        }
+        // 活跃会话单独以增量推送，快照中不再重复携带完整列表
+        Map<String, Object> metrics = new HashMap<>(snapshot);
+        metrics.remove("active_queries");
+        Long since = pushedVersions.get(instanceId);
+        Map<String, Object> changes = processlistTrackerService.getChanges(instanceId, since != null ? since : 0L);
+        final String payload;
+        final String processlist;
+        try {
+            payload = objectMapper.writeValueAsString(metrics);
+            processlist = objectMapper.writeValueAsString(changes);
+        } catch (IOException e) {
+            logger.error("序列化实例 {} 的监控快照失败", instanceId, e);
+            return;
+        }
+        lastPayloads.put(instanceId, payload);
+        pushedVersions.put(instanceId, (Long) changes.get("version"));
+        dispatch(instanceId, () -> SseEmitter.event().name("snapshot").data(payload));
+        dispatch(instanceId, () -> SseEmitter.event().name("processlist").data(processlist));
+    }
+
+    /**
+     * 定时向所有订阅发送心跳
+     */
+    @Scheduled(fixedDelayString = "${monitoring.stream.heartbeat:15000}")
+    public void sendHeartbeats() {
+        for (Long instanceId : subscribers.keySet()) {
+            dispatch(instanceId, () -> SseEmitter.event().comment("heartbeat"));
+        }
+    }
+
+    /**
+     * 事件构造器每次 build 都会追加内容，不能在订阅间复用，因此按订阅者各建一个（数据本身已序列化好）
+     */
+    private void dispatch(Long instanceId, Supplier<SseEmitter.SseEventBuilder> event) {
+        try {
+            pushExecutors[Math.floorMod(instanceId.hashCode(), pushExecutors.length)].execute(() -> {
+                Map<String, SseEmitter> emitters = subscribers.get(instanceId);
+                if (emitters == null) {
+                    return;
+                }
+                for (Map.Entry<String, SseEmitter> entry : emitters.entrySet()) {
+                    try {
+                        entry.getValue().send(event.get());
+                    } catch (IOException | IllegalStateException e) {
+                        logger.debug("实时数据订阅 {} 已断开", entry.getKey());
+                        remove(instanceId, entry.getKey(), entry.getValue());
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warn("实时数据推送已停止，丢弃实例 {} 的推送", instanceId);
+        }
+    }
+
+    private void remove(Long instanceId, String clientId, SseEmitter emitter) {
+        Map<String, SseEmitter> emitters = subscribers.get(instanceId);
+        if (emitters != null && emitters.remove(clientId, emitter)) {
+            cleanupInstance(instanceId);
+        }
+    }
+
+    private void cleanupInstance(Long instanceId) {
+        subscribers.computeIfPresent(instanceId, (id, emitters) -> emitters.isEmpty() ? null : emitters);
+        if (!subscribers.containsKey(instanceId)) {
+            lastPayloads.remove(instanceId);
+            pushedVersions.remove(instanceId);
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package org.example.service.impl;
+
+import org.example.dto.PageQueryDTO;
+import org.example.entity.DatabaseInstance;
+import org.example.service.MonitoringSnapshotListener;
+import org.example.service.ProcesslistTrackerService;
+import org.example.util.KeysetPager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 活跃会话跟踪服务实现类
+ * 每次快照按连接ID与上一次的会话比较：库、命令、状态或语句变化的会话记为变化，语句重新开始时重算开始时间，
+ * 不再出现的连接记为已结束；执行时间随时间自然增长，不算变化（由开始时间推算）。
+ * 每个会话记录最后变化的版本号，已结束的连接保留有限条删除记录，据此可以回答任意近期版本以来的增量。
+ * 需要先于推送等其他快照监听器执行，以便它们在同一次快照中读取到最新增量。
+ */
+@Service
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ProcesslistTrackerServiceImpl implements ProcesslistTrackerService, MonitoringSnapshotListener {
+
+    /** 长时间运行查询只统计这些命令，排除复制、事件调度等常驻线程 */
+    private static final String[] QUERY_COMMANDS = {"Query", "Execute"};
+
+    /** 实例ID -> 跟踪状态 */
+    private final Map<Long, InstanceSessions> instances = new ConcurrentHashMap<>();
+
+    /** 每个实例保留的已结束连接记录数，早于最旧记录的版本只能返回全量 */
+    @Value("${monitoring.processlist.tombstones:10000}")
+    private int maxTombstones;
+
+    @Override
+    public void onSnapshot(DatabaseInstance instance, Map<String, Object> snapshot) {
+        Object activeQueries = snapshot.get("active_queries");
+        if (!(activeQueries instanceof List) || !(snapshot.get("timestamp") instanceof Number)) {
+            return;
+        }
+        long timestamp = ((Number) snapshot.get("timestamp")).longValue();
+        InstanceSessions sessions = instances.computeIfAbsent(instance.getId(), k -> new InstanceSessions());
+        synchronized (sessions) {
+            sessions.apply((List<?>) activeQueries, timestamp);
+        }
+    }
+
+    @Override
+    public Map<String, Object> getChanges(Long instanceId, long since) {
+        InstanceSessions sessions = instances.get(instanceId);
+        Map<String, Object> changes = new LinkedHashMap<>();
+        if (sessions == null) {
+            changes.put("version", 0L);
+            changes.put("from", since);
+            changes.put("full", true);
+            changes.put("upserts", Collections.emptyList());
+            changes.put("removed", Collections.emptyList());
+            return changes;
+        }
+        synchronized (sessions) {
+            boolean full = since <= 0 || since > sessions.version || since < sessions.tombstoneFloor;
+            List<Map<String, Object>> upserts = new ArrayList<>();
+            List<Long> removed = new ArrayList<>();
+            if (!full && since == sessions.version - 1) {
+                // 最常见的情况：只差最近一次快照，直接使用该次快照记录的变化
+                for (Session session : sessions.lastChanged) {
+                    upserts.add(session.toRow());
+                }
+                removed.addAll(sessions.lastRemoved);
+            } else {
+                for (Session session : sessions.byId.values()) {
+                    if (full || session.version > since) {
+                        upserts.add(session.toRow());
+                    }
+                }
+                if (!full) {
+                    for (long[] tombstone : sessions.tombstones) {
+                        if (tombstone[0] > since) {
+                            removed.add(tombstone[1]);
+                        }
+                    }
+                }
+            }
+            changes.put("version", sessions.version);
+            changes.put("from", since);
+            changes.put("full", full);
+            changes.put("timestamp", sessions.timestamp);
+            changes.put("upserts", upserts);
+            changes.put("removed", removed);
+        }
+        return changes;
+    }
+
+    @Override
+    public List<Map<String, Object>> getLongRunning(Long instanceId, int minSeconds, int limit) {
+        InstanceSessions sessions = instances.get(instanceId);
+        if (sessions == null) {
+            return Collections.emptyList();
+        }
+        List<Map<String, Object>> result = new ArrayList<>();
+        synchronized (sessions) {
+            long cutoff = sessions.timestamp - minSeconds * 1000L;
+            for (Session session : sessions.byStart) {
+                if (session.startedAt > cutoff || result.size() >= limit) {
+                    break;
+                }
+                if (isQueryCommand(session.command)) {
+                    Map<String, Object> row = session.toRow();
+                    row.put("time", (sessions.timestamp - session.startedAt) / 1000);
+                    row.put("first_seen", session.firstSeen);
+                    result.add(row);
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Object> getPage(Long instanceId, String user, String db, String command, String keyword,
+                                       int minTime, PageQueryDTO query) {
+        InstanceSessions sessions = instances.get(instanceId);
+        if (sessions == null) {
+            return KeysetPager.page(Collections.<Session>emptyList(), s -> true, s -> 0L, s -> "", query, Session::toRow);
+        }
+        // 执行时间随每次快照增长，不能作为游标；按执行时间排序时改为按不变的开始时间反向排序和分页
+        PageQueryDTO keysetQuery = "time".equals(query.getSort())
+                ? new PageQueryDTO("started_at", query.isDesc() ? PageQueryDTO.ORDER_ASC : PageQueryDTO.ORDER_DESC,
+                        query.getSize(), query.getAfter(), query.getAfterKey())
+                : query;
+        synchronized (sessions) {
+            long timestamp = sessions.timestamp;
+            Function<Session, Object> sortValue = sortValue(keysetQuery.getSort());
+            Map<String, Object> page = KeysetPager.page(sessions.byId.values(),
+                    s -> (user == null || user.equals(s.user)) && (db == null || db.equals(s.db))
+                            && (command == null || command.equals(s.command))
+                            && (keyword == null || (s.info != null && s.info.contains(keyword)))
+                            && timestamp - s.startedAt >= minTime * 1000L,
+                    sortValue, s -> String.valueOf(s.id), keysetQuery, s -> {
+                        Map<String, Object> row = s.toRow();
+                        row.put("time", (timestamp - s.startedAt) / 1000);
+                        return row;
+                    });
+            page.put("timestamp", timestamp);
+            return page;
+        }
+    }
+
+    @Override
+    public void evict(Long instanceId) {
+        instances.remove(instanceId);
+    }
+
+    private static Function<Session, Object> sortValue(String sort) {
+        switch (sort) {
+            case "id": return s -> s.id;
+            case "user": return s -> s.user != null ? s.user : "";
+            case "db": return s -> s.db != null ? s.db : "";
+            case "command": return s -> s.command != null ? s.command : "";
+            case "state": return s -> s.state != null ? s.state : "";
+            default: return s -> s.startedAt;
+        }
+    }
+
+    private static boolean isQueryCommand(String command) {
+        for (String queryCommand : QUERY_COMMANDS) {
+            if (queryCommand.equals(command)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String asString(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    /**
+     * 单个实例的会话跟踪状态
+     */
+    private class InstanceSessions {
+        final Map<Long, Session> byId = new HashMap<>();
+        /** 按开始时间排序的会话，用于长时间运行查询 */
+        final TreeSet<Session> byStart = new TreeSet<>(Comparator.comparingLong((Session s) -> s.startedAt)
+                .thenComparingLong(s -> s.id));
+        /** 已结束连接的 [版本, 连接ID]，按版本递增 */
+        final Deque<long[]> tombstones = new ArrayDeque<>();
+        /** 删除记录被淘汰后，不早于该版本的增量仍然完整 */
+        long tombstoneFloor;
+        long version;
+        long timestamp;
+        List<Session> lastChanged = Collections.emptyList();
+        List<Long> lastRemoved = Collections.emptyList();
+
+        void apply(List<?> rows, long snapshotTime) {
+            long next = version + 1;
+            List<Session> changed = new ArrayList<>();
+            Set<Long> seen = new HashSet<>(rows.size() * 2);
+            for (Object item : rows) {
+                if (!(item instanceof Map)) {
+                    continue;
+                }
+                Map<?, ?> row = (Map<?, ?>) item;
+                if (!(row.get("id") instanceof Number)) {
+                    continue;
+                }
+                long id = ((Number) row.get("id")).longValue();
+                seen.add(id);
+                long seconds = row.get("time") instanceof Number ? ((Number) row.get("time")).longValue() : 0L;
+                long startedAt = snapshotTime - seconds * 1000;
+                Session session = byId.get(id);
+                if (session == null) {
+                    session = new Session(id, snapshotTime, startedAt);
+                    session.update(row);
+                    session.version = next;
+                    byId.put(id, session);
+                    byStart.add(session);
+                    changed.add(session);
+                    continue;
+                }
+                // 语句变化或执行时间比按上次开始时间推算的更短，说明是同一连接上新的一次执行
+                boolean restarted = !Objects.equals(session.info, asString(row.get("info")))
+                        || startedAt - session.startedAt > 1500;
+                if (restarted) {
+                    byStart.remove(session);
+                    session.startedAt = startedAt;
+                    session.firstSeen = snapshotTime;
+                    byStart.add(session);
+                }
+                if (session.update(row) || restarted) {
+                    session.version = next;
+                    changed.add(session);
+                }
+            }
+
+            List<Long> removed = new ArrayList<>();
+            Iterator<Session> it = byId.values().iterator();
+            while (it.hasNext()) {
+                Session session = it.next();
+                if (!seen.contains(session.id)) {
+                    it.remove();
+                    byStart.remove(session);
+                    removed.add(session.id);
+                    tombstones.addLast(new long[]{next, session.id});
+                }
+            }
+            while (tombstones.size() > maxTombstones) {
+                tombstoneFloor = tombstones.removeFirst()[0];
+            }
+
+            timestamp = snapshotTime;
+            if (!changed.isEmpty() || !removed.isEmpty()) {
+                version = next;
+                lastChanged = changed;
+                lastRemoved = removed;
+            }
+        }
+    }
+
+    /**
+     * 单个连接的当前会话
+     */
+    private static class Session {
+        final long id;
+        long firstSeen;
+        long startedAt;
+        long version;
+        String user;
+        String host;
+        String db;
+        String command;
+        String state;
+        String info;
+        String digest;
+
+        Session(long id, long firstSeen, long startedAt) {
+            this.id = id;
+            this.firstSeen = firstSeen;
+            this.startedAt = startedAt;
+        }
+
+        /**
+         * 用快照行更新字段，返回是否有变化
+         */
+        boolean update(Map<?, ?> row) {
+            String newDb = asString(row.get("db"));
+            String newCommand = asString(row.get("command"));
+            String newState = asString(row.get("state"));
+            String newInfo = asString(row.get("info"));
+            boolean changed = !Objects.equals(db, newDb) || !Objects.equals(command, newCommand)
+                    || !Objects.equals(state, newState) || !Objects.equals(info, newInfo);
+            user = asString(row.get("user"));
+            host = asString(row.get("host"));
+            db = newDb;
+            command = newCommand;
+            state = newState;
+            info = newInfo;
+            digest = asString(row.get("digest"));
+            return changed;
+        }
+
+        Map<String, Object> toRow() {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", id);
+            row.put("user", user);
+            row.put("host", host);
+            row.put("db", db);
+            row.put("command", command);
+            row.put("state", state);
+            row.put("info", info);
+            row.put("digest", digest);
+            row.put("started_at", startedAt);
+            return row;
+        }
+    }
+}
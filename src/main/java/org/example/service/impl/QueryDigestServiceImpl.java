@@ -0,0 +1,226 @@
+package org.example.service.impl;
+
+import org.example.entity.DatabaseInstance;
+import org.example.service.MonitoringSnapshotListener;
+import org.example.service.QueryDigestService;
+import org.example.util.SpaceSaving;
+import org.example.util.SqlFingerprint;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 查询摘要统计服务实现类
+ * 每次采集的活跃查询（慢查询列表是其子集）按指纹摘要计入当前时间窗口：
+ * 同一线程上摘要不变且执行时间连续增长的查询视为同一次执行，只累加新增耗时、不重复计数。
+ * 每个窗口用两个 Space-Saving 结构分别按次数和耗时跟踪高频语句，内存与实例数、窗口数、容量成正比；
+ * 查询时合并所选时间范围内的窗口。
+ */
+@Service
+public class QueryDigestServiceImpl implements QueryDigestService, MonitoringSnapshotListener {
+
+    /** 实例ID -> 统计数据 */
+    private final Map<Long, InstanceDigests> instances = new ConcurrentHashMap<>();
+
+    @Value("${monitoring.query-digest.capacity:200}")
+    private int capacity;
+
+    @Value("${monitoring.query-digest.window:300000}")
+    private long windowMillis;
+
+    @Value("${monitoring.query-digest.windows:12}")
+    private int windows;
+
+    @Value("${monitoring.query-digest.sample-length:512}")
+    private int sampleLength;
+
+    @Override
+    public void onSnapshot(DatabaseInstance instance, Map<String, Object> snapshot) {
+        Object activeQueries = snapshot.get("active_queries");
+        if (!(activeQueries instanceof List) || !(snapshot.get("timestamp") instanceof Number)) {
+            return;
+        }
+        long timestamp = ((Number) snapshot.get("timestamp")).longValue();
+        InstanceDigests digests = instances.computeIfAbsent(instance.getId(), k -> new InstanceDigests());
+        synchronized (digests) {
+            Window window = digests.windowAt(timestamp);
+            Map<Long, Execution> running = new HashMap<>();
+            for (Object item : (List<?>) activeQueries) {
+                if (item instanceof Map) {
+                    record(digests, window, running, (Map<?, ?>) item, timestamp);
+                }
+            }
+            digests.running = running;
+            digests.lastSampleAt = timestamp;
+        }
+    }
+
+    @Override
+    public List<Map<String, Object>> getTopQueries(Long instanceId, int minutes, String sortBy, int limit) {
+        InstanceDigests digests = instances.get(instanceId);
+        if (digests == null) {
+            return Collections.emptyList();
+        }
+        boolean byTime = SORT_BY_TIME.equals(sortBy);
+        long from = System.currentTimeMillis() - minutes * 60000L;
+        Map<String, long[]> merged = new HashMap<>();
+        List<Map<String, Object>> result = new ArrayList<>();
+        synchronized (digests) {
+            for (Window window : digests.ring) {
+                if (window == null || window.start + windowMillis <= from) {
+                    continue;
+                }
+                SpaceSaving<String> ranked = byTime ? window.byTime : window.byCount;
+                for (SpaceSaving.Counter<String> counter : ranked.top(capacity)) {
+                    long[] totals = merged.computeIfAbsent(counter.getKey(), k -> new long[3]);
+                    totals[0] += counter.getCount();
+                    totals[1] += counter.getError();
+                }
+            }
+            List<Map.Entry<String, long[]>> entries = new ArrayList<>(merged.entrySet());
+            entries.sort((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+            for (Map.Entry<String, long[]> entry : entries.subList(0, Math.min(limit, entries.size()))) {
+                String digest = entry.getKey();
+                long count = 0;
+                long time = 0;
+                for (Window window : digests.ring) {
+                    if (window != null && window.start + windowMillis > from) {
+                        count += window.byCount.estimate(digest);
+                        time += window.byTime.estimate(digest);
+                    }
+                }
+                String[] text = digests.texts.get(digest);
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("digest", digest);
+                row.put("fingerprint", text == null ? null : text[0]);
+                row.put("sample", text == null ? null : text[1]);
+                row.put("count", count);
+                row.put("total_time", time);
+                row.put("avg_time", count > 0 ? Math.round(time * 100.0 / count) / 100.0 : 0);
+                row.put("error", entry.getValue()[1]);
+                result.add(row);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void evict(Long instanceId) {
+        instances.remove(instanceId);
+    }
+
+    /**
+     * 计入一条活跃查询；调用方需持有 digests 的锁
+     */
+    private void record(InstanceDigests digests, Window window, Map<Long, Execution> running,
+                        Map<?, ?> query, long timestamp) {
+        Object info = query.get("info");
+        if (info == null) {
+            return;
+        }
+        String sql = info.toString();
+        // 采集时已附带摘要且指纹文本已缓存的语句无需再次计算指纹
+        String digest = query.get("digest") instanceof String ? (String) query.get("digest") : null;
+        if (digest == null || digests.texts.get(digest) == null) {
+            String fingerprint = SqlFingerprint.fingerprint(sql);
+            if (fingerprint == null) {
+                return;
+            }
+            digest = SqlFingerprint.digest(fingerprint);
+            if (digests.texts.get(digest) == null) {
+                digests.texts.put(digest, new String[]{fingerprint,
+                        sql.length() > sampleLength ? sql.substring(0, sampleLength) : sql});
+            }
+        }
+
+        long seconds = query.get("time") instanceof Number ? ((Number) query.get("time")).longValue() : 0;
+        Long threadId = query.get("id") instanceof Number ? ((Number) query.get("id")).longValue() : null;
+        Execution previous = threadId == null ? null : digests.running.get(threadId);
+        // 两次采样间隔内执行时间应至少增长 间隔-1 秒，否则是同一线程上的新一次执行
+        long elapsed = (timestamp - digests.lastSampleAt) / 1000;
+        boolean continuing = previous != null && previous.digest.equals(digest)
+                && seconds - previous.seconds >= elapsed - 1;
+        if (continuing) {
+            if (seconds > previous.seconds) {
+                window.byTime.offer(digest, seconds - previous.seconds);
+            }
+        } else {
+            window.byCount.offer(digest, 1);
+            if (seconds > 0) {
+                window.byTime.offer(digest, seconds);
+            }
+        }
+        if (threadId != null) {
+            running.put(threadId, new Execution(digest, seconds));
+        }
+    }
+
+    /**
+     * 单个实例的窗口环和指纹文本
+     */
+    private class InstanceDigests {
+        final Window[] ring = new Window[windows];
+        /** 被跟踪摘要的指纹和示例语句，按访问顺序淘汰，容量覆盖所有窗口的计数器 */
+        final Map<String, String[]> texts = new LinkedHashMap<String, String[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String[]> eldest) {
+                return size() > capacity * 2 * windows;
+            }
+        };
+        /** 上一次采样中各线程正在执行的语句 */
+        Map<Long, Execution> running = Collections.emptyMap();
+        long lastSampleAt;
+
+        /**
+         * 采样所在的窗口，窗口已过期时清空复用
+         */
+        Window windowAt(long timestamp) {
+            long start = timestamp - Math.floorMod(timestamp, windowMillis);
+            int index = (int) Math.floorMod(start / windowMillis, (long) windows);
+            Window window = ring[index];
+            if (window == null) {
+                window = new Window(capacity);
+                ring[index] = window;
+            } else if (window.start != start) {
+                window.byCount.clear();
+                window.byTime.clear();
+            }
+            window.start = start;
+            return window;
+        }
+    }
+
+    /**
+     * 单个时间窗口的统计
+     */
+    private static class Window {
+        long start;
+        final SpaceSaving<String> byCount;
+        final SpaceSaving<String> byTime;
+
+        Window(int capacity) {
+            this.byCount = new SpaceSaving<>(capacity);
+            this.byTime = new SpaceSaving<>(capacity);
+        }
+    }
+
+    /**
+     * 上一次采样时线程正在执行的语句
+     */
+    private static class Execution {
+        final String digest;
+        final long seconds;
+
+        Execution(String digest, long seconds) {
+            this.digest = digest;
+            this.seconds = seconds;
+        }
+    }
+}
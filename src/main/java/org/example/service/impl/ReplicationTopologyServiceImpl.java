@@ -0,0 +1,395 @@
+package org.example.service.impl;
+
+import org.example.entity.DatabaseInstance;
+import org.example.service.DatabaseMonitoringService;
+import org.example.service.MonitoringSnapshotListener;
+import org.example.service.ReplicationTopologyService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 复制拓扑服务实现类
+ * 从每次快照的 replication 中保存各实例最近的复制通道状态；复制源按 source_server_id 匹配被监控实例的 server_id，
+ * 匹配不到时按 主机:端口 匹配实例配置的地址或实例自身的 hostname:port，仍匹配不到的作为外部复制源。
+ * 拓扑结构只在复制源、通道或实例标识变化时重建，查询时把最近一次采集的线程状态和延迟合并到各条边。
+ * 实例标识（server_id 等）按较长间隔单独读取一次并缓存，复用实例连接池中的连接。
+ */
+@Service
+public class ReplicationTopologyServiceImpl implements ReplicationTopologyService, MonitoringSnapshotListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicationTopologyServiceImpl.class);
+
+    private static final String ROLE_SOURCE = "source";
+    private static final String ROLE_REPLICA = "replica";
+    private static final String ROLE_INTERMEDIATE = "intermediate";
+    private static final String ROLE_STANDALONE = "standalone";
+
+    /** 实例ID -> 复制状态 */
+    private final Map<Long, InstanceReplication> instances = new ConcurrentHashMap<>();
+
+    /** 拓扑结构版本，复制源、通道或实例标识变化时递增 */
+    private final AtomicLong structureVersion = new AtomicLong();
+
+    private volatile Topology topology;
+
+    @Autowired
+    private DatabaseMonitoringService databaseMonitoringService;
+
+    @Value("${monitoring.replication.enabled:true}")
+    private boolean enabled;
+
+    /** 实例标识的重新读取间隔 */
+    @Value("${monitoring.replication.identity-refresh:3600000}")
+    private long identityRefresh;
+
+    /** 读取实例标识失败后的重试间隔 */
+    @Value("${monitoring.replication.retry-after:600000}")
+    private long retryAfter;
+
+    /** 超过该时间没有成功采集的实例移出拓扑（已停用或持续不可用） */
+    @Value("${monitoring.replication.stale-after:600000}")
+    private long staleAfter;
+
+    @Override
+    public void onSnapshot(DatabaseInstance instance, Map<String, Object> snapshot) {
+        if (!enabled || snapshot.containsKey("error") || !(snapshot.get("replication") instanceof List)
+                || !(snapshot.get("timestamp") instanceof Number)) {
+            return;
+        }
+        long timestamp = ((Number) snapshot.get("timestamp")).longValue();
+        List<Map<String, Object>> channels = new ArrayList<>();
+        for (Object item : (List<?>) snapshot.get("replication")) {
+            if (item instanceof Map) {
+                Map<String, Object> channel = new LinkedHashMap<>();
+                for (Map.Entry<?, ?> field : ((Map<?, ?>) item).entrySet()) {
+                    channel.put(String.valueOf(field.getKey()), field.getValue());
+                }
+                channels.add(Collections.unmodifiableMap(channel));
+            }
+        }
+
+        InstanceReplication state = instances.computeIfAbsent(instance.getId(), k -> new InstanceReplication());
+        boolean changed;
+        synchronized (state) {
+            String signature = signature(instance, channels);
+            changed = !signature.equals(state.signature);
+            state.signature = signature;
+            state.name = instance.getName();
+            state.host = instance.getHost();
+            state.port = instance.getPort();
+            state.channels = Collections.unmodifiableList(channels);
+            state.updatedAt = timestamp;
+            if (timestamp >= state.identityRefreshAt) {
+                changed |= refreshIdentity(instance, state, timestamp);
+            }
+        }
+        if (changed) {
+            structureVersion.incrementAndGet();
+        }
+    }
+
+    /**
+     * 移除长时间没有成功采集的实例
+     */
+    @Scheduled(fixedDelayString = "${monitoring.replication.prune-interval:60000}")
+    public void pruneStale() {
+        long cutoff = System.currentTimeMillis() - staleAfter;
+        Iterator<InstanceReplication> it = instances.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().updatedAt < cutoff) {
+                it.remove();
+                structureVersion.incrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public Map<String, Object> getTopology() {
+        Topology current = topology;
+        if (current == null || current.version != structureVersion.get()) {
+            synchronized (this) {
+                current = topology;
+                if (current == null || current.version != structureVersion.get()) {
+                    current = build();
+                    topology = current;
+                }
+            }
+        }
+
+        List<Map<String, Object>> edges = new ArrayList<>(current.edges.size());
+        for (Edge edge : current.edges) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("source", edge.source);
+            row.put("target", edge.target);
+            row.put("channel", edge.channel);
+            InstanceReplication state = instances.get(edge.replicaId);
+            Map<String, Object> channel = state != null ? state.findChannel(edge.channel, edge.sourceAddress) : null;
+            if (channel != null) {
+                row.put("source_host", channel.get("source_host"));
+                row.put("source_port", channel.get("source_port"));
+                row.put("io_running", channel.get("io_running"));
+                row.put("sql_running", channel.get("sql_running"));
+                row.put("seconds_behind", channel.get("seconds_behind"));
+                row.put("last_io_error", channel.get("last_io_error"));
+                row.put("last_sql_error", channel.get("last_sql_error"));
+                row.put("updated_at", state.updatedAt);
+            }
+            edges.add(row);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("nodes", current.nodes);
+        result.put("edges", edges);
+        result.put("built_at", current.builtAt);
+        return result;
+    }
+
+    @Override
+    public List<Map<String, Object>> getReplicaStatus(Long instanceId) {
+        InstanceReplication state = instances.get(instanceId);
+        return state != null ? state.channels : Collections.<Map<String, Object>>emptyList();
+    }
+
+    @Override
+    public void evict(Long instanceId) {
+        if (instances.remove(instanceId) != null) {
+            structureVersion.incrementAndGet();
+        }
+    }
+
+    /**
+     * 读取实例标识，返回标识是否变化；调用方需持有 state 的锁
+     */
+    private boolean refreshIdentity(DatabaseInstance instance, InstanceReplication state, long now) {
+        Map<String, Object> identity;
+        try {
+            identity = databaseMonitoringService.getServerIdentity(instance);
+        } catch (Exception e) {
+            state.identityRefreshAt = now + retryAfter;
+            logger.warn("读取实例 {} 的 server_id 失败，{} 秒后重试: {}", instance.getId(), retryAfter / 1000, e.getMessage());
+            return false;
+        }
+        state.identityRefreshAt = now + identityRefresh;
+        if (identity == null) {
+            return false;
+        }
+        Long serverId = toLong(identity.get("server_id"));
+        String address = identity.get("hostname") != null && identity.get("port") != null
+                ? address(identity.get("hostname"), identity.get("port")) : null;
+        boolean changed = !Objects.equals(serverId, state.serverId)
+                || !Objects.equals(address, state.selfAddress);
+        state.serverId = serverId;
+        state.selfAddress = address;
+        return changed;
+    }
+
+    /**
+     * 由各实例当前的复制通道构建拓扑结构
+     */
+    private Topology build() {
+        long version = structureVersion.get();
+        Map<Long, Long> byServerId = new HashMap<>();
+        Set<Long> duplicateServerIds = new HashSet<>();
+        Map<String, Long> byAddress = new HashMap<>();
+        Map<Long, InstanceReplication> states = new LinkedHashMap<>();
+        for (Map.Entry<Long, InstanceReplication> entry : instances.entrySet()) {
+            InstanceReplication state = entry.getValue();
+            synchronized (state) {
+                states.put(entry.getKey(), state.copy());
+            }
+        }
+        for (Map.Entry<Long, InstanceReplication> entry : states.entrySet()) {
+            InstanceReplication state = entry.getValue();
+            if (state.serverId != null && byServerId.put(state.serverId, entry.getKey()) != null) {
+                duplicateServerIds.add(state.serverId);
+            }
+            if (state.host != null && state.port != null) {
+                byAddress.put(address(state.host, state.port), entry.getKey());
+            }
+            if (state.selfAddress != null) {
+                byAddress.putIfAbsent(state.selfAddress, entry.getKey());
+            }
+        }
+        byServerId.keySet().removeAll(duplicateServerIds);
+
+        List<Edge> edges = new ArrayList<>();
+        Map<String, Map<String, Object>> externals = new LinkedHashMap<>();
+        Set<String> sources = new HashSet<>();
+        Set<String> replicas = new HashSet<>();
+        for (Map.Entry<Long, InstanceReplication> entry : states.entrySet()) {
+            String target = instanceNode(entry.getKey());
+            for (Map<String, Object> channel : entry.getValue().channels) {
+                String sourceAddress = address(channel.get("source_host"), channel.get("source_port"));
+                Long sourceId = byServerId.get(toLong(channel.get("source_server_id")));
+                if (sourceId == null) {
+                    sourceId = byAddress.get(sourceAddress);
+                }
+                String source;
+                if (sourceId != null && !sourceId.equals(entry.getKey())) {
+                    source = instanceNode(sourceId);
+                } else {
+                    source = "external:" + sourceAddress;
+                    if (!externals.containsKey(source)) {
+                        Map<String, Object> node = new LinkedHashMap<>();
+                        node.put("id", source);
+                        node.put("host", channel.get("source_host"));
+                        node.put("port", channel.get("source_port"));
+                        node.put("server_id", channel.get("source_server_id"));
+                        node.put("external", true);
+                        externals.put(source, node);
+                    }
+                }
+                sources.add(source);
+                replicas.add(target);
+                edges.add(new Edge(source, target, entry.getKey(), asString(channel.get("channel")), sourceAddress));
+            }
+        }
+
+        List<Map<String, Object>> nodes = new ArrayList<>();
+        for (Map.Entry<Long, InstanceReplication> entry : states.entrySet()) {
+            InstanceReplication state = entry.getValue();
+            String id = instanceNode(entry.getKey());
+            Map<String, Object> node = new LinkedHashMap<>();
+            node.put("id", id);
+            node.put("instance_id", entry.getKey());
+            node.put("name", state.name);
+            node.put("host", state.host);
+            node.put("port", state.port);
+            node.put("server_id", state.serverId);
+            node.put("role", role(sources.contains(id), replicas.contains(id)));
+            node.put("external", false);
+            nodes.add(Collections.unmodifiableMap(node));
+        }
+        for (Map<String, Object> node : externals.values()) {
+            node.put("role", ROLE_SOURCE);
+            nodes.add(Collections.unmodifiableMap(node));
+        }
+        return new Topology(version, Collections.unmodifiableList(nodes), edges, System.currentTimeMillis());
+    }
+
+    private static String role(boolean source, boolean replica) {
+        if (source && replica) {
+            return ROLE_INTERMEDIATE;
+        }
+        return source ? ROLE_SOURCE : (replica ? ROLE_REPLICA : ROLE_STANDALONE);
+    }
+
+    /**
+     * 影响拓扑结构的字段：实例名称、地址以及各通道的名称和复制源
+     */
+    private static String signature(DatabaseInstance instance, List<Map<String, Object>> channels) {
+        StringBuilder signature = new StringBuilder();
+        signature.append(instance.getName()).append('|').append(address(instance.getHost(), instance.getPort()));
+        for (Map<String, Object> channel : channels) {
+            signature.append('|').append(channel.get("channel"))
+                    .append('@').append(address(channel.get("source_host"), channel.get("source_port")))
+                    .append('#').append(channel.get("source_server_id"));
+        }
+        return signature.toString();
+    }
+
+    private static String instanceNode(Long instanceId) {
+        return "instance:" + instanceId;
+    }
+
+    private static String address(Object host, Object port) {
+        return String.valueOf(host).toLowerCase() + ":" + port;
+    }
+
+    private static String asString(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    private static Long toLong(Object value) {
+        return value instanceof Number ? Long.valueOf(((Number) value).longValue()) : null;
+    }
+
+    /**
+     * 单个实例最近的复制状态和实例标识
+     */
+    private static class InstanceReplication {
+        String name;
+        String host;
+        Integer port;
+        Long serverId;
+        /** 实例自身的 hostname:port */
+        String selfAddress;
+        String signature;
+        volatile List<Map<String, Object>> channels = Collections.emptyList();
+        volatile long updatedAt;
+        long identityRefreshAt;
+
+        InstanceReplication copy() {
+            InstanceReplication copy = new InstanceReplication();
+            copy.name = name;
+            copy.host = host;
+            copy.port = port;
+            copy.serverId = serverId;
+            copy.selfAddress = selfAddress;
+            copy.channels = channels;
+            return copy;
+        }
+
+        Map<String, Object> findChannel(String channelName, String sourceAddress) {
+            for (Map<String, Object> channel : channels) {
+                if (Objects.equals(channelName, asString(channel.get("channel")))
+                        && sourceAddress.equals(address(channel.get("source_host"), channel.get("source_port")))) {
+                    return channel;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 源 -> 从 的复制通道
+     */
+    private static class Edge {
+        final String source;
+        final String target;
+        final Long replicaId;
+        final String channel;
+        final String sourceAddress;
+
+        Edge(String source, String target, Long replicaId, String channel, String sourceAddress) {
+            this.source = source;
+            this.target = target;
+            this.replicaId = replicaId;
+            this.channel = channel;
+            this.sourceAddress = sourceAddress;
+        }
+    }
+
+    /**
+     * 缓存的拓扑结构
+     */
+    private static class Topology {
+        final long version;
+        final List<Map<String, Object>> nodes;
+        final List<Edge> edges;
+        final long builtAt;
+
+        Topology(long version, List<Map<String, Object>> nodes, List<Edge> edges, long builtAt) {
+            this.version = version;
+            this.nodes = nodes;
+            this.edges = edges;
+            this.builtAt = builtAt;
+        }
+    }
+}
@@ -0,0 +1,413 @@
+package org.example.service.impl;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.example.entity.DatabaseInstance;
+import org.example.entity.SlowLogWatermark;
+import org.example.entity.SlowQueryLog;
+import org.example.mapper.DatabaseInstanceMapper;
+import org.example.mapper.SlowQueryLogMapper;
+import org.example.service.DatabaseMonitoringService;
+import org.example.service.SlowLogService;
+import org.example.util.SlowLogFileReader;
+import org.example.util.SqlFingerprint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 慢查询采集服务实现类
+ * 表模式：按实例保存已采集的最大 start_time（微秒）作为水位，每轮只读取不早于水位的行，分批写入本地表，
+ * start_time 与水位相同的行按已采集行数跳过，避免批次边界上的重复或遗漏。
+ * 文件模式：对配置了慢日志文件路径的实例，从持久化的偏移开始以内存映射方式读取新增内容，
+ * 文件被轮转（文件标识变化或变小）时从头读取。
+ */
+@Service
+public class SlowLogServiceImpl implements SlowLogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlowLogServiceImpl.class);
+
+    private static final String SOURCE_TABLE = "table";
+    private static final String SOURCE_FILE = "file";
+
+    private static final int MAX_PAGE_SIZE = 200;
+
+    /** 实例ID -> 采集状态 */
+    private final Map<Long, IngestState> states = new ConcurrentHashMap<>();
+
+    /** 正在采集中的实例，上一轮未完成时不重复提交 */
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    /** 实例ID -> 慢日志文件路径 */
+    private final Map<Long, String> filePaths = new HashMap<>();
+
+    @Autowired
+    private DatabaseInstanceMapper databaseInstanceMapper;
+
+    @Autowired
+    private DatabaseMonitoringService databaseMonitoringService;
+
+    @Autowired
+    private SlowQueryLogMapper slowQueryLogMapper;
+
+    /** 流式读取需要游标在遍历期间保持会话，不能使用每次调用后即关闭会话的 Mapper 代理 */
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Value("${monitoring.slow-log.enabled:true}")
+    private boolean enabled;
+
+    @Value("${monitoring.slow-log.batch-size:1000}")
+    private int batchSize;
+
+    /** 每轮每个实例最多读取的批次数，积压时分多轮追上 */
+    @Value("${monitoring.slow-log.max-batches:10}")
+    private int maxBatches;
+
+    /** 表模式首次采集时回溯的时间 */
+    @Value("${monitoring.slow-log.initial-lookback:3600000}")
+    private long initialLookback;
+
+    /** 文件模式配置，格式：实例ID=文件路径，多个用逗号分隔 */
+    @Value("${monitoring.slow-log.files:}")
+    private String files;
+
+    /** 文件模式每批映射读取的最大字节数 */
+    @Value("${monitoring.slow-log.max-chunk:8388608}")
+    private int maxChunk;
+
+    @Value("${monitoring.slow-log.max-sql-length:8192}")
+    private int maxSqlLength;
+
+    /** 读取失败（无权限、表或文件不存在）时的重试间隔 */
+    @Value("${monitoring.slow-log.retry-after:600000}")
+    private long retryAfter;
+
+    @Value("${monitoring.slow-log.threads:2}")
+    private int ingestThreads;
+
+    /** 采集在独立线程池中执行，不占用共享的调度线程 */
+    private ExecutorService ingestExecutor;
+
+    @PostConstruct
+    public void init() {
+        for (String item : files.split(",")) {
+            int separator = item.indexOf('=');
+            if (separator <= 0) {
+                continue;
+            }
+            try {
+                filePaths.put(Long.valueOf(item.substring(0, separator).trim()), item.substring(separator + 1).trim());
+            } catch (NumberFormatException e) {
+                logger.warn("忽略无效的慢日志文件配置: {}", item);
+            }
+        }
+        final AtomicInteger counter = new AtomicInteger();
+        ingestExecutor = new ThreadPoolExecutor(ingestThreads, ingestThreads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(1000), r -> {
+                    Thread t = new Thread(r, "monitoring-slow-log-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        ingestExecutor.shutdownNow();
+    }
+
+    /**
+     * 定时把所有启用实例的新增慢查询采集提交到采集线程池
+     */
+    @Scheduled(initialDelayString = "${monitoring.slow-log.initial-delay:20000}",
+            fixedDelayString = "${monitoring.slow-log.interval:30000}")
+    public void ingestActiveInstances() {
+        if (!enabled) {
+            return;
+        }
+        List<DatabaseInstance> instances;
+        try {
+            instances = databaseInstanceMapper.selectActiveInstances();
+        } catch (Exception e) {
+            logger.error("查询启用实例失败，跳过本轮慢查询采集", e);
+            return;
+        }
+        Set<Long> activeIds = new HashSet<>();
+        for (DatabaseInstance instance : instances) {
+            activeIds.add(instance.getId());
+            if (!inFlight.add(instance.getId())) {
+                continue;
+            }
+            try {
+                ingestExecutor.execute(() -> {
+                    try {
+                        ingest(instance);
+                    } catch (Exception e) {
+                        logger.error("实例 {} 慢查询采集失败", instance.getId(), e);
+                    } finally {
+                        inFlight.remove(instance.getId());
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                inFlight.remove(instance.getId());
+                logger.warn("慢查询采集队列已满，实例 {} 本轮跳过", instance.getId());
+            }
+        }
+        states.keySet().retainAll(activeIds);
+    }
+
+    @Override
+    public int ingest(DatabaseInstance instance) {
+        IngestState state = states.computeIfAbsent(instance.getId(), k -> new IngestState());
+        synchronized (state) {
+            long now = System.currentTimeMillis();
+            if (now < state.unavailableUntil) {
+                return 0;
+            }
+            if (state.watermark == null) {
+                SlowLogWatermark saved = slowQueryLogMapper.selectWatermark(instance.getId());
+                state.watermark = saved != null ? saved : new SlowLogWatermark();
+                state.watermark.setInstanceId(instance.getId());
+            }
+            String filePath = filePaths.get(instance.getId());
+            try {
+                return filePath != null ? ingestFile(instance, state, filePath) : ingestTable(instance, state);
+            } catch (Exception e) {
+                state.unavailableUntil = now + retryAfter;
+                logger.warn("实例 {} 读取慢查询失败，{} 秒后重试: {}", instance.getId(), retryAfter / 1000, e.getMessage());
+                return 0;
+            }
+        }
+    }
+
+    @Override
+    public Map<String, Object> getSlowQueries(Long instanceId, Long beforeTime, Long beforeId, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Date before = beforeTime != null && beforeId != null ? new Date(beforeTime) : null;
+        // 多取一条用于判断是否还有下一页
+        List<SlowQueryLog> rows = slowQueryLogMapper.selectPage(instanceId, before,
+                before != null ? beforeId : null, limit + 1);
+
+        boolean hasMore = rows.size() > limit;
+        List<SlowQueryLog> items = hasMore ? new ArrayList<>(rows.subList(0, limit)) : rows;
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("items", items);
+        result.put("hasMore", hasMore);
+        if (hasMore) {
+            SlowQueryLog last = items.get(items.size() - 1);
+            Map<String, Object> cursor = new HashMap<>();
+            cursor.put("beforeTime", last.getStartTime().getTime());
+            cursor.put("beforeId", last.getId());
+            result.put("nextCursor", cursor);
+        }
+        return result;
+    }
+
+    @Override
+    public long streamSlowQueries(Long instanceId, Date from, Date to, Consumer<SlowQueryLog> consumer) {
+        long count = 0;
+        try (SqlSession session = sqlSessionFactory.openSession();
+             Cursor<SlowQueryLog> cursor = session.getMapper(SlowQueryLogMapper.class).streamRange(instanceId, from, to)) {
+            for (SlowQueryLog row : cursor) {
+                consumer.accept(row);
+                count++;
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("关闭慢查询游标失败", e);
+        }
+        return count;
+    }
+
+    @Override
+    public void evict(Long instanceId) {
+        states.remove(instanceId);
+    }
+
+    /**
+     * 表模式：从水位开始分批读取 mysql.slow_log；调用方需持有 state 的锁
+     */
+    private int ingestTable(DatabaseInstance instance, IngestState state) throws Exception {
+        SlowLogWatermark watermark = state.watermark;
+        if (!SOURCE_TABLE.equals(watermark.getSource()) || watermark.getWatermarkUs() == null) {
+            watermark.setSource(SOURCE_TABLE);
+            watermark.setWatermarkUs((System.currentTimeMillis() - initialLookback) * 1000);
+            watermark.setWatermarkSkip(0);
+        }
+        int total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            long watermarkUs = watermark.getWatermarkUs();
+            int skip = watermark.getWatermarkSkip() != null ? watermark.getWatermarkSkip() : 0;
+            List<Map<String, Object>> rows = databaseMonitoringService.getSlowLogSince(instance,
+                    fromMicros(watermarkUs), batchSize + skip);
+
+            List<SlowQueryLog> records = new ArrayList<>();
+            int skipped = 0;
+            long lastUs = watermarkUs;
+            int lastCount = skip;
+            for (Map<String, Object> row : rows) {
+                long startUs = toMicros(row.get("start_time"));
+                if (startUs == watermarkUs && skipped < skip) {
+                    skipped++;
+                    continue;
+                }
+                records.add(toRecord(instance.getId(), row, startUs));
+                if (startUs == lastUs) {
+                    lastCount++;
+                } else {
+                    lastUs = startUs;
+                    lastCount = 1;
+                }
+            }
+            if (records.isEmpty()) {
+                break;
+            }
+            slowQueryLogMapper.insertBatch(records);
+            watermark.setWatermarkUs(lastUs);
+            watermark.setWatermarkSkip(lastCount);
+            slowQueryLogMapper.upsertWatermark(watermark);
+            total += records.size();
+            if (rows.size() < batchSize + skip) {
+                break;
+            }
+        }
+        if (total > 0) {
+            logger.debug("实例 {} 采集慢查询 {} 条", instance.getId(), total);
+        }
+        return total;
+    }
+
+    /**
+     * 文件模式：从持久化的偏移开始读取慢日志文件；调用方需持有 state 的锁
+     */
+    private int ingestFile(DatabaseInstance instance, IngestState state, String filePath) throws Exception {
+        SlowLogWatermark watermark = state.watermark;
+        Path path = Paths.get(filePath);
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        String fileKey = attributes.fileKey() != null ? attributes.fileKey().toString() : null;
+        long offset = watermark.getFileOffset() != null ? watermark.getFileOffset() : 0L;
+        if (!SOURCE_FILE.equals(watermark.getSource()) || !filePath.equals(watermark.getFilePath())
+                || (fileKey != null && !fileKey.equals(watermark.getFileKey())) || attributes.size() < offset) {
+            // 首次读取、切换文件或日志已轮转：从头读取
+            offset = 0;
+            state.lastFileSize = -1;
+        }
+        watermark.setSource(SOURCE_FILE);
+        watermark.setFilePath(filePath);
+        watermark.setFileKey(fileKey);
+
+        // 文件大小与上一轮相同说明写入已停止，末尾条目可以按完整条目处理
+        boolean stable = attributes.size() == state.lastFileSize;
+        state.lastFileSize = attributes.size();
+        int total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            SlowLogFileReader.Chunk chunk = SlowLogFileReader.read(path, offset, maxChunk, stable);
+            List<SlowQueryLog> records = chunk.getEntries();
+            for (SlowQueryLog record : records) {
+                record.setInstanceId(instance.getId());
+                record.setSqlText(truncate(record.getSqlText()));
+                record.setDigest(digestOf(record.getSqlText()));
+            }
+            if (!records.isEmpty()) {
+                slowQueryLogMapper.insertBatch(records);
+                total += records.size();
+            }
+            boolean progressed = chunk.getNextOffset() > offset;
+            offset = chunk.getNextOffset();
+            watermark.setFileOffset(offset);
+            if (progressed) {
+                slowQueryLogMapper.upsertWatermark(watermark);
+            }
+            if (!progressed || offset >= chunk.getFileSize()) {
+                break;
+            }
+        }
+        if (total > 0) {
+            logger.debug("实例 {} 从慢日志文件采集 {} 条", instance.getId(), total);
+        }
+        return total;
+    }
+
+    private SlowQueryLog toRecord(Long instanceId, Map<String, Object> row, long startUs) {
+        SlowQueryLog record = new SlowQueryLog();
+        record.setInstanceId(instanceId);
+        record.setStartTime(fromMicros(startUs));
+        record.setUserHost(row.get("user_host") != null ? row.get("user_host").toString() : null);
+        record.setDb(row.get("db") != null ? row.get("db").toString() : null);
+        record.setQueryTime(row.get("query_time") instanceof Number ? ((Number) row.get("query_time")).doubleValue() : null);
+        record.setLockTime(row.get("lock_time") instanceof Number ? ((Number) row.get("lock_time")).doubleValue() : null);
+        record.setRowsSent(row.get("rows_sent") instanceof Number ? ((Number) row.get("rows_sent")).longValue() : null);
+        record.setRowsExamined(row.get("rows_examined") instanceof Number
+                ? ((Number) row.get("rows_examined")).longValue() : null);
+        record.setSqlText(truncate(row.get("sql_text") != null ? row.get("sql_text").toString() : null));
+        record.setDigest(digestOf(record.getSqlText()));
+        return record;
+    }
+
+    private String truncate(String sql) {
+        return sql != null && sql.length() > maxSqlLength ? sql.substring(0, maxSqlLength) : sql;
+    }
+
+    private static String digestOf(String sql) {
+        String fingerprint = SqlFingerprint.fingerprint(sql);
+        return fingerprint != null ? SqlFingerprint.digest(fingerprint) : null;
+    }
+
+    private static long toMicros(Object value) {
+        if (value instanceof Timestamp) {
+            Timestamp timestamp = (Timestamp) value;
+            return timestamp.getTime() / 1000 * 1000000 + timestamp.getNanos() / 1000;
+        }
+        if (value instanceof Date) {
+            return ((Date) value).getTime() * 1000;
+        }
+        if (value instanceof java.time.LocalDateTime) {
+            return toMicros(Timestamp.valueOf((java.time.LocalDateTime) value));
+        }
+        return 0L;
+    }
+
+    private static Timestamp fromMicros(long micros) {
+        Timestamp timestamp = new Timestamp(Math.floorDiv(micros, 1000000L) * 1000);
+        timestamp.setNanos((int) Math.floorMod(micros, 1000000L) * 1000);
+        return timestamp;
+    }
+
+    /**
+     * 单个实例的采集状态
+     */
+    private static class IngestState {
+        SlowLogWatermark watermark;
+        /** 文件模式：上一轮看到的文件大小 */
+        long lastFileSize = -1;
+        long unavailableUntil;
+    }
+}
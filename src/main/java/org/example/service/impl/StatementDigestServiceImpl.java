@@ -0,0 +1,319 @@
+package org.example.service.impl;
+
+import org.example.entity.DatabaseInstance;
+import org.example.entity.StatementDigest;
+import org.example.mapper.DatabaseInstanceMapper;
+import org.example.mapper.StatementDigestMapper;
+import org.example.service.DatabaseMonitoringService;
+import org.example.service.StatementDigestService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 语句摘要采集服务实现类
+ * 每个实例在内存中保留上一次的摘要累计值（按 库名+摘要 索引），每轮只读取 last_seen 不早于上一轮的行，
+ * 与上一次的累计值相减得到区间增量，只有执行次数变化的摘要写入增量表，语句文本每个摘要只保存一次。
+ * 首次采集只建立基准；摘要被清空或淘汰后重新出现（first_seen 变化或计数回退）时以当前累计值作为增量。
+ */
+@Service
+public class StatementDigestServiceImpl implements StatementDigestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementDigestServiceImpl.class);
+
+    private static final int MAX_DIGEST_TEXT_LENGTH = 4096;
+
+    /** 清理长期未执行摘要的间隔 */
+    private static final long PRUNE_INTERVAL = 10 * 60 * 1000L;
+
+    /** 实例ID -> 上一次的摘要快照 */
+    private final Map<Long, DigestSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    /** 正在采集中的实例，上一轮未完成时不重复提交 */
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    private DatabaseInstanceMapper databaseInstanceMapper;
+
+    @Autowired
+    private DatabaseMonitoringService databaseMonitoringService;
+
+    @Autowired
+    private StatementDigestMapper statementDigestMapper;
+
+    @Value("${monitoring.statement-digest.enabled:true}")
+    private boolean enabled;
+
+    @Value("${monitoring.statement-digest.batch-size:500}")
+    private int batchSize;
+
+    /** 超过该时间未执行的摘要从快照中移除，之后再出现时重新建立基准 */
+    @Value("${monitoring.statement-digest.retain:86400000}")
+    private long retain;
+
+    /** performance_schema 不可用（未开启或无权限）时的重试间隔 */
+    @Value("${monitoring.statement-digest.retry-after:600000}")
+    private long retryAfter;
+
+    @Value("${monitoring.statement-digest.threads:2}")
+    private int collectThreads;
+
+    /** 采集在独立线程池中执行，不占用共享的调度线程 */
+    private ExecutorService collectExecutor;
+
+    @PostConstruct
+    public void init() {
+        final AtomicInteger counter = new AtomicInteger();
+        collectExecutor = new ThreadPoolExecutor(collectThreads, collectThreads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(1000), r -> {
+                    Thread t = new Thread(r, "monitoring-statement-digest-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        collectExecutor.shutdownNow();
+    }
+
+    /**
+     * 定时把所有启用实例的语句摘要采集提交到采集线程池
+     */
+    @Scheduled(initialDelayString = "${monitoring.statement-digest.initial-delay:15000}",
+            fixedDelayString = "${monitoring.statement-digest.interval:60000}")
+    public void collectActiveInstances() {
+        if (!enabled) {
+            return;
+        }
+        List<DatabaseInstance> instances;
+        try {
+            instances = databaseInstanceMapper.selectActiveInstances();
+        } catch (Exception e) {
+            logger.error("查询启用实例失败，跳过本轮语句摘要采集", e);
+            return;
+        }
+        Set<Long> activeIds = new HashSet<>();
+        for (DatabaseInstance instance : instances) {
+            activeIds.add(instance.getId());
+            if (!inFlight.add(instance.getId())) {
+                continue;
+            }
+            try {
+                collectExecutor.execute(() -> {
+                    try {
+                        collect(instance);
+                    } catch (Exception e) {
+                        logger.error("实例 {} 语句摘要采集失败", instance.getId(), e);
+                    } finally {
+                        inFlight.remove(instance.getId());
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                inFlight.remove(instance.getId());
+                logger.warn("语句摘要采集队列已满，实例 {} 本轮跳过", instance.getId());
+            }
+        }
+        snapshots.keySet().retainAll(activeIds);
+    }
+
+    @Override
+    public int collect(DatabaseInstance instance) {
+        DigestSnapshot snapshot = snapshots.computeIfAbsent(instance.getId(), k -> new DigestSnapshot());
+        List<StatementDigest> changed = new ArrayList<>();
+        List<StatementDigest> texts = new ArrayList<>();
+        synchronized (snapshot) {
+            long now = System.currentTimeMillis();
+            if (now < snapshot.unavailableUntil) {
+                return 0;
+            }
+            List<Map<String, Object>> rows;
+            try {
+                rows = databaseMonitoringService.getStatementDigests(instance, snapshot.since);
+            } catch (Exception e) {
+                snapshot.unavailableUntil = now + retryAfter;
+                logger.warn("实例 {} 读取 performance_schema 语句摘要失败，{} 秒后重试: {}", instance.getId(),
+                        retryAfter / 1000, e.getMessage());
+                return 0;
+            }
+
+            boolean baseline = snapshot.since == null;
+            Date sampleTime = new Date(now);
+            Date maxLastSeen = snapshot.since;
+            for (Map<String, Object> row : rows) {
+                Counters current = new Counters(row);
+                if (maxLastSeen == null || current.lastSeen > maxLastSeen.getTime()) {
+                    maxLastSeen = new Date(current.lastSeen);
+                }
+                String schemaName = row.get("schema_name") != null ? row.get("schema_name").toString() : "";
+                String digest = row.get("digest") != null ? row.get("digest").toString() : "";
+                String key = schemaName + '\0' + digest;
+                Counters previous = snapshot.digests.put(key, current);
+                if (previous != null) {
+                    current.textSaved = previous.textSaved;
+                }
+                if (baseline) {
+                    continue;
+                }
+
+                StatementDigest delta;
+                if (previous == null || current.firstSeen != previous.firstSeen || current.count < previous.count) {
+                    // 上一轮之后新出现或被重建的摘要，累计值即为增量；基准之前就存在的摘要无法计算增量，只记录基准
+                    if (previous == null && current.firstSeen < snapshot.since.getTime()) {
+                        continue;
+                    }
+                    delta = current.minus(null);
+                } else if (current.count == previous.count) {
+                    continue;
+                } else {
+                    delta = current.minus(previous);
+                }
+                delta.setInstanceId(instance.getId());
+                delta.setSchemaName(schemaName);
+                delta.setDigest(digest);
+                delta.setSampleTime(sampleTime);
+                changed.add(delta);
+                if (!current.textSaved) {
+                    current.textSaved = true;
+                    StatementDigest text = new StatementDigest();
+                    text.setInstanceId(instance.getId());
+                    text.setSchemaName(schemaName);
+                    text.setDigest(digest);
+                    text.setDigestText(truncate(row.get("digest_text")));
+                    texts.add(text);
+                }
+            }
+            snapshot.since = maxLastSeen;
+            if (maxLastSeen != null && now - snapshot.prunedAt >= PRUNE_INTERVAL) {
+                snapshot.prune(maxLastSeen.getTime() - retain);
+                snapshot.prunedAt = now;
+            }
+        }
+
+        try {
+            for (int i = 0; i < texts.size(); i += batchSize) {
+                statementDigestMapper.insertDigestTexts(texts.subList(i, Math.min(i + batchSize, texts.size())));
+            }
+            for (int i = 0; i < changed.size(); i += batchSize) {
+                statementDigestMapper.insertBatch(changed.subList(i, Math.min(i + batchSize, changed.size())));
+            }
+        } catch (Exception e) {
+            logger.error("保存实例 {} 的语句摘要增量失败，丢弃 {} 条记录", instance.getId(), changed.size(), e);
+            return 0;
+        }
+        logger.debug("实例 {} 本轮语句摘要有变化 {} 条", instance.getId(), changed.size());
+        return changed.size();
+    }
+
+    @Override
+    public List<Map<String, Object>> getTopStatements(Long instanceId, int minutes, String sortBy, int limit) {
+        Date from = new Date(System.currentTimeMillis() - minutes * 60000L);
+        return statementDigestMapper.selectTop(instanceId, from, sortBy, limit);
+    }
+
+    @Override
+    public void evict(Long instanceId) {
+        snapshots.remove(instanceId);
+    }
+
+    private static String truncate(Object text) {
+        if (text == null) {
+            return null;
+        }
+        String value = text.toString();
+        return value.length() > MAX_DIGEST_TEXT_LENGTH ? value.substring(0, MAX_DIGEST_TEXT_LENGTH) : value;
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+
+    private static long toMillis(Object value) {
+        if (value instanceof Date) {
+            return ((Date) value).getTime();
+        }
+        if (value instanceof LocalDateTime) {
+            return Timestamp.valueOf((LocalDateTime) value).getTime();
+        }
+        return 0L;
+    }
+
+    /**
+     * 单个实例上一次的摘要快照
+     */
+    private static class DigestSnapshot {
+        /** 库名\0摘要 -> 累计值 */
+        final Map<String, Counters> digests = new HashMap<>();
+        /** 上一次读取到的最大 last_seen（被监控实例的时钟），为空表示尚未建立基准 */
+        Date since;
+        long unavailableUntil;
+        long prunedAt;
+
+        void prune(long before) {
+            Iterator<Counters> it = digests.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().lastSeen < before) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * 单个摘要的累计值
+     */
+    private static class Counters {
+        final long count;
+        final long latency;
+        final long rowsExamined;
+        final long rowsSent;
+        final long errors;
+        final long firstSeen;
+        final long lastSeen;
+        /** 语句文本已写入字典表 */
+        boolean textSaved;
+
+        Counters(Map<String, Object> row) {
+            this.count = toLong(row.get("count_star"));
+            this.latency = toLong(row.get("sum_latency_us"));
+            this.rowsExamined = toLong(row.get("sum_rows_examined"));
+            this.rowsSent = toLong(row.get("sum_rows_sent"));
+            this.errors = toLong(row.get("sum_errors"));
+            this.firstSeen = toMillis(row.get("first_seen"));
+            this.lastSeen = toMillis(row.get("last_seen"));
+        }
+
+        StatementDigest minus(Counters previous) {
+            StatementDigest delta = new StatementDigest();
+            delta.setExecCount(count - (previous != null ? previous.count : 0));
+            delta.setTotalLatency(latency - (previous != null ? previous.latency : 0));
+            delta.setRowsExamined(rowsExamined - (previous != null ? previous.rowsExamined : 0));
+            delta.setRowsSent(rowsSent - (previous != null ? previous.rowsSent : 0));
+            delta.setErrors(errors - (previous != null ? previous.errors : 0));
+            return delta;
+        }
+    }
+}
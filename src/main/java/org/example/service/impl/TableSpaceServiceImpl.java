@@ -0,0 +1,395 @@
+package org.example.service.impl;
+
+import org.example.dto.PageQueryDTO;
+import org.example.entity.DatabaseInstance;
+import org.example.mapper.DatabaseInstanceMapper;
+import org.example.service.CapacityService;
+import org.example.service.DatabaseMonitoringService;
+import org.example.service.TableSpaceService;
+import org.example.util.KeysetPager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 表空间清单服务实现类
+ * 每个实例按库轮转刷新：每次只读取一个库的表（按库名过滤，不扫描整个 information_schema.tables），
+ * 一轮刷新完所有库的时间约为 cycle，库越多单次间隔越短；每个调度周期最多刷新 max-per-tick 个库，
+ * 多个实例的刷新因此错开。InnoDB 独立表空间的文件大小读取 innodb_tablespaces（5.7 为 innodb_sys_tablespaces），
+ * 都不可用时只使用 information_schema.tables 的统计值。刷新结果同时交给容量趋势服务做每日采样。
+ */
+@Service
+public class TableSpaceServiceImpl implements TableSpaceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TableSpaceServiceImpl.class);
+
+    /** 表空间文件来源：MySQL 8.0 视图、5.7 视图、不可用 */
+    private static final int FILES_CURRENT = 0;
+    private static final int FILES_LEGACY = 1;
+    private static final int FILES_NONE = 2;
+
+    /** 表空间视图不可用的错误码：视图不存在（1109、1146）、缺少列（1054）、无权限（1044、1142、1227） */
+    private static final Set<Integer> FILES_UNAVAILABLE_CODES =
+            new HashSet<>(Arrays.asList(1109, 1146, 1054, 1044, 1142, 1227));
+
+    /** 实例ID -> 缓存的清单 */
+    private final Map<Long, Inventory> inventories = new ConcurrentHashMap<>();
+
+    /** 正在刷新中的实例，完成前不再选为到期实例 */
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    private DatabaseInstanceMapper databaseInstanceMapper;
+
+    @Autowired
+    private DatabaseMonitoringService databaseMonitoringService;
+
+    @Autowired
+    private CapacityService capacityService;
+
+    @Value("${monitoring.table-space.enabled:true}")
+    private boolean enabled;
+
+    /** 单个实例刷新完所有库的目标时间 */
+    @Value("${monitoring.table-space.cycle:1800000}")
+    private long cycle;
+
+    /** 每个调度周期最多刷新的库数（所有实例合计） */
+    @Value("${monitoring.table-space.max-per-tick:4}")
+    private int maxPerTick;
+
+    @Value("${monitoring.table-space.tick:10000}")
+    private long tick;
+
+    /** 实例查询失败时的重试间隔 */
+    @Value("${monitoring.table-space.retry-after:600000}")
+    private long retryAfter;
+
+    @Value("${monitoring.table-space.threads:2}")
+    private int refreshThreads;
+
+    /** 刷新在独立线程池中执行，不占用共享的调度线程 */
+    private ExecutorService refreshExecutor;
+
+    @PostConstruct
+    public void init() {
+        final AtomicInteger counter = new AtomicInteger();
+        refreshExecutor = new ThreadPoolExecutor(refreshThreads, refreshThreads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(1000), r -> {
+                    Thread t = new Thread(r, "monitoring-table-space-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * 定时把到期实例的下一个库提交到刷新线程池，到期最早的实例优先
+     */
+    @Scheduled(initialDelayString = "${monitoring.table-space.initial-delay:30000}",
+            fixedDelayString = "${monitoring.table-space.tick:10000}")
+    public void refreshActiveInstances() {
+        if (!enabled) {
+            return;
+        }
+        List<DatabaseInstance> instances;
+        try {
+            instances = databaseInstanceMapper.selectActiveInstances();
+        } catch (Exception e) {
+            logger.error("查询启用实例失败，跳过本轮表空间刷新", e);
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Set<Long> activeIds = new HashSet<>();
+        List<DatabaseInstance> due = new ArrayList<>();
+        for (DatabaseInstance instance : instances) {
+            activeIds.add(instance.getId());
+            Inventory inventory = inventories.computeIfAbsent(instance.getId(), k -> new Inventory());
+            if (inventory.nextRefreshAt <= now && !inFlight.contains(instance.getId())) {
+                due.add(instance);
+            }
+        }
+        inventories.keySet().retainAll(activeIds);
+        due.sort((a, b) -> Long.compare(inventories.get(a.getId()).nextRefreshAt,
+                inventories.get(b.getId()).nextRefreshAt));
+        for (DatabaseInstance instance : due.subList(0, Math.min(maxPerTick, due.size()))) {
+            Inventory inventory = inventories.get(instance.getId());
+            if (!inFlight.add(instance.getId())) {
+                continue;
+            }
+            try {
+                refreshExecutor.execute(() -> {
+                    try {
+                        refreshNext(instance, inventory);
+                    } catch (Exception e) {
+                        inventory.nextRefreshAt = System.currentTimeMillis() + retryAfter;
+                        logger.warn("实例 {} 刷新表空间失败，{} 秒后重试: {}", instance.getId(), retryAfter / 1000,
+                                e.getMessage());
+                    } finally {
+                        inFlight.remove(instance.getId());
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                inFlight.remove(instance.getId());
+                logger.warn("表空间刷新队列已满，实例 {} 本轮跳过", instance.getId());
+            }
+        }
+    }
+
+    @Override
+    public List<Map<String, Object>> getSchemaSizes(Long instanceId) {
+        Inventory inventory = inventories.get(instanceId);
+        if (inventory == null) {
+            return Collections.emptyList();
+        }
+        List<SchemaSpace> spaces = new ArrayList<>(inventory.schemas.values());
+        spaces.sort((a, b) -> Long.compare(b.size, a.size));
+        List<Map<String, Object>> result = new ArrayList<>(spaces.size());
+        for (SchemaSpace space : spaces) {
+            result.add(space.toRow());
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Object> getTablePage(Long instanceId, String schema, String keyword, String engine, long minSize,
+                                            PageQueryDTO query) {
+        Inventory inventory = inventories.get(instanceId);
+        List<SchemaSpace> spaces = new ArrayList<>();
+        if (inventory != null) {
+            if (schema == null) {
+                spaces.addAll(inventory.schemas.values());
+            } else if (inventory.schemas.get(schema) != null) {
+                spaces.add(inventory.schemas.get(schema));
+            }
+        }
+        // 各库的表列表创建后不再修改，直接遍历，不复制
+        Iterable<Map<String, Object>> tables = () -> spaces.stream().flatMap(space -> space.tables.stream()).iterator();
+        String sort = query.getSort();
+        return KeysetPager.page(tables,
+                t -> (keyword == null || String.valueOf(t.get("table_name")).contains(keyword))
+                        && (engine == null || engine.equals(t.get("engine")))
+                        && (Long) t.get("size") >= minSize,
+                t -> "table_name".equals(sort) ? String.valueOf(t.get("table_name"))
+                        : (t.get(sort) != null ? t.get(sort) : 0L),
+                t -> t.get("schema_name") + "." + t.get("table_name"), query, t -> t);
+    }
+
+    @Override
+    public long forEachTable(Long instanceId, String schema, Consumer<Map<String, Object>> consumer) {
+        Inventory inventory = inventories.get(instanceId);
+        if (inventory == null) {
+            return 0;
+        }
+        long count = 0;
+        for (SchemaSpace space : inventory.schemas.values()) {
+            if (schema != null && !schema.equals(space.name)) {
+                continue;
+            }
+            for (Map<String, Object> table : space.tables) {
+                consumer.accept(table);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void evict(Long instanceId) {
+        inventories.remove(instanceId);
+    }
+
+    /**
+     * 刷新实例的下一个库；一轮结束后重新读取库列表并移除已删除的库
+     */
+    private void refreshNext(DatabaseInstance instance, Inventory inventory) throws Exception {
+        if (inventory.cursor >= inventory.schemaNames.size()) {
+            List<String> names = databaseMonitoringService.getSchemaNames(instance);
+            inventory.schemaNames = names;
+            inventory.cursor = 0;
+            inventory.schemas.keySet().retainAll(new HashSet<>(names));
+            if (names.isEmpty()) {
+                inventory.nextRefreshAt = System.currentTimeMillis() + cycle;
+                return;
+            }
+        }
+        // 读取成功后才前进，失败的库在 retry-after 后重新读取
+        String schema = inventory.schemaNames.get(inventory.cursor);
+        List<Map<String, Object>> tables = databaseMonitoringService.getSchemaTableSpace(instance, schema);
+        Map<String, long[]> files = readFiles(instance, inventory, schema);
+        SchemaSpace space = new SchemaSpace(schema, tables, files, System.currentTimeMillis());
+        inventory.schemas.put(schema, space);
+        inventory.cursor++;
+        capacityService.record(instance.getId(), schema, space.tables, space.refreshedAt);
+        inventory.nextRefreshAt = System.currentTimeMillis() + Math.max(tick, cycle / inventory.schemaNames.size());
+    }
+
+    /**
+     * 读取库中各表的 [文件大小, 实际分配大小]（分区合并到表），表空间视图都不可用时返回 null；
+     * 只有视图不存在或无权限时才换用下一数据源，连接超时等其他错误直接抛出，按正常失败重试
+     */
+    private Map<String, long[]> readFiles(DatabaseInstance instance, Inventory inventory, String schema)
+            throws SQLException {
+        while (inventory.fileSource != FILES_NONE) {
+            List<Map<String, Object>> rows;
+            try {
+                rows = databaseMonitoringService.getTablespaceFiles(instance, schema,
+                        inventory.fileSource == FILES_LEGACY);
+            } catch (Exception e) {
+                if (!isFilesUnavailable(e)) {
+                    throw e;
+                }
+                inventory.fileSource++;
+                logger.debug("实例 {} 无法读取表空间文件大小，改用下一数据源: {}", instance.getId(), e.getMessage());
+                continue;
+            }
+            String prefix = schema + "/";
+            Map<String, long[]> files = new HashMap<>();
+            for (Map<String, Object> row : rows) {
+                String name = row.get("name") != null ? row.get("name").toString() : "";
+                if (!name.startsWith(prefix)) {
+                    continue; // LIKE 中的 _ 会匹配任意字符
+                }
+                int partition = name.indexOf('#', prefix.length());
+                String table = name.substring(prefix.length(), partition >= 0 ? partition : name.length());
+                long[] size = files.computeIfAbsent(table, k -> new long[2]);
+                size[0] += toLong(row.get("file_size"));
+                size[1] += toLong(row.get("allocated_size"));
+            }
+            return files;
+        }
+        return null;
+    }
+
+    /**
+     * 异常链中是否有表示表空间视图不可用的 SQLException
+     */
+    private static boolean isFilesUnavailable(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException) {
+                SQLException sqlException = (SQLException) t;
+                if (FILES_UNAVAILABLE_CODES.contains(sqlException.getErrorCode())
+                        || "42S02".equals(sqlException.getSQLState())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+
+    /**
+     * 单个实例的缓存与刷新进度
+     */
+    private static class Inventory {
+        /** 库名 -> 最近一次刷新结果，读写线程不同 */
+        final Map<String, SchemaSpace> schemas = new ConcurrentHashMap<>();
+        /** 本轮的库列表和下一个要刷新的位置 */
+        List<String> schemaNames = Collections.emptyList();
+        int cursor;
+        volatile long nextRefreshAt;
+        int fileSource = FILES_CURRENT;
+    }
+
+    /**
+     * 单个库的表空间（创建后不再修改）
+     */
+    private static class SchemaSpace {
+        final String name;
+        final long refreshedAt;
+        /** 按大小倒序的表 */
+        final List<Map<String, Object>> tables;
+        long size;
+        long dataSize;
+        long indexSize;
+        long dataFree;
+        /** 有文件大小的表的合计，表空间视图不可用时为 -1 */
+        long fileSize = -1;
+        /** 有文件大小的表的数据和索引合计，用于计算使用率 */
+        long sizeInFiles;
+
+        SchemaSpace(String name, List<Map<String, Object>> rows, Map<String, long[]> files, long refreshedAt) {
+            this.name = name;
+            this.refreshedAt = refreshedAt;
+            List<Map<String, Object>> tables = new ArrayList<>(rows.size());
+            if (files != null) {
+                fileSize = 0;
+            }
+            for (Map<String, Object> row : rows) {
+                long data = toLong(row.get("data_length"));
+                long index = toLong(row.get("index_length"));
+                Map<String, Object> table = new LinkedHashMap<>();
+                table.put("schema_name", name);
+                table.put("table_name", row.get("table_name"));
+                table.put("engine", row.get("engine"));
+                table.put("table_rows", toLong(row.get("table_rows")));
+                table.put("data_size", data);
+                table.put("index_size", index);
+                table.put("data_free", toLong(row.get("data_free")));
+                table.put("size", data + index);
+                long[] file = files != null ? files.get(String.valueOf(row.get("table_name"))) : null;
+                if (file != null) {
+                    table.put("file_size", file[0]);
+                    table.put("allocated_size", file[1]);
+                    fileSize += file[0];
+                    sizeInFiles += data + index;
+                }
+                tables.add(table);
+                size += data + index;
+                dataSize += data;
+                indexSize += index;
+                dataFree += toLong(row.get("data_free"));
+            }
+            tables.sort((a, b) -> Long.compare((Long) b.get("size"), (Long) a.get("size")));
+            this.tables = Collections.unmodifiableList(tables);
+        }
+
+        Map<String, Object> toRow() {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("name", name);
+            row.put("tables", tables.size());
+            row.put("size", size);
+            row.put("data_size", dataSize);
+            row.put("index_size", indexSize);
+            row.put("data_free", dataFree);
+            row.put("file_size", fileSize >= 0 ? fileSize : null);
+            // 独立表空间文件中数据和索引所占比例，共享表空间中的表不计入
+            row.put("percent_used", fileSize > 0
+                    ? String.format("%.1f", Math.min(100.0, sizeInFiles * 100.0 / fileSize)) : "N/A");
+            row.put("refreshed_at", refreshedAt);
+            return row;
+        }
+    }
+}
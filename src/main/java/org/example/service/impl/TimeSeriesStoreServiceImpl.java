@@ -0,0 +1,118 @@
+package org.example.service.impl;
+
+import org.example.dto.TimeSeriesDTO;
+import org.example.service.TimeSeriesStoreService;
+import org.example.util.TimeSeriesStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 时间序列存储服务实现类
+ * 原始采样和各级降采样分别存放在数据目录下的独立存储中，块跨度和保留期按存储配置：
+ * 原始采样每小时一个块，降采样按级别每天或每周一个块，保留期也比原始采样更长。
+ */
+@Service
+public class TimeSeriesStoreServiceImpl implements TimeSeriesStoreService {
+
+    @Value("${monitoring.tsdb.data-dir:./data/tsdb}")
+    private String dataDir;
+
+    @Value("${monitoring.tsdb.segment-size:67108864}")
+    private int segmentSize;
+
+    @Value("${monitoring.tsdb.block-duration:3600}")
+    private long blockDuration;
+
+    @Value("${monitoring.tsdb.retention:604800}")
+    private long retention;
+
+    /** 降采样级别，与块跨度、保留期按位置对应 */
+    @Value("${monitoring.tsdb.rollup.tiers:1m,5m,1h}")
+    private String[] rollupTiers;
+
+    @Value("${monitoring.tsdb.rollup.block-durations:86400,86400,604800}")
+    private String[] rollupBlockDurations;
+
+    @Value("${monitoring.tsdb.rollup.retentions:604800,2592000,31536000}")
+    private String[] rollupRetentions;
+
+    @Value("${monitoring.tsdb.rollup.segment-size:8388608}")
+    private int rollupSegmentSize;
+
+    private TimeSeriesStore rawStore;
+
+    /** 降采样级别 -> 存储 */
+    private final Map<String, TimeSeriesStore> rollupStores = new LinkedHashMap<>();
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (rollupBlockDurations.length != rollupTiers.length || rollupRetentions.length != rollupTiers.length) {
+            throw new IllegalStateException("monitoring.tsdb.rollup 的 tiers、block-durations、retentions 个数不一致");
+        }
+        File directory = new File(dataDir);
+        rawStore = new TimeSeriesStore(directory, segmentSize, blockDuration, retention);
+        rawStore.open();
+        for (int i = 0; i < rollupTiers.length; i++) {
+            TimeSeriesStore store = new TimeSeriesStore(new File(directory, "rollup-" + rollupTiers[i].trim()),
+                    rollupSegmentSize, Long.parseLong(rollupBlockDurations[i].trim()),
+                    Long.parseLong(rollupRetentions[i].trim()));
+            store.open();
+            rollupStores.put(rollupTiers[i].trim(), store);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        rawStore.close();
+        for (TimeSeriesStore store : rollupStores.values()) {
+            store.close();
+        }
+    }
+
+    @Override
+    public void append(Long instanceId, String metric, long timestamp, double value) {
+        rawStore.append(instanceId, metric, timestamp, value);
+    }
+
+    @Override
+    public TimeSeriesDTO query(Long instanceId, String metric, long from, long to) {
+        return rawStore.query(instanceId, metric, from, to);
+    }
+
+    @Override
+    public void appendRollup(String tier, Long instanceId, String series, long timestamp, double value) {
+        rollupStore(tier).append(instanceId, series, timestamp, value);
+    }
+
+    @Override
+    public TimeSeriesDTO queryRollup(String tier, Long instanceId, String series, long from, long to) {
+        return rollupStore(tier).query(instanceId, series, from, to);
+    }
+
+    /**
+     * 封存跨度已满但长时间没有新采样的块（如实例已停用），并清理过期段文件
+     */
+    @Scheduled(fixedDelayString = "${monitoring.tsdb.maintenance-interval:300000}")
+    public void maintain() {
+        rawStore.maintain();
+        for (TimeSeriesStore store : rollupStores.values()) {
+            store.maintain();
+        }
+    }
+
+    private TimeSeriesStore rollupStore(String tier) {
+        TimeSeriesStore store = rollupStores.get(tier);
+        if (store == null) {
+            throw new IllegalArgumentException("未配置的降采样级别: " + tier);
+        }
+        return store;
+    }
+}
@@ -0,0 +1,404 @@
+package org.example.service.impl;
+
+import org.example.dto.AlertEventDTO;
+import org.example.entity.DatabaseInstance;
+import org.example.entity.WarningRule;
+import org.example.mapper.WarningRuleMapper;
+import org.example.service.AlertEventListener;
+import org.example.service.MonitoringSnapshotListener;
+import org.example.service.WarningRuleService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoublePredicate;
+
+/**
+ * 告警规则服务实现类
+ * 启用的规则编译为按指标分组的比较谓词，每次采集只对快照中出现的、有规则引用的指标求值，
+ * 开销与相关规则数成正比；每个（实例，规则）只保存连续命中次数和上一次采样，不回扫历史数据。
+ */
+@Service
+public class WarningRuleServiceImpl implements WarningRuleService, MonitoringSnapshotListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarningRuleServiceImpl.class);
+
+    private static final String TYPE_THRESHOLD = "threshold";
+    private static final String TYPE_RATE = "rate";
+    private static final List<String> OPERATORS = Arrays.asList(">", ">=", "<", "<=", "==", "!=");
+    private static final List<String> SEVERITIES = Arrays.asList("info", "warning", "critical");
+
+    /** 编译后的规则索引，规则变更时整体替换 */
+    private volatile RuleIndex ruleIndex = new RuleIndex(Collections.<CompiledRule>emptyList());
+
+    /** 实例ID -> (规则ID -> 求值状态) */
+    private final Map<Long, Map<Long, RuleState>> states = new ConcurrentHashMap<>();
+
+    @Autowired
+    private WarningRuleMapper warningRuleMapper;
+
+    @Autowired(required = false)
+    private List<AlertEventListener> alertEventListeners = Collections.emptyList();
+
+    @PostConstruct
+    public void init() {
+        try {
+            reloadRules();
+        } catch (Exception e) {
+            logger.error("加载告警规则失败，规则将在下次变更时重新加载", e);
+        }
+    }
+
+    @Override
+    public List<WarningRule> getAllRules() {
+        return warningRuleMapper.selectAllRules();
+    }
+
+    @Override
+    public WarningRule getRuleById(Long id) {
+        return warningRuleMapper.selectById(id);
+    }
+
+    @Override
+    public boolean addRule(WarningRule rule) {
+        validate(rule);
+        if (rule.getStatus() == null) {
+            rule.setStatus(1); // 默认启用
+        }
+        boolean success = warningRuleMapper.insert(rule) > 0;
+        if (success) {
+            reloadRules();
+        }
+        return success;
+    }
+
+    @Override
+    public boolean updateRule(WarningRule rule) {
+        validate(rule);
+        if (rule.getStatus() == null) {
+            rule.setStatus(1);
+        }
+        boolean success = warningRuleMapper.update(rule) > 0;
+        if (success) {
+            reloadRules();
+        }
+        return success;
+    }
+
+    @Override
+    public boolean deleteRule(Long id) {
+        boolean success = warningRuleMapper.delete(id) > 0;
+        if (success) {
+            reloadRules();
+        }
+        return success;
+    }
+
+    @Override
+    public synchronized void reloadRules() {
+        List<CompiledRule> compiled = new ArrayList<>();
+        for (WarningRule rule : warningRuleMapper.selectEnabledRules()) {
+            try {
+                validate(rule);
+                compiled.add(new CompiledRule(rule));
+            } catch (IllegalArgumentException e) {
+                logger.warn("告警规则 {} 配置无效，已忽略: {}", rule.getId(), e.getMessage());
+            }
+        }
+        RuleIndex index = new RuleIndex(compiled);
+        ruleIndex = index;
+        logger.info("已加载 {} 条告警规则，涉及 {} 个指标", compiled.size(), index.metricCount());
+
+        // 规则已删除、停用或修改后，原有状态作废，处于触发状态的告警发出恢复事件
+        for (Map<Long, RuleState> instanceStates : states.values()) {
+            for (Map.Entry<Long, RuleState> entry : instanceStates.entrySet()) {
+                RuleState state = entry.getValue();
+                synchronized (state) {
+                    CompiledRule current = index.rulesById.get(entry.getKey());
+                    if (current != null && current.signature.equals(state.rule.signature)) {
+                        state.rule = current; // 仅名称或描述变化，保留求值状态
+                        continue;
+                    }
+                    instanceStates.remove(entry.getKey(), state);
+                    if (state.activeEvent != null) {
+                        publish(state.activeEvent.withStatus(AlertEventDTO.STATUS_RESOLVED, null,
+                                System.currentTimeMillis(), "规则已变更或停用"));
+                        state.activeEvent = null;
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void evict(Long instanceId) {
+        Map<Long, RuleState> instanceStates = instanceId == null ? null : states.remove(instanceId);
+        if (instanceStates == null) {
+            return;
+        }
+        for (RuleState state : instanceStates.values()) {
+            synchronized (state) {
+                if (state.activeEvent != null) {
+                    publish(state.activeEvent.withStatus(AlertEventDTO.STATUS_RESOLVED, null,
+                            System.currentTimeMillis(), "实例已删除或停用"));
+                    state.activeEvent = null;
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<AlertEventDTO> getActiveAlerts(Long instanceId) {
+        List<AlertEventDTO> alerts = new ArrayList<>();
+        for (Map.Entry<Long, Map<Long, RuleState>> entry : states.entrySet()) {
+            if (instanceId != null && !instanceId.equals(entry.getKey())) {
+                continue;
+            }
+            for (RuleState state : entry.getValue().values()) {
+                AlertEventDTO active = state.activeEvent;
+                if (active != null) {
+                    alerts.add(active);
+                }
+            }
+        }
+        return alerts;
+    }
+
+    @Override
+    public void onSnapshot(DatabaseInstance instance, Map<String, Object> snapshot) {
+        if (snapshot.containsKey("error") || !(snapshot.get("timestamp") instanceof Number)) {
+            return;
+        }
+        long timestamp = ((Number) snapshot.get("timestamp")).longValue();
+        RuleIndex index = ruleIndex;
+        evaluate(instance, snapshot, timestamp, index.globalRules);
+        Map<String, List<CompiledRule>> instanceRules = index.instanceRules.get(instance.getId());
+        if (instanceRules != null) {
+            evaluate(instance, snapshot, timestamp, instanceRules);
+        }
+    }
+
+    private void evaluate(DatabaseInstance instance, Map<String, Object> snapshot, long timestamp,
+                          Map<String, List<CompiledRule>> rulesByMetric) {
+        if (rulesByMetric.isEmpty()) {
+            return;
+        }
+        Map<Long, RuleState> instanceStates = null;
+        for (Map.Entry<String, List<CompiledRule>> entry : rulesByMetric.entrySet()) {
+            Object raw = snapshot.get(entry.getKey());
+            if (!(raw instanceof Number)) {
+                continue;
+            }
+            double value = ((Number) raw).doubleValue();
+            if (instanceStates == null) {
+                instanceStates = states.computeIfAbsent(instance.getId(), k -> new ConcurrentHashMap<>());
+            }
+            for (CompiledRule rule : entry.getValue()) {
+                RuleState state = instanceStates.get(rule.id);
+                if (state == null || !state.rule.signature.equals(rule.signature)) {
+                    state = new RuleState(rule);
+                    instanceStates.put(rule.id, state);
+                }
+                synchronized (state) {
+                    evaluate(instance, rule, state, value, timestamp);
+                }
+            }
+        }
+    }
+
+    /**
+     * 对单条规则求值，调用方需持有 state 的锁
+     */
+    private void evaluate(DatabaseInstance instance, CompiledRule rule, RuleState state, double value, long timestamp) {
+        double observed = value;
+        if (rule.rate) {
+            long previousTimestamp = state.lastTimestamp;
+            double previousValue = state.lastValue;
+            state.lastTimestamp = timestamp;
+            state.lastValue = value;
+            // 首个采样或计数器重置时没有可用的变化率，不改变连续命中次数
+            if (previousTimestamp == 0 || timestamp <= previousTimestamp || value < previousValue) {
+                return;
+            }
+            observed = (value - previousValue) * 1000.0 / (timestamp - previousTimestamp);
+        }
+
+        if (rule.predicate.test(observed)) {
+            state.streak++;
+            if (state.activeEvent == null && state.streak >= rule.duration) {
+                state.activeEvent = rule.fire(instance, observed, timestamp);
+                publish(state.activeEvent);
+            }
+        } else {
+            state.streak = 0;
+            if (state.activeEvent != null) {
+                AlertEventDTO resolved = state.activeEvent.withStatus(AlertEventDTO.STATUS_RESOLVED, observed,
+                        timestamp, String.format("%s 已恢复，当前值 %.2f", rule.metric, observed));
+                state.activeEvent = null;
+                publish(resolved);
+            }
+        }
+    }
+
+    private void publish(AlertEventDTO event) {
+        for (AlertEventListener listener : alertEventListeners) {
+            try {
+                listener.onAlertEvent(event);
+            } catch (Exception e) {
+                logger.error("告警事件监听器 {} 处理失败", listener.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    private void validate(WarningRule rule) {
+        if (rule.getName() == null || rule.getName().trim().isEmpty()) {
+            throw new IllegalArgumentException("规则名称不能为空");
+        }
+        if (rule.getMetric() == null || rule.getMetric().trim().isEmpty()) {
+            throw new IllegalArgumentException("监控指标不能为空");
+        }
+        if (rule.getRuleType() == null) {
+            rule.setRuleType(TYPE_THRESHOLD);
+        }
+        if (!TYPE_THRESHOLD.equals(rule.getRuleType()) && !TYPE_RATE.equals(rule.getRuleType())) {
+            throw new IllegalArgumentException("不支持的规则类型：" + rule.getRuleType());
+        }
+        if (!OPERATORS.contains(rule.getOperator())) {
+            throw new IllegalArgumentException("不支持的比较运算符：" + rule.getOperator());
+        }
+        if (rule.getThreshold() == null || rule.getThreshold().isNaN()) {
+            throw new IllegalArgumentException("阈值不能为空");
+        }
+        if (rule.getDuration() == null) {
+            rule.setDuration(1);
+        }
+        if (rule.getDuration() < 1) {
+            throw new IllegalArgumentException("持续采样次数至少为1");
+        }
+        if (rule.getSeverity() == null) {
+            rule.setSeverity("warning");
+        }
+        if (!SEVERITIES.contains(rule.getSeverity())) {
+            throw new IllegalArgumentException("不支持的告警级别：" + rule.getSeverity());
+        }
+    }
+
+    private static DoublePredicate compile(String operator, double threshold) {
+        switch (operator) {
+            case ">": return v -> v > threshold;
+            case ">=": return v -> v >= threshold;
+            case "<": return v -> v < threshold;
+            case "<=": return v -> v <= threshold;
+            case "==": return v -> v == threshold;
+            case "!=": return v -> v != threshold;
+            default: throw new IllegalArgumentException("不支持的比较运算符：" + operator);
+        }
+    }
+
+    /**
+     * 编译后的规则，创建后不再修改
+     */
+    private static class CompiledRule {
+        final Long id;
+        final String name;
+        final Long instanceId;
+        final String metric;
+        final boolean rate;
+        final String operator;
+        final double threshold;
+        final int duration;
+        final String severity;
+        final String description;
+        final DoublePredicate predicate;
+        /** 影响求值结果的配置，相同则规则重新加载后沿用原有状态 */
+        final String signature;
+
+        CompiledRule(WarningRule rule) {
+            this.id = rule.getId();
+            this.name = rule.getName();
+            this.instanceId = rule.getInstanceId();
+            this.metric = rule.getMetric().trim();
+            this.rate = TYPE_RATE.equals(rule.getRuleType());
+            this.operator = rule.getOperator();
+            this.threshold = rule.getThreshold();
+            this.duration = rule.getDuration();
+            this.severity = rule.getSeverity();
+            this.description = rule.getDescription();
+            this.predicate = compile(operator, threshold);
+            this.signature = instanceId + "|" + metric + "|" + rate + "|" + operator + "|" + threshold + "|"
+                    + duration + "|" + severity;
+        }
+
+        AlertEventDTO fire(DatabaseInstance instance, double value, long timestamp) {
+            AlertEventDTO event = new AlertEventDTO();
+            event.setRuleId(id);
+            event.setRuleName(name);
+            event.setInstanceId(instance.getId());
+            event.setInstanceName(instance.getName());
+            event.setMetric(metric);
+            event.setOperator(operator);
+            event.setThreshold(threshold);
+            event.setValue(value);
+            event.setSeverity(severity);
+            event.setStatus(AlertEventDTO.STATUS_FIRING);
+            event.setFiredAt(timestamp);
+            event.setTimestamp(timestamp);
+            event.setMessage(description != null && !description.isEmpty() ? description
+                    : String.format("%s%s %s %s（当前值 %.2f，连续 %d 次）", metric, rate ? " 每秒变化" : "",
+                    operator, threshold, value, duration));
+            return event;
+        }
+    }
+
+    /**
+     * 按指标分组的规则索引：适用于所有实例的规则与指定实例的规则分开存放
+     */
+    private static class RuleIndex {
+        final Map<String, List<CompiledRule>> globalRules = new HashMap<>();
+        final Map<Long, Map<String, List<CompiledRule>>> instanceRules = new HashMap<>();
+        final Map<Long, CompiledRule> rulesById = new HashMap<>();
+
+        RuleIndex(List<CompiledRule> compiled) {
+            for (CompiledRule rule : compiled) {
+                Map<String, List<CompiledRule>> target = rule.instanceId == null ? globalRules
+                        : instanceRules.computeIfAbsent(rule.instanceId, k -> new HashMap<>());
+                target.computeIfAbsent(rule.metric, k -> new ArrayList<>()).add(rule);
+                rulesById.put(rule.id, rule);
+            }
+        }
+
+        int metricCount() {
+            Set<String> metrics = new HashSet<>(globalRules.keySet());
+            for (Map<String, List<CompiledRule>> byMetric : instanceRules.values()) {
+                metrics.addAll(byMetric.keySet());
+            }
+            return metrics.size();
+        }
+    }
+
+    /**
+     * 单个（实例，规则）的求值状态
+     */
+    private static class RuleState {
+        CompiledRule rule;
+        int streak;
+        long lastTimestamp;
+        double lastValue;
+        AlertEventDTO activeEvent;
+
+        RuleState(CompiledRule rule) {
+            this.rule = rule;
+        }
+    }
+}
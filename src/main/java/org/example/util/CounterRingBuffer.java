@@ -0,0 +1,86 @@
+package org.example.util;
+
+/**
+ * 计数器采样环形缓冲区
+ * 使用基本类型数组保存最近若干次采样（时间戳、Uptime 及一组单调递增计数器），
+ * 采样过程不产生装箱对象。非线程安全，由调用方加锁。
+ */
+public class CounterRingBuffer {
+
+    private final int capacity;
+    private final int width;
+    private final long[] timestamps;
+    private final long[] uptimes;
+    private final long[] counters;
+
+    /** 下一次写入位置 */
+    private int head;
+    /** 已保存的采样数 */
+    private int size;
+
+    /**
+     * @param capacity 保留的采样数
+     * @param width 每次采样的计数器个数
+     */
+    public CounterRingBuffer(int capacity, int width) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("capacity must be at least 2");
+        }
+        this.capacity = capacity;
+        this.width = width;
+        this.timestamps = new long[capacity];
+        this.uptimes = new long[capacity];
+        this.counters = new long[capacity * width];
+    }
+
+    /**
+     * 追加一次采样，缓冲区满时覆盖最旧的采样
+     */
+    public void add(long timestamp, long uptime, long[] values) {
+        timestamps[head] = timestamp;
+        uptimes[head] = uptime;
+        System.arraycopy(values, 0, counters, head * width, width);
+        head = (head + 1) % capacity;
+        if (size < capacity) {
+            size++;
+        }
+    }
+
+    /**
+     * 清空所有采样（如检测到计数器重置）
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    /**
+     * 按时间倒序取第 age 个采样的槽位，age=0 为最新一次采样
+     */
+    public int slot(int age) {
+        if (age < 0 || age >= size) {
+            throw new IndexOutOfBoundsException("age " + age + " out of range, size " + size);
+        }
+        return ((head - 1 - age) % capacity + capacity) % capacity;
+    }
+
+    public long timestamp(int slot) {
+        return timestamps[slot];
+    }
+
+    public long uptime(int slot) {
+        return uptimes[slot];
+    }
+
+    public long counter(int slot, int index) {
+        return counters[slot * width + index];
+    }
+}
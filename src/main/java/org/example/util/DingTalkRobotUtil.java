@@ -27,6 +27,15 @@ public class DingTalkRobotUtil {
     // 钉钉机器人API地址
     private static final String DINGTALK_ROBOT_API = "https://oapi.dingtalk.com/robot/send";
     
+    // 签名有效期为1小时，提前刷新
+    private static final long SIGN_REFRESH_MILLIS = 30 * 60 * 1000L;
+    
+    private final String apiUrl;
+    
+    // 带签名的客户端，签名未过期前复用
+    private volatile DingTalkClient signedClient;
+    private volatile long signedAt;
+    
     // 可配置的属性:带默认值
     private String token = "56fb1f9fa6e0685ae240156cc18f037426f2abc9fe5b407afecfb60fb6b444d8";
     private String secret = "SECad318220ed9ccd38695adef7926d95c74ba60bd9116c11581ab21a1989e38499";
@@ -37,6 +46,17 @@ public class DingTalkRobotUtil {
      * @param secret 机器人密钥
      */
     public DingTalkRobotUtil(String token, String secret) {
+        this(DINGTALK_ROBOT_API, token, secret);
+    }
+    
+    /**
+     * 构造函数
+     * @param apiUrl 机器人API地址（可指向本地测试服务）
+     * @param token 机器人Token
+     * @param secret 机器人密钥
+     */
+    public DingTalkRobotUtil(String apiUrl, String token, String secret) {
+        this.apiUrl = apiUrl;
         this.token = token;
         this.secret = secret;
     }
@@ -60,6 +80,24 @@ public class DingTalkRobotUtil {
         }
     }
     
+    /**
+     * 获取带签名的客户端，签名超过刷新时间后重新生成
+     */
+    private DingTalkClient getClient() {
+        long now = System.currentTimeMillis();
+        DingTalkClient client = signedClient;
+        if (client == null || now - signedAt > SIGN_REFRESH_MILLIS) {
+            synchronized (this) {
+                if (signedClient == null || now - signedAt > SIGN_REFRESH_MILLIS) {
+                    signedClient = new DefaultDingTalkClient(apiUrl + "?" + generateSign());
+                    signedAt = now;
+                }
+                client = signedClient;
+            }
+        }
+        return client;
+    }
+    
     /**
      * 发送文本消息
      * @param content 消息内容
@@ -88,9 +126,7 @@ public class DingTalkRobotUtil {
      */
     public boolean sendTextMessage(String content, List<String> atUserIds, boolean isAtAll) {
         try {
-            // 构建请求URL
-            String url = DINGTALK_ROBOT_API + "?" + generateSign();
-            DingTalkClient client = new DefaultDingTalkClient(url);
+            DingTalkClient client = getClient();
             OapiRobotSendRequest request = new OapiRobotSendRequest();
             
             // 设置消息类型为文本
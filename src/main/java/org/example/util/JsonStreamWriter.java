@@ -0,0 +1,70 @@
+package org.example.util;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * 流式JSON响应写入工具类
+ * 输出与 ApiResponseDTO 相同的结构，data 为 {"items":[...],"count":N}：逐行写入生成器，生成器缓冲满后直接写到响应流，
+ * 不在内存中保留结果列表。中途失败时已写出的行保留，data 中追加 error 字段。非线程安全。
+ */
+public class JsonStreamWriter implements Closeable {
+
+    private final JsonGenerator generator;
+    private long count;
+    private String error;
+
+    public JsonStreamWriter(ObjectMapper objectMapper, OutputStream out) throws IOException {
+        this.generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+        generator.writeStartObject();
+        generator.writeNumberField("code", 200);
+        generator.writeStringField("message", "操作成功");
+        generator.writeNumberField("timestamp", System.currentTimeMillis());
+        generator.writeObjectFieldStart("data");
+        generator.writeArrayFieldStart("items");
+    }
+
+    /**
+     * 写入一行；写出失败（通常是客户端断开）时抛出 UncheckedIOException，便于在数据源的遍历回调中使用
+     */
+    public void write(Object row) {
+        try {
+            generator.writeObject(row);
+            count++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 记录失败原因，关闭时写入 data.error
+     */
+    public void fail(String message) {
+        this.error = message;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            generator.writeEndArray();
+            generator.writeNumberField("count", count);
+            if (error != null) {
+                generator.writeStringField("error", error);
+            }
+            generator.writeEndObject();
+            generator.writeEndObject();
+        } finally {
+            generator.close();
+        }
+    }
+}
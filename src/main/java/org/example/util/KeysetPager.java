@@ -0,0 +1,102 @@
+package org.example.util;
+
+import org.example.dto.PageQueryDTO;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * 内存数据的游标分页工具类
+ * 一次遍历完成过滤、计数和游标定位，用容量为 每页条数+1 的有界堆选出本页，
+ * 只为本页元素生成结果行；排序值为数字时按数值比较，否则按字符串比较，同值按唯一键升序。
+ */
+public final class KeysetPager {
+
+    private KeysetPager() {
+    }
+
+    /**
+     * 取游标之后的一页
+     *
+     * @param sortValue 排序值，不能为 null
+     * @param key       唯一键
+     * @return items、total（满足过滤条件的总数）、hasMore，还有下一页时带 nextCursor（after、afterKey）
+     */
+    public static <T> Map<String, Object> page(Iterable<T> items, Predicate<? super T> filter,
+                                               Function<? super T, Object> sortValue, Function<? super T, String> key,
+                                               PageQueryDTO query, Function<? super T, Map<String, Object>> toRow) {
+        boolean desc = query.isDesc();
+        Comparator<T> order = (a, b) -> {
+            int c = compareValues(sortValue.apply(a), sortValue.apply(b));
+            if (desc) {
+                c = -c;
+            }
+            return c != 0 ? c : key.apply(a).compareTo(key.apply(b));
+        };
+        TopN<T> top = new TopN<>(query.getSize() + 1, order);
+        int total = 0;
+        for (T item : items) {
+            if (!filter.test(item)) {
+                continue;
+            }
+            total++;
+            if (query.hasCursor() && !isAfterCursor(sortValue.apply(item), key.apply(item), query)) {
+                continue;
+            }
+            top.offer(item);
+        }
+
+        List<T> selected = top.toList();
+        boolean hasMore = selected.size() > query.getSize();
+        if (hasMore) {
+            selected = selected.subList(0, query.getSize());
+        }
+        List<Map<String, Object>> rows = new ArrayList<>(selected.size());
+        for (T item : selected) {
+            rows.add(toRow.apply(item));
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("items", rows);
+        result.put("total", total);
+        result.put("hasMore", hasMore);
+        if (hasMore) {
+            T last = selected.get(selected.size() - 1);
+            Map<String, Object> cursor = new LinkedHashMap<>();
+            cursor.put("after", String.valueOf(sortValue.apply(last)));
+            cursor.put("afterKey", key.apply(last));
+            result.put("nextCursor", cursor);
+        }
+        return result;
+    }
+
+    private static boolean isAfterCursor(Object value, String key, PageQueryDTO query) {
+        int c = compareToCursor(value, query.getAfter());
+        if (query.isDesc()) {
+            c = -c;
+        }
+        return c > 0 || (c == 0 && key.compareTo(query.getAfterKey()) > 0);
+    }
+
+    private static int compareValues(Object a, Object b) {
+        if (a instanceof Number && b instanceof Number) {
+            return Double.compare(((Number) a).doubleValue(), ((Number) b).doubleValue());
+        }
+        return a.toString().compareTo(b.toString());
+    }
+
+    private static int compareToCursor(Object value, String after) {
+        if (value instanceof Number) {
+            try {
+                return Double.compare(((Number) value).doubleValue(), Double.parseDouble(after));
+            } catch (NumberFormatException e) {
+                // 游标与排序字段类型不符时按字符串比较
+            }
+        }
+        return value.toString().compareTo(after);
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.util;
+
+/**
+ * 降采样聚合桶
+ * 增量维护一个时间桶内采样的最小值、最大值、总和、个数和最后值。非线程安全，由调用方加锁。
+ */
+public class RollupBucket {
+
+    private final long width;
+    private long start = Long.MIN_VALUE;
+    private double min;
+    private double max;
+    private double sum;
+    private double last;
+    private long count;
+
+    /**
+     * @param width 桶宽度（秒）
+     */
+    public RollupBucket(long width) {
+        this.width = width;
+    }
+
+    /**
+     * 采样所属桶的起始时间
+     */
+    public long bucketStart(long timestamp) {
+        return timestamp - Math.floorMod(timestamp, width);
+    }
+
+    /**
+     * 采样是否落在当前桶之后（当前桶已结束，需要先输出再重置）
+     */
+    public boolean isAfterBucket(long timestamp) {
+        return count > 0 && bucketStart(timestamp) > start;
+    }
+
+    /**
+     * 累加一个采样，桶为空时以该采样所在的时间桶开始
+     */
+    public void add(long timestamp, double value) {
+        if (count == 0) {
+            start = bucketStart(timestamp);
+            min = value;
+            max = value;
+            sum = 0;
+        } else {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        sum += value;
+        last = value;
+        count++;
+    }
+
+    public void reset() {
+        count = 0;
+        start = Long.MIN_VALUE;
+    }
+
+    public long getWidth() {
+        return width;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    public double getAvg() {
+        return count == 0 ? 0.0 : sum / count;
+    }
+
+    public double getLast() {
+        return last;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.util;
+
+/**
+ * 流式基线模型
+ * 同时维护全局 EWMA 均值/方差和按一天内时段划分的季节性 EWMA 均值/方差，
+ * 每个序列占用固定内存，每次采样 O(1) 更新。非线程安全，由调用方加锁。
+ */
+public class SeasonalBaseline {
+
+    private final double alpha;
+    private final double seasonalAlpha;
+    private final int seasonalWarmup;
+    private final long slotMillis;
+
+    private double mean;
+    private double variance;
+    private long count;
+
+    private final double[] slotMean;
+    private final double[] slotVariance;
+    private final long[] slotCount;
+
+    /**
+     * @param alpha 全局 EWMA 平滑系数
+     * @param seasonalAlpha 时段 EWMA 平滑系数（每个时段只用落在该时段的采样更新）
+     * @param slots 一天划分的时段数
+     * @param seasonalWarmup 时段内采样数达到该值后才使用时段基线
+     */
+    public SeasonalBaseline(double alpha, double seasonalAlpha, int slots, int seasonalWarmup) {
+        this.alpha = alpha;
+        this.seasonalAlpha = seasonalAlpha;
+        this.seasonalWarmup = seasonalWarmup;
+        this.slotMillis = 24 * 60 * 60 * 1000L / slots;
+        this.slotMean = new double[slots];
+        this.slotVariance = new double[slots];
+        this.slotCount = new long[slots];
+    }
+
+    /**
+     * 采样所在的时段（按本地时间）
+     */
+    public int slotOf(long timestamp, long zoneOffset) {
+        return (int) (Math.floorMod(timestamp + zoneOffset, 24 * 60 * 60 * 1000L) / slotMillis);
+    }
+
+    /**
+     * 当前时段的期望值，时段基线未预热时使用全局均值
+     */
+    public double expected(int slot) {
+        return slotCount[slot] >= seasonalWarmup ? slotMean[slot] : mean;
+    }
+
+    /**
+     * 当前时段的标准差，时段基线未预热时使用全局方差
+     */
+    public double deviation(int slot) {
+        return Math.sqrt(slotCount[slot] >= seasonalWarmup ? slotVariance[slot] : variance);
+    }
+
+    /**
+     * 用新采样更新全局和所在时段的均值、方差
+     */
+    public void update(int slot, double value) {
+        update(slot, value, true);
+    }
+
+    /**
+     * 用新采样更新基线；updateVariance 为 false 时只移动均值（用于偏离过大的采样，避免方差被异常值撑大）
+     */
+    public void update(int slot, double value, boolean updateVariance) {
+        if (count == 0) {
+            mean = value;
+            variance = 0;
+        } else {
+            double diff = value - mean;
+            double increment = alpha * diff;
+            mean += increment;
+            if (updateVariance) {
+                variance = (1 - alpha) * (variance + diff * increment);
+            }
+        }
+        count++;
+
+        if (slotCount[slot] == 0) {
+            slotMean[slot] = value;
+            slotVariance[slot] = 0;
+        } else {
+            double diff = value - slotMean[slot];
+            double increment = seasonalAlpha * diff;
+            slotMean[slot] += increment;
+            if (updateVariance) {
+                slotVariance[slot] = (1 - seasonalAlpha) * (slotVariance[slot] + diff * increment);
+            }
+        }
+        slotCount[slot]++;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getVariance() {
+        return variance;
+    }
+}
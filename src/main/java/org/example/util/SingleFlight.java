@@ -0,0 +1,76 @@
+package org.example.util;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * 并发请求合并
+ * 同一键上同时只执行一次调用，期间到达的其他调用等待并共享同一结果（或异常）；
+ * 调用结束后立即移除，之后的调用重新执行，不做结果缓存。
+ *
+ * @param <K> 合并键类型
+ * @param <V> 结果类型
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * 执行或加入同一键上正在进行的调用。首个调用方在自己的线程中执行 loader，
+     * loader 抛出的运行时异常会原样传递给所有等待者
+     */
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            V value = loader.get();
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * 当前正在执行的调用数
+     */
+    public int size() {
+        return inFlight.size();
+    }
+
+    private V await(CompletableFuture<V> future) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    // 等待期间被中断时继续等待首个调用方的结果，返回前恢复中断标记
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new IllegalStateException(cause);
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
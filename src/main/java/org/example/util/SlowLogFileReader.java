@@ -0,0 +1,205 @@
+package org.example.util;
+
+import org.example.entity.SlowQueryLog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 慢日志文件增量读取工具类
+ * 从指定偏移把文件映射到内存，按字节扫描行边界切分条目，只对完整条目解码和解析；
+ * 末尾尚未写完的条目保留到下一次读取。非线程安全。
+ */
+public final class SlowLogFileReader {
+
+    private static final byte[] TIME_HEADER = "# Time:".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] USER_HOST_HEADER = "# User@Host:".getBytes(StandardCharsets.US_ASCII);
+
+    private SlowLogFileReader() {
+    }
+
+    /**
+     * 读取结果：解析出的条目和下一次读取的起始偏移
+     */
+    public static class Chunk {
+        private final List<SlowQueryLog> entries;
+        private final long nextOffset;
+        private final long fileSize;
+
+        Chunk(List<SlowQueryLog> entries, long nextOffset, long fileSize) {
+            this.entries = entries;
+            this.nextOffset = nextOffset;
+            this.fileSize = fileSize;
+        }
+
+        public List<SlowQueryLog> getEntries() {
+            return entries;
+        }
+
+        public long getNextOffset() {
+            return nextOffset;
+        }
+
+        public long getFileSize() {
+            return fileSize;
+        }
+    }
+
+    /**
+     * 从 offset 开始最多读取 maxBytes 字节
+     *
+     * @param flushTail 末尾条目是否视为完整（调用方确认文件已不再增长时传 true）
+     */
+    public static Chunk read(Path path, long offset, int maxBytes, boolean flushTail) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long length = Math.min(size - offset, maxBytes);
+            List<SlowQueryLog> entries = new ArrayList<>();
+            if (length <= 0) {
+                return new Chunk(entries, offset, size);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+            boolean reachesEnd = offset + length == size;
+
+            int entryStart = -1;
+            int lineStart = 0;
+            int consumed = 0;
+            boolean previousWasTime = false;
+            while (lineStart < length) {
+                int lineEnd = indexOf(buffer, (byte) '\n', lineStart, (int) length);
+                if (lineEnd < 0) {
+                    break; // 不完整的行留到下一次
+                }
+                boolean isTime = startsWith(buffer, lineStart, TIME_HEADER);
+                boolean isHeader = isTime || (!previousWasTime && startsWith(buffer, lineStart, USER_HOST_HEADER));
+                if (isHeader) {
+                    if (entryStart >= 0) {
+                        addEntry(entries, buffer, entryStart, lineStart);
+                    }
+                    entryStart = lineStart;
+                    consumed = lineStart;
+                } else if (entryStart < 0) {
+                    consumed = lineEnd + 1; // 首个条目之前的文件头
+                }
+                previousWasTime = isTime;
+                lineStart = lineEnd + 1;
+            }
+
+            if (entryStart >= 0) {
+                // 末尾条目：文件已不再增长，或单个条目超过读取上限（否则永远无法前进）时按完整条目处理
+                boolean oversized = entries.isEmpty() && entryStart == 0 && length == maxBytes;
+                if ((flushTail && reachesEnd && lineStart == length) || oversized) {
+                    addEntry(entries, buffer, entryStart, lineStart);
+                    consumed = lineStart > 0 ? lineStart : (int) length;
+                }
+            }
+            return new Chunk(entries, offset + consumed, size);
+        }
+    }
+
+    private static void addEntry(List<SlowQueryLog> entries, MappedByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        ByteBuffer view = buffer.duplicate();
+        view.position(start);
+        view.get(bytes);
+        SlowQueryLog entry = parse(new String(bytes, StandardCharsets.UTF_8));
+        if (entry != null) {
+            entries.add(entry);
+        }
+    }
+
+    /**
+     * 解析单个条目：# Time / # User@Host / # Query_time 注释行，use 与 SET timestamp 语句，其余为 SQL 文本
+     */
+    static SlowQueryLog parse(String text) {
+        SlowQueryLog entry = new SlowQueryLog();
+        StringBuilder sql = new StringBuilder();
+        for (String line : text.split("\n")) {
+            line = line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+            if (line.startsWith("# User@Host:")) {
+                String userHost = line.substring("# User@Host:".length());
+                int id = userHost.indexOf("Id:");
+                entry.setUserHost((id >= 0 ? userHost.substring(0, id) : userHost).trim());
+            } else if (line.startsWith("# Query_time:")) {
+                parseMetrics(entry, line.substring(1));
+            } else if (line.startsWith("# Schema:")) {
+                String[] parts = line.substring("# Schema:".length()).trim().split("\\s+");
+                entry.setDb(parts[0]);
+            } else if (line.startsWith("#")) {
+                continue;
+            } else if (line.startsWith("use ") && line.endsWith(";") && sql.length() == 0) {
+                entry.setDb(line.substring(4, line.length() - 1).trim().replace("`", ""));
+            } else if (line.startsWith("SET timestamp=") && line.endsWith(";") && sql.length() == 0) {
+                try {
+                    long seconds = Long.parseLong(line.substring("SET timestamp=".length(), line.length() - 1).trim());
+                    entry.setStartTime(new Date(seconds * 1000));
+                } catch (NumberFormatException e) {
+                    // 忽略无法解析的时间戳
+                }
+            } else if (!isFileHeader(line)) {
+                sql.append(line).append('\n');
+            }
+        }
+        String statement = sql.toString().trim();
+        if (statement.isEmpty() || entry.getStartTime() == null) {
+            return null;
+        }
+        entry.setSqlText(statement);
+        return entry;
+    }
+
+    private static void parseMetrics(SlowQueryLog entry, String line) {
+        String[] tokens = line.trim().split("\\s+");
+        for (int i = 0; i + 1 < tokens.length; i += 2) {
+            String value = tokens[i + 1];
+            try {
+                switch (tokens[i]) {
+                    case "Query_time:": entry.setQueryTime(Double.parseDouble(value)); break;
+                    case "Lock_time:": entry.setLockTime(Double.parseDouble(value)); break;
+                    case "Rows_sent:": entry.setRowsSent(Long.parseLong(value)); break;
+                    case "Rows_examined:": entry.setRowsExamined(Long.parseLong(value)); break;
+                    default: break;
+                }
+            } catch (NumberFormatException e) {
+                // 忽略无法解析的字段
+            }
+        }
+    }
+
+    /**
+     * 服务重启或 FLUSH LOGS 时写入的文件头行
+     */
+    private static boolean isFileHeader(String line) {
+        return line.contains(", Version: ") || line.startsWith("Tcp port:")
+                || (line.startsWith("Time ") && line.contains("Id Command"));
+    }
+
+    private static boolean startsWith(MappedByteBuffer buffer, int pos, byte[] prefix) {
+        if (pos + prefix.length > buffer.limit()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer.get(pos + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(MappedByteBuffer buffer, byte target, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,154 @@
+package org.example.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving 高频项统计
+ * 只保留固定数量的计数器：新键在计数器已满时替换当前最小计数器并继承其计数（记为误差上界），
+ * 因此内存有界，且任何真实权重超过 总权重/容量 的键一定被保留。
+ * 计数器按最小堆组织，每次更新 O(log 容量)。非线程安全，由调用方加锁。
+ */
+public class SpaceSaving<K> {
+
+    private final Counter<K>[] heap;
+    private final Map<K, Counter<K>> counters;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public SpaceSaving(int capacity) {
+        this.heap = (Counter<K>[]) new Counter<?>[capacity];
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * 为键累加权重
+     */
+    public void offer(K key, long weight) {
+        Counter<K> counter = counters.get(key);
+        if (counter == null && size < heap.length) {
+            counter = new Counter<>(key, size);
+            counter.count = weight;
+            heap[size++] = counter;
+            counters.put(key, counter);
+            siftUp(counter.index);
+            return;
+        }
+        if (counter == null) {
+            // 替换最小计数器，新键继承其计数作为高估上界
+            counter = heap[0];
+            counters.remove(counter.key);
+            counter.key = key;
+            counter.error = counter.count;
+            counters.put(key, counter);
+        }
+        counter.count += weight;
+        siftDown(counter.index);
+    }
+
+    /**
+     * 键的估计权重，未被跟踪时返回 0
+     */
+    public long estimate(K key) {
+        Counter<K> counter = counters.get(key);
+        return counter == null ? 0 : counter.count;
+    }
+
+    /**
+     * 键的估计误差上界，未被跟踪时返回 0
+     */
+    public long error(K key) {
+        Counter<K> counter = counters.get(key);
+        return counter == null ? 0 : counter.error;
+    }
+
+    /**
+     * 按估计权重倒序返回前 n 个计数器
+     */
+    public List<Counter<K>> top(int n) {
+        Counter<K>[] sorted = Arrays.copyOf(heap, size);
+        Arrays.sort(sorted, Comparator.comparingLong((Counter<K> c) -> c.count).reversed());
+        List<Counter<K>> result = new ArrayList<>(Math.min(n, size));
+        for (int i = 0; i < sorted.length && i < n; i++) {
+            result.add(sorted[i]);
+        }
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(heap, 0, size, null);
+        counters.clear();
+        size = 0;
+    }
+
+    private void siftUp(int i) {
+        Counter<K> counter = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (heap[parent].count <= counter.count) {
+                break;
+            }
+            heap[i] = heap[parent];
+            heap[i].index = i;
+            i = parent;
+        }
+        heap[i] = counter;
+        counter.index = i;
+    }
+
+    private void siftDown(int i) {
+        Counter<K> counter = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1].count < heap[child].count) {
+                child++;
+            }
+            if (heap[child].count >= counter.count) {
+                break;
+            }
+            heap[i] = heap[child];
+            heap[i].index = i;
+            i = child;
+        }
+        heap[i] = counter;
+        counter.index = i;
+    }
+
+    /**
+     * 单个计数器：count 为估计权重（可能高估），error 为高估的上界
+     */
+    public static class Counter<K> {
+        private K key;
+        private long count;
+        private long error;
+        private int index;
+
+        Counter(K key, int index) {
+            this.key = key;
+            this.index = index;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getError() {
+            return error;
+        }
+    }
+}
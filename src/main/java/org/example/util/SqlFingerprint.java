@@ -0,0 +1,164 @@
+package org.example.util;
+
+import java.util.regex.Pattern;
+
+/**
+ * SQL 指纹工具类
+ * 单遍扫描去除注释、把字符串和数值常量替换为 ?、合并空白并转小写，
+ * 再把 IN 列表和多行 VALUES 折叠为一项，使只有常量不同的语句得到相同的指纹和摘要。
+ */
+public final class SqlFingerprint {
+
+    /** 指纹最大长度，超出部分截断（摘要基于截断后的指纹） */
+    public static final int MAX_LENGTH = 2048;
+
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\(\\?(?:,\\?)*\\)");
+    private static final Pattern REPEATED_LIST = Pattern.compile("\\(\\?\\+\\)(?:,\\(\\?\\+\\))+");
+
+    /** 这些符号前后的空白不影响语义，统一去掉，使 a=1 与 a = 1 得到相同指纹 */
+    private static final String BEFORE_NO_SPACE = "=<>!,()";
+    private static final String AFTER_NO_SPACE = "=<>!,(";
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private SqlFingerprint() {
+    }
+
+    /**
+     * 生成 SQL 指纹，空语句返回 null
+     */
+    public static String fingerprint(String sql) {
+        if (sql == null) {
+            return null;
+        }
+        int n = sql.length();
+        StringBuilder out = new StringBuilder(Math.min(n, MAX_LENGTH));
+        boolean pendingSpace = false;
+        int i = 0;
+        while (i < n && out.length() < MAX_LENGTH) {
+            char c = sql.charAt(i);
+            char next = i + 1 < n ? sql.charAt(i + 1) : '\0';
+
+            if ((c == '-' && next == '-') || c == '#') {
+                i = skipLine(sql, i);
+                pendingSpace = true;
+                continue;
+            }
+            if (c == '/' && next == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? n : end + 2;
+                pendingSpace = true;
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                pendingSpace = true;
+                i++;
+                continue;
+            }
+
+            if (pendingSpace && out.length() > 0 && BEFORE_NO_SPACE.indexOf(c) < 0
+                    && AFTER_NO_SPACE.indexOf(out.charAt(out.length() - 1)) < 0) {
+                out.append(' ');
+            }
+            pendingSpace = false;
+
+            if (c == '\'' || c == '"') {
+                i = skipQuoted(sql, i, c);
+                out.append('?');
+            } else if (c == '`') {
+                int end = sql.indexOf('`', i + 1);
+                end = end < 0 ? n : end + 1;
+                out.append(sql, i, end);
+                i = end;
+            } else if (isDigit(c) && !endsWithIdentifier(out)) {
+                i = skipNumber(sql, i);
+                out.append('?');
+            } else {
+                out.append(Character.toLowerCase(c));
+                i++;
+            }
+        }
+
+        if (out.length() == 0) {
+            return null;
+        }
+        String normalized = PLACEHOLDER_LIST.matcher(out).replaceAll("(?+)");
+        return REPEATED_LIST.matcher(normalized).replaceAll("(?+)");
+    }
+
+    /**
+     * 指纹的 64 位 FNV-1a 摘要（16 位十六进制）
+     */
+    public static String digest(String fingerprint) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < fingerprint.length(); i++) {
+            char c = fingerprint.charAt(i);
+            hash ^= c & 0xff;
+            hash *= FNV_PRIME;
+            hash ^= c >>> 8;
+            hash *= FNV_PRIME;
+        }
+        return String.format("%016x", hash);
+    }
+
+    private static int skipLine(String sql, int i) {
+        int end = sql.indexOf('\n', i);
+        return end < 0 ? sql.length() : end + 1;
+    }
+
+    private static int skipQuoted(String sql, int i, char quote) {
+        int n = sql.length();
+        i++;
+        while (i < n) {
+            char c = sql.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == quote) {
+                if (i + 1 < n && sql.charAt(i + 1) == quote) {
+                    i += 2; // 连续两个引号表示转义
+                } else {
+                    return i + 1;
+                }
+            } else {
+                i++;
+            }
+        }
+        return n;
+    }
+
+    private static int skipNumber(String sql, int i) {
+        int n = sql.length();
+        if (sql.charAt(i) == '0' && i + 1 < n && (sql.charAt(i + 1) == 'x' || sql.charAt(i + 1) == 'X')) {
+            i += 2;
+            while (i < n && Character.digit(sql.charAt(i), 16) >= 0) {
+                i++;
+            }
+            return i;
+        }
+        while (i < n) {
+            char c = sql.charAt(i);
+            if (isDigit(c) || c == '.') {
+                i++;
+            } else if ((c == 'e' || c == 'E') && i + 1 < n
+                    && (isDigit(sql.charAt(i + 1)) || sql.charAt(i + 1) == '-' || sql.charAt(i + 1) == '+')) {
+                i += 2;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    private static boolean endsWithIdentifier(StringBuilder out) {
+        if (out.length() == 0) {
+            return false;
+        }
+        char last = out.charAt(out.length() - 1);
+        return Character.isLetterOrDigit(last) || last == '_' || last == '$';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,107 @@
+package org.example.util;
+
+/**
+ * 时间序列块解码器，与 {@link TimeSeriesEncoder} 的编码格式对应
+ */
+public class TimeSeriesDecoder {
+
+    private final byte[] buffer;
+    private final int count;
+    private long bitPosition;
+
+    private int read;
+    private long timestamp;
+    private long delta;
+    private long valueBits;
+    private int leading;
+    private int trailing;
+
+    /**
+     * @param buffer 编码数据
+     * @param count 块内点数
+     */
+    public TimeSeriesDecoder(byte[] buffer, int count) {
+        this.buffer = buffer;
+        this.count = count;
+    }
+
+    /**
+     * 是否还有未读取的点
+     */
+    public boolean hasNext() {
+        return read < count;
+    }
+
+    /**
+     * 读取下一个点，之后通过 {@link #timestamp()} 和 {@link #value()} 获取
+     */
+    public void next() {
+        if (read == 0) {
+            timestamp = readBits(64);
+            valueBits = readBits(64);
+        } else {
+            readTimestamp();
+            readValue();
+        }
+        read++;
+    }
+
+    public long timestamp() {
+        return timestamp;
+    }
+
+    public double value() {
+        return Double.longBitsToDouble(valueBits);
+    }
+
+    private void readTimestamp() {
+        long dod;
+        if (readBit() == 0) {
+            dod = 0;
+        } else if (readBit() == 0) {
+            dod = readBits(7) - 63;
+        } else if (readBit() == 0) {
+            dod = readBits(9) - 255;
+        } else if (readBit() == 0) {
+            dod = readBits(12) - 2047;
+        } else {
+            dod = readBits(64);
+        }
+        delta += dod;
+        timestamp += delta;
+    }
+
+    private void readValue() {
+        if (readBit() == 0) {
+            return;
+        }
+        if (readBit() == 1) {
+            leading = (int) readBits(5);
+            int significant = (int) readBits(6) + 1;
+            trailing = 64 - leading - significant;
+        }
+        long xor = readBits(64 - leading - trailing) << trailing;
+        valueBits ^= xor;
+    }
+
+    private int readBit() {
+        return (int) readBits(1);
+    }
+
+    /**
+     * 读取 bits 位，高位在前
+     */
+    private long readBits(int bits) {
+        long result = 0;
+        while (bits > 0) {
+            int index = (int) (bitPosition >>> 3);
+            int available = 8 - (int) (bitPosition & 7);
+            int take = Math.min(available, bits);
+            int chunk = ((buffer[index] & 0xFF) >>> (available - take)) & ((1 << take) - 1);
+            result = (result << take) | chunk;
+            bitPosition += take;
+            bits -= take;
+        }
+        return result;
+    }
+}
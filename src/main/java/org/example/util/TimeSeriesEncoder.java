@@ -0,0 +1,154 @@
+package org.example.util;
+
+import java.util.Arrays;
+
+/**
+ * 时间序列块编码器（Gorilla 压缩格式）
+ * 时间戳（秒）采用 delta-of-delta 编码，数值采用与前值异或后的有效位编码。
+ * 固定间隔采集时每个点通常只占 1~2 字节。非线程安全，由调用方加锁。
+ *
+ * 编码格式：
+ * <pre>
+ * 首个点: 时间戳 64 位 + 数值 64 位
+ * 时间戳: dod=0 -> '0'
+ *         [-63, 64]     -> '10'   + 7 位
+ *         [-255, 256]   -> '110'  + 9 位
+ *         [-2047, 2048] -> '1110' + 12 位
+ *         其他          -> '1111' + 64 位
+ * 数值:   异或为0 -> '0'
+ *         有效位落在上一个窗口内 -> '10' + 窗口内的位
+ *         否则 -> '11' + 前导零(5 位) + 有效位长度-1(6 位) + 有效位
+ * </pre>
+ */
+public class TimeSeriesEncoder {
+
+    private byte[] buffer;
+    private long bitPosition;
+
+    private int count;
+    private long firstTimestamp;
+    private long lastTimestamp;
+    private long lastDelta;
+    private long lastValueBits;
+    private int lastLeading = -1;
+    private int lastTrailing;
+
+    public TimeSeriesEncoder() {
+        this(64);
+    }
+
+    public TimeSeriesEncoder(int initialCapacity) {
+        this.buffer = new byte[Math.max(16, initialCapacity)];
+    }
+
+    /**
+     * 追加一个点，时间戳必须不小于上一个点
+     */
+    public void append(long timestamp, double value) {
+        long valueBits = Double.doubleToRawLongBits(value);
+        if (count == 0) {
+            writeBits(timestamp, 64);
+            writeBits(valueBits, 64);
+            firstTimestamp = timestamp;
+            lastTimestamp = timestamp;
+            lastValueBits = valueBits;
+            count = 1;
+            return;
+        }
+        if (timestamp < lastTimestamp) {
+            throw new IllegalArgumentException("timestamp " + timestamp + " is before last timestamp " + lastTimestamp);
+        }
+        writeTimestamp(timestamp);
+        writeValue(valueBits);
+        count++;
+    }
+
+    private void writeTimestamp(long timestamp) {
+        long delta = timestamp - lastTimestamp;
+        long dod = delta - lastDelta;
+        if (dod == 0) {
+            writeBits(0b0, 1);
+        } else if (dod >= -63 && dod <= 64) {
+            writeBits(0b10, 2);
+            writeBits(dod + 63, 7);
+        } else if (dod >= -255 && dod <= 256) {
+            writeBits(0b110, 3);
+            writeBits(dod + 255, 9);
+        } else if (dod >= -2047 && dod <= 2048) {
+            writeBits(0b1110, 4);
+            writeBits(dod + 2047, 12);
+        } else {
+            writeBits(0b1111, 4);
+            writeBits(dod, 64);
+        }
+        lastDelta = delta;
+        lastTimestamp = timestamp;
+    }
+
+    private void writeValue(long valueBits) {
+        long xor = valueBits ^ lastValueBits;
+        if (xor == 0) {
+            writeBits(0b0, 1);
+        } else {
+            int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            int trailing = Long.numberOfTrailingZeros(xor);
+            if (lastLeading >= 0 && leading >= lastLeading && trailing >= lastTrailing) {
+                writeBits(0b10, 2);
+                writeBits(xor >>> lastTrailing, 64 - lastLeading - lastTrailing);
+            } else {
+                int significant = 64 - leading - trailing;
+                writeBits(0b11, 2);
+                writeBits(leading, 5);
+                writeBits(significant - 1, 6);
+                writeBits(xor >>> trailing, significant);
+                lastLeading = leading;
+                lastTrailing = trailing;
+            }
+        }
+        lastValueBits = valueBits;
+    }
+
+    /**
+     * 写入 value 的低 bits 位，高位在前
+     */
+    private void writeBits(long value, int bits) {
+        while (bits > 0) {
+            int index = (int) (bitPosition >>> 3);
+            if (index >= buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            int free = 8 - (int) (bitPosition & 7);
+            int take = Math.min(free, bits);
+            int chunk = (int) ((value >>> (bits - take)) & ((1 << take) - 1));
+            buffer[index] |= (byte) (chunk << (free - take));
+            bitPosition += take;
+            bits -= take;
+        }
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getFirstTimestamp() {
+        return firstTimestamp;
+    }
+
+    public long getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    /**
+     * 已编码的字节数
+     */
+    public int getByteLength() {
+        return (int) ((bitPosition + 7) >>> 3);
+    }
+
+    /**
+     * 复制当前已编码的数据
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, getByteLength());
+    }
+}
@@ -0,0 +1,209 @@
+package org.example.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * 时间序列段文件
+ * 固定大小、内存映射、只追加。文件头为魔数和版本号，之后依次是压缩数据块记录：
+ * <pre>
+ * [int 记录魔数][long 实例ID][short 指标名长度][指标名 UTF-8][long 起始时间][long 结束时间][int 点数][int 数据长度][数据]
+ * </pre>
+ * 记录魔数最后写入，进程异常退出时写了一半的记录在重新打开时会被忽略。
+ */
+public class TimeSeriesSegment {
+
+    private static final int FILE_MAGIC = 0x56545344;   // "VTSD"
+    private static final int FILE_VERSION = 1;
+    private static final int RECORD_MAGIC = 0x424C4B31; // "BLK1"
+    private static final int FILE_HEADER_SIZE = 8;
+
+    private final File file;
+    private final RandomAccessFile raf;
+    private final MappedByteBuffer buffer;
+    private int position;
+    private volatile long maxTimestamp = Long.MIN_VALUE;
+
+    private TimeSeriesSegment(File file, RandomAccessFile raf, MappedByteBuffer buffer) {
+        this.file = file;
+        this.raf = raf;
+        this.buffer = buffer;
+    }
+
+    /**
+     * 创建新的段文件
+     */
+    public static TimeSeriesSegment create(File file, int capacity) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(capacity);
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            TimeSeriesSegment segment = new TimeSeriesSegment(file, raf, buffer);
+            ByteBuffer writer = buffer.duplicate();
+            writer.putInt(FILE_MAGIC);
+            writer.putInt(FILE_VERSION);
+            segment.position = FILE_HEADER_SIZE;
+            return segment;
+        } catch (IOException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 打开已有段文件，依次回调其中的每个数据块
+     */
+    public static TimeSeriesSegment open(File file, Consumer<Block> visitor) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, raf.length());
+            TimeSeriesSegment segment = new TimeSeriesSegment(file, raf, buffer);
+            ByteBuffer reader = buffer.duplicate();
+            if (reader.remaining() < FILE_HEADER_SIZE || reader.getInt() != FILE_MAGIC || reader.getInt() != FILE_VERSION) {
+                throw new IOException("无效的时间序列段文件: " + file);
+            }
+            segment.position = FILE_HEADER_SIZE;
+            while (reader.remaining() >= 4 && reader.getInt(reader.position()) == RECORD_MAGIC) {
+                reader.getInt();
+                long instanceId = reader.getLong();
+                byte[] metricBytes = new byte[reader.getShort()];
+                reader.get(metricBytes);
+                long start = reader.getLong();
+                long end = reader.getLong();
+                int count = reader.getInt();
+                int length = reader.getInt();
+                Block block = new Block(segment, instanceId, new String(metricBytes, StandardCharsets.UTF_8),
+                        start, end, count, reader.position(), length);
+                reader.position(reader.position() + length);
+                segment.position = reader.position();
+                segment.maxTimestamp = Math.max(segment.maxTimestamp, end);
+                visitor.accept(block);
+            }
+            return segment;
+        } catch (IOException | RuntimeException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 追加一个数据块，空间不足时返回 null
+     */
+    public synchronized Block append(long instanceId, String metric, long start, long end, int count, byte[] data) {
+        byte[] metricBytes = metric.getBytes(StandardCharsets.UTF_8);
+        int recordSize = 4 + 8 + 2 + metricBytes.length + 8 + 8 + 4 + 4 + data.length;
+        if (position + recordSize > buffer.capacity()) {
+            return null;
+        }
+        ByteBuffer writer = buffer.duplicate();
+        writer.position(position + 4);
+        writer.putLong(instanceId);
+        writer.putShort((short) metricBytes.length);
+        writer.put(metricBytes);
+        writer.putLong(start);
+        writer.putLong(end);
+        writer.putInt(count);
+        writer.putInt(data.length);
+        int dataOffset = writer.position();
+        writer.put(data);
+        // 数据写完后再写记录魔数
+        writer.putInt(position, RECORD_MAGIC);
+        position += recordSize;
+        maxTimestamp = Math.max(maxTimestamp, end);
+        return new Block(this, instanceId, metric, start, end, count, dataOffset, data.length);
+    }
+
+    /**
+     * 读取数据块的压缩数据
+     */
+    public byte[] read(int offset, int length) {
+        byte[] data = new byte[length];
+        ByteBuffer reader = buffer.duplicate();
+        reader.position(offset);
+        reader.get(data);
+        return data;
+    }
+
+    /**
+     * 段内最新数据的时间戳
+     */
+    public long getMaxTimestamp() {
+        return maxTimestamp;
+    }
+
+    public synchronized int getPosition() {
+        return position;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public synchronized void close() throws IOException {
+        buffer.force();
+        raf.close();
+    }
+
+    /**
+     * 段文件中的一个压缩数据块
+     */
+    public static class Block {
+        private final TimeSeriesSegment segment;
+        private final long instanceId;
+        private final String metric;
+        private final long start;
+        private final long end;
+        private final int count;
+        private final int offset;
+        private final int length;
+
+        Block(TimeSeriesSegment segment, long instanceId, String metric, long start, long end,
+              int count, int offset, int length) {
+            this.segment = segment;
+            this.instanceId = instanceId;
+            this.metric = metric;
+            this.start = start;
+            this.end = end;
+            this.count = count;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        public TimeSeriesSegment getSegment() {
+            return segment;
+        }
+
+        public long getInstanceId() {
+            return instanceId;
+        }
+
+        public String getMetric() {
+            return metric;
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        public long getEnd() {
+            return end;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * 解码数据块
+         */
+        public TimeSeriesDecoder decoder() {
+            return new TimeSeriesDecoder(segment.read(offset, length), count);
+        }
+    }
+}
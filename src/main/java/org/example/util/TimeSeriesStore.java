@@ -0,0 +1,295 @@
+package org.example.util;
+
+import org.example.dto.TimeSeriesDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 时间序列存储
+ * 每个序列在内存中维护一个正在写入的压缩块，块跨度达到 blockDuration 后封存并追加到
+ * 内存映射的段文件中；段文件写满后滚动，超过保留期的段文件整体删除。
+ * 一个目录对应一个存储，块跨度和保留期按存储设置，采样间隔不同的数据（原始采样、各级降采样）
+ * 使用各自的存储，使每个块都包含足够多的点。
+ */
+public class TimeSeriesStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimeSeriesStore.class);
+
+    private static final String SEGMENT_SUFFIX = ".tsd";
+
+    private final File directory;
+    private final int segmentSize;
+    private final long blockDuration;
+    private final long retention;
+
+    /** 所有段文件，按创建顺序排列 */
+    private final List<TimeSeriesSegment> segments = new CopyOnWriteArrayList<>();
+
+    /** 序列键 -> 已封存的数据块（按时间顺序） */
+    private final Map<String, List<TimeSeriesSegment.Block>> index = new ConcurrentHashMap<>();
+
+    /** 序列键 -> 正在写入的数据块 */
+    private final Map<String, OpenBlock> openBlocks = new ConcurrentHashMap<>();
+
+    private volatile TimeSeriesSegment activeSegment;
+
+    /**
+     * @param directory     段文件目录
+     * @param segmentSize   单个段文件大小（字节）
+     * @param blockDuration 单个块的时间跨度（秒）
+     * @param retention     保留期（秒）
+     */
+    public TimeSeriesStore(File directory, int segmentSize, long blockDuration, long retention) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.blockDuration = blockDuration;
+        this.retention = retention;
+    }
+
+    /**
+     * 扫描段文件重建内存索引
+     */
+    public void open() throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("无法创建时间序列数据目录: " + directory.getAbsolutePath());
+        }
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SEGMENT_SUFFIX));
+        if (files != null) {
+            Arrays.sort(files);
+            for (File file : files) {
+                try {
+                    segments.add(TimeSeriesSegment.open(file, this::indexBlock));
+                } catch (IOException e) {
+                    logger.error("加载时间序列段文件失败，已跳过: {}", file, e);
+                }
+            }
+        }
+        activeSegment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        logger.info("时间序列存储已加载，目录: {}，段文件: {}，序列: {}",
+                directory.getAbsolutePath(), segments.size(), index.size());
+    }
+
+    /**
+     * 未封存的块写盘并关闭段文件
+     */
+    public void close() {
+        for (OpenBlock block : openBlocks.values()) {
+            synchronized (block) {
+                seal(block);
+            }
+        }
+        for (TimeSeriesSegment segment : segments) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                logger.error("关闭时间序列段文件失败: {}", segment.getFile(), e);
+            }
+        }
+    }
+
+    /**
+     * 追加一个采样点，时间戳单位为秒
+     */
+    public void append(Long instanceId, String metric, long timestamp, double value) {
+        if (instanceId == null || Double.isNaN(value)) {
+            return;
+        }
+        String key = seriesKey(instanceId, metric);
+        OpenBlock block = openBlocks.computeIfAbsent(key, k -> new OpenBlock(instanceId, metric));
+        synchronized (block) {
+            TimeSeriesEncoder encoder = block.encoder;
+            if (encoder.getCount() > 0) {
+                if (timestamp < encoder.getLastTimestamp()) {
+                    logger.debug("序列 {} 收到乱序采样 {}，已丢弃", key, timestamp);
+                    return;
+                }
+                if (timestamp - encoder.getFirstTimestamp() >= blockDuration) {
+                    seal(block);
+                }
+            }
+            block.encoder.append(timestamp, value);
+        }
+    }
+
+    /**
+     * 查询 [from, to] 时间范围内（秒，闭区间）的采样点
+     */
+    public TimeSeriesDTO query(Long instanceId, String metric, long from, long to) {
+        String key = seriesKey(instanceId, metric);
+        PointBuffer points = new PointBuffer();
+
+        // 先取正在写入的块，已封存的块只取在它之前结束的，避免与并发封存重复或遗漏
+        byte[] openData = null;
+        int openCount = 0;
+        long openFirst = Long.MAX_VALUE;
+        OpenBlock open = openBlocks.get(key);
+        if (open != null) {
+            synchronized (open) {
+                openCount = open.encoder.getCount();
+                if (openCount > 0) {
+                    openData = open.encoder.toByteArray();
+                    openFirst = open.encoder.getFirstTimestamp();
+                }
+            }
+        }
+
+        List<TimeSeriesSegment.Block> blocks = index.get(key);
+        if (blocks != null) {
+            for (TimeSeriesSegment.Block block : blocks) {
+                if (block.getEnd() < from || block.getStart() > to || block.getEnd() >= openFirst) {
+                    continue;
+                }
+                points.addAll(block.decoder(), from, to);
+            }
+        }
+        if (openData != null && openFirst <= to) {
+            points.addAll(new TimeSeriesDecoder(openData, openCount), from, to);
+        }
+        return new TimeSeriesDTO(instanceId, metric, points.timestamps(), points.values());
+    }
+
+    /**
+     * 封存跨度已满但长时间没有新采样的块（如实例已停用），并清理过期段文件
+     */
+    public void maintain() {
+        long now = System.currentTimeMillis() / 1000;
+        for (OpenBlock block : openBlocks.values()) {
+            synchronized (block) {
+                if (block.encoder.getCount() > 0 && now - block.encoder.getFirstTimestamp() >= blockDuration) {
+                    seal(block);
+                }
+            }
+        }
+
+        long expireBefore = now - retention;
+        for (TimeSeriesSegment segment : segments) {
+            if (segment != activeSegment && segment.getMaxTimestamp() < expireBefore) {
+                dropSegment(segment);
+            }
+        }
+    }
+
+    /**
+     * 将块写入段文件并重置，调用方需持有块的锁
+     */
+    private void seal(OpenBlock block) {
+        TimeSeriesEncoder encoder = block.encoder;
+        if (encoder.getCount() == 0) {
+            return;
+        }
+        try {
+            TimeSeriesSegment.Block sealed = writeBlock(block.instanceId, block.metric, encoder.getFirstTimestamp(),
+                    encoder.getLastTimestamp(), encoder.getCount(), encoder.toByteArray());
+            indexBlock(sealed);
+        } catch (IOException e) {
+            logger.error("写入时间序列数据块失败，丢弃 {} 个采样: {}:{}", encoder.getCount(),
+                    block.instanceId, block.metric, e);
+        }
+        block.encoder = new TimeSeriesEncoder(encoder.getByteLength());
+    }
+
+    private synchronized TimeSeriesSegment.Block writeBlock(long instanceId, String metric, long start, long end,
+                                                            int count, byte[] data) throws IOException {
+        if (activeSegment != null) {
+            TimeSeriesSegment.Block block = activeSegment.append(instanceId, metric, start, end, count, data);
+            if (block != null) {
+                return block;
+            }
+        }
+        File file = new File(directory, String.format("segment-%013d%s", System.currentTimeMillis(), SEGMENT_SUFFIX));
+        activeSegment = TimeSeriesSegment.create(file, segmentSize);
+        segments.add(activeSegment);
+        logger.info("创建时间序列段文件: {}", file.getPath());
+        TimeSeriesSegment.Block block = activeSegment.append(instanceId, metric, start, end, count, data);
+        if (block == null) {
+            throw new IOException("数据块大小超过段文件容量: " + data.length);
+        }
+        return block;
+    }
+
+    private void indexBlock(TimeSeriesSegment.Block block) {
+        index.computeIfAbsent(seriesKey(block.getInstanceId(), block.getMetric()), k -> new CopyOnWriteArrayList<>())
+                .add(block);
+    }
+
+    private synchronized void dropSegment(TimeSeriesSegment segment) {
+        segments.remove(segment);
+        for (List<TimeSeriesSegment.Block> blocks : index.values()) {
+            blocks.removeIf(block -> block.getSegment() == segment);
+        }
+        index.values().removeIf(List::isEmpty);
+        try {
+            segment.close();
+        } catch (IOException e) {
+            logger.warn("关闭过期段文件失败: {}", segment.getFile(), e);
+        }
+        if (segment.getFile().delete()) {
+            logger.info("删除过期时间序列段文件: {}", segment.getFile().getPath());
+        } else {
+            logger.warn("删除过期时间序列段文件失败: {}", segment.getFile());
+        }
+    }
+
+    private static String seriesKey(long instanceId, String metric) {
+        return instanceId + ":" + metric;
+    }
+
+    /**
+     * 正在写入的数据块
+     */
+    private static class OpenBlock {
+        final long instanceId;
+        final String metric;
+        TimeSeriesEncoder encoder = new TimeSeriesEncoder();
+
+        OpenBlock(long instanceId, String metric) {
+            this.instanceId = instanceId;
+            this.metric = metric;
+        }
+    }
+
+    /**
+     * 查询结果缓冲，基本类型数组按需扩容
+     */
+    private static class PointBuffer {
+        private long[] timestamps = new long[256];
+        private double[] values = new double[256];
+        private int size;
+
+        void addAll(TimeSeriesDecoder decoder, long from, long to) {
+            while (decoder.hasNext()) {
+                decoder.next();
+                long timestamp = decoder.timestamp();
+                if (timestamp > to) {
+                    break;
+                }
+                if (timestamp < from) {
+                    continue;
+                }
+                if (size == timestamps.length) {
+                    timestamps = Arrays.copyOf(timestamps, size * 2);
+                    values = Arrays.copyOf(values, size * 2);
+                }
+                timestamps[size] = timestamp;
+                values[size] = decoder.value();
+                size++;
+            }
+        }
+
+        long[] timestamps() {
+            return Arrays.copyOf(timestamps, size);
+        }
+
+        double[] values() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
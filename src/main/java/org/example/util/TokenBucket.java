@@ -0,0 +1,71 @@
+package org.example.util;
+
+/**
+ * 令牌桶限流器
+ * 按固定速率补充令牌，最多积累 capacity 个，可用于平滑突发请求。线程安全。
+ */
+public class TokenBucket {
+
+    private final long capacity;
+    private final long nanosPerToken;
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * @param capacity 桶容量（允许的突发数）
+     * @param tokensPerMinute 每分钟补充的令牌数
+     */
+    public TokenBucket(long capacity, long tokensPerMinute) {
+        if (capacity < 1 || tokensPerMinute < 1) {
+            throw new IllegalArgumentException("capacity and tokensPerMinute must be positive");
+        }
+        this.capacity = capacity;
+        this.nanosPerToken = 60_000_000_000L / tokensPerMinute;
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * 尝试取一个令牌，没有可用令牌时立即返回 false
+     */
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 距离下一个令牌可用还需等待的纳秒数，已有令牌时返回 0
+     */
+    public synchronized long nanosUntilAvailable() {
+        refill();
+        if (tokens >= 1) {
+            return 0L;
+        }
+        return (long) Math.ceil((1 - tokens) * nanosPerToken);
+    }
+
+    /**
+     * 阻塞直到取得一个令牌
+     */
+    public void acquire() throws InterruptedException {
+        while (!tryAcquire()) {
+            long wait = nanosUntilAvailable();
+            if (wait > 0) {
+                Thread.sleep(wait / 1_000_000L, (int) (wait % 1_000_000L));
+            }
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        long elapsed = now - lastRefill;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + (double) elapsed / nanosPerToken);
+            lastRefill = now;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * 有界堆 Top-N
+ * 按给定顺序保留最靠前的 limit 个元素：堆顶是已保留元素中最靠后的一个，新元素比它靠前时替换堆顶。
+ * 内存 O(limit)，每个元素 O(log limit)，与输入规模无关。非线程安全。
+ */
+public class TopN<T> {
+
+    private final int limit;
+    private final Comparator<? super T> order;
+    private final PriorityQueue<T> heap;
+
+    public TopN(int limit, Comparator<? super T> order) {
+        this.limit = limit;
+        this.order = order;
+        this.heap = new PriorityQueue<>(Math.max(1, limit), (a, b) -> order.compare(b, a));
+    }
+
+    /**
+     * 提交一个元素，返回是否被保留（之后仍可能被更靠前的元素挤出）
+     */
+    public boolean offer(T item) {
+        if (limit <= 0) {
+            return false;
+        }
+        if (heap.size() < limit) {
+            heap.add(item);
+            return true;
+        }
+        if (order.compare(item, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(item);
+            return true;
+        }
+        return false;
+    }
+
+    public int size() {
+        return heap.size();
+    }
+
+    /**
+     * 按顺序返回保留的元素
+     */
+    public List<T> toList() {
+        List<T> list = new ArrayList<>(heap);
+        list.sort(order);
+        return list;
+    }
+}
@@ -0,0 +1,21 @@
+-- 创建告警历史表
+CREATE TABLE IF NOT EXISTS alert_history (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '记录ID',
+    rule_id BIGINT COMMENT '规则ID',
+    rule_name VARCHAR(100) COMMENT '规则名称',
+    instance_id BIGINT NOT NULL COMMENT '实例ID',
+    instance_name VARCHAR(100) COMMENT '实例名称',
+    metric VARCHAR(64) COMMENT '监控指标',
+    operator VARCHAR(4) COMMENT '比较运算符',
+    threshold DOUBLE COMMENT '阈值',
+    value DOUBLE COMMENT '触发或恢复时的指标值',
+    severity VARCHAR(20) NOT NULL COMMENT '告警级别：info, warning, critical',
+    status VARCHAR(20) NOT NULL COMMENT '事件状态：firing-触发，resolved-恢复',
+    message VARCHAR(500) COMMENT '告警描述',
+    fired_at DATETIME(3) COMMENT '首次触发时间',
+    event_time DATETIME(3) NOT NULL COMMENT '事件时间',
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    INDEX idx_event_time (event_time, id),
+    INDEX idx_instance_time (instance_id, event_time, id),
+    INDEX idx_severity_time (severity, event_time, id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='告警历史表';
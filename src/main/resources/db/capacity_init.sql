@@ -0,0 +1,32 @@
+-- 创建表大小日采样表（每张表和每个库每天一行）
+CREATE TABLE IF NOT EXISTS table_size_daily (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '记录ID',
+    instance_id BIGINT NOT NULL COMMENT '实例ID',
+    schema_name VARCHAR(64) NOT NULL COMMENT '库名',
+    table_name VARCHAR(64) NOT NULL DEFAULT '' COMMENT '表名，空串表示整个库',
+    sample_date DATE NOT NULL COMMENT '采样日期',
+    size_bytes BIGINT NOT NULL COMMENT '数据和索引大小（字节）',
+    table_rows BIGINT COMMENT '估算行数',
+    UNIQUE KEY uk_table_date (instance_id, schema_name, table_name, sample_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='表大小日采样表';
+
+-- 创建表增长趋势表（增量回归的累计量，每张表和每个库一行）
+-- 横轴以最近采样日为原点（天），历史样本按每天 decay 衰减，增长率为加权最小二乘斜率
+CREATE TABLE IF NOT EXISTS table_growth (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '记录ID',
+    instance_id BIGINT NOT NULL COMMENT '实例ID',
+    schema_name VARCHAR(64) NOT NULL COMMENT '库名',
+    table_name VARCHAR(64) NOT NULL DEFAULT '' COMMENT '表名，空串表示整个库',
+    last_date DATE NOT NULL COMMENT '最近采样日期',
+    last_size BIGINT NOT NULL COMMENT '最近采样大小（字节）',
+    samples INT NOT NULL COMMENT '累计采样天数',
+    sum_w DOUBLE NOT NULL COMMENT '权重和',
+    sum_x DOUBLE NOT NULL COMMENT '加权横轴和',
+    sum_y DOUBLE NOT NULL COMMENT '加权大小和',
+    sum_xx DOUBLE NOT NULL COMMENT '加权横轴平方和',
+    sum_xy DOUBLE NOT NULL COMMENT '加权横轴与大小乘积和',
+    growth_per_day DOUBLE COMMENT '每天增长字节数，样本不足时为空',
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    UNIQUE KEY uk_table (instance_id, schema_name, table_name),
+    INDEX idx_growth (growth_per_day)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='表增长趋势表';
@@ -0,0 +1,16 @@
+-- 创建锁阻塞记录表（每次锁等待分析为每个根阻塞事务保存一行）
+CREATE TABLE IF NOT EXISTS lock_blocker_history (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '记录ID',
+    instance_id BIGINT NOT NULL COMMENT '实例ID',
+    sample_time DATETIME(3) NOT NULL COMMENT '分析时间',
+    trx_id VARCHAR(32) NOT NULL COMMENT '根阻塞事务ID',
+    thread_id BIGINT COMMENT '根阻塞事务的连接ID',
+    sql_text TEXT COMMENT '根阻塞事务当前执行的语句，空闲事务为空',
+    trx_age BIGINT COMMENT '根阻塞事务已持续时间（秒）',
+    waiters INT NOT NULL COMMENT '直接和间接被阻塞的事务数',
+    direct_waiters INT NOT NULL COMMENT '直接被阻塞的事务数',
+    depth INT NOT NULL COMMENT '阻塞链最大深度',
+    max_wait_secs BIGINT COMMENT '被阻塞事务的最长等待时间（秒）',
+    locked_tables VARCHAR(512) COMMENT '等待的表',
+    INDEX idx_instance_time (instance_id, sample_time)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='锁阻塞记录表';
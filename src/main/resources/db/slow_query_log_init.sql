@@ -0,0 +1,29 @@
+-- 创建慢查询日志表（从被监控实例增量采集，界面只查询此表）
+CREATE TABLE IF NOT EXISTS slow_query_log (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '记录ID',
+    instance_id BIGINT NOT NULL COMMENT '实例ID',
+    start_time DATETIME(6) NOT NULL COMMENT '语句开始时间',
+    user_host VARCHAR(255) COMMENT '用户和主机',
+    db VARCHAR(64) COMMENT '默认库名',
+    query_time DOUBLE COMMENT '执行耗时（秒）',
+    lock_time DOUBLE COMMENT '锁等待耗时（秒）',
+    rows_sent BIGINT COMMENT '返回行数',
+    rows_examined BIGINT COMMENT '扫描行数',
+    sql_text TEXT COMMENT '语句文本（超长截断）',
+    digest VARCHAR(16) COMMENT 'SQL指纹摘要',
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    INDEX idx_instance_time (instance_id, start_time, id),
+    INDEX idx_instance_digest (instance_id, digest)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='慢查询日志表';
+
+-- 创建慢查询采集水位表（重启后从上次位置继续）
+CREATE TABLE IF NOT EXISTS slow_log_watermark (
+    instance_id BIGINT PRIMARY KEY COMMENT '实例ID',
+    source VARCHAR(10) NOT NULL COMMENT '采集来源：table-mysql.slow_log表，file-慢日志文件',
+    watermark_us BIGINT COMMENT '表模式：已采集的最大 start_time（微秒时间戳）',
+    watermark_skip INT DEFAULT 0 COMMENT '表模式：start_time 等于水位且已采集的行数',
+    file_path VARCHAR(500) COMMENT '文件模式：慢日志文件路径',
+    file_key VARCHAR(100) COMMENT '文件模式：文件标识（用于识别日志轮转）',
+    file_offset BIGINT DEFAULT 0 COMMENT '文件模式：已读取的字节偏移',
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='慢查询采集水位表';
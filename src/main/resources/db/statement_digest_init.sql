@@ -0,0 +1,26 @@
+-- 创建语句摘要字典表（每个实例的每个摘要只保存一次语句文本）
+CREATE TABLE IF NOT EXISTS statement_digest (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '记录ID',
+    instance_id BIGINT NOT NULL COMMENT '实例ID',
+    schema_name VARCHAR(64) NOT NULL DEFAULT '' COMMENT '默认库名',
+    digest VARCHAR(64) NOT NULL DEFAULT '' COMMENT '语句摘要，空串表示摘要表溢出行',
+    digest_text TEXT COMMENT '规范化后的语句文本',
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    UNIQUE KEY uk_instance_digest (instance_id, schema_name, digest)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='语句摘要字典表';
+
+-- 创建语句摘要增量表（每个采集周期只保存有变化的摘要）
+CREATE TABLE IF NOT EXISTS statement_digest_history (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '记录ID',
+    instance_id BIGINT NOT NULL COMMENT '实例ID',
+    schema_name VARCHAR(64) NOT NULL DEFAULT '' COMMENT '默认库名',
+    digest VARCHAR(64) NOT NULL DEFAULT '' COMMENT '语句摘要',
+    sample_time DATETIME(3) NOT NULL COMMENT '采集时间',
+    exec_count BIGINT NOT NULL COMMENT '区间执行次数',
+    total_latency BIGINT NOT NULL COMMENT '区间累计耗时（微秒）',
+    rows_examined BIGINT NOT NULL COMMENT '区间扫描行数',
+    rows_sent BIGINT NOT NULL COMMENT '区间返回行数',
+    errors BIGINT NOT NULL DEFAULT 0 COMMENT '区间错误次数',
+    INDEX idx_instance_time (instance_id, sample_time),
+    INDEX idx_instance_digest_time (instance_id, digest, sample_time)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='语句摘要增量表';
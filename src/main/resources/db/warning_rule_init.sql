@@ -0,0 +1,27 @@
+-- 创建告警规则表
+CREATE TABLE IF NOT EXISTS warning_rule (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '规则ID',
+    name VARCHAR(100) NOT NULL COMMENT '规则名称',
+    instance_id BIGINT COMMENT '实例ID（为空表示适用于所有实例）',
+    metric VARCHAR(64) NOT NULL COMMENT '监控指标，如 threads_running、qps',
+    rule_type VARCHAR(20) NOT NULL DEFAULT 'threshold' COMMENT '规则类型：threshold-阈值，rate-每秒变化率',
+    operator VARCHAR(4) NOT NULL COMMENT '比较运算符：>, >=, <, <=, ==, !=',
+    threshold DOUBLE NOT NULL COMMENT '阈值',
+    duration INT NOT NULL DEFAULT 1 COMMENT '连续满足条件的采样次数',
+    severity VARCHAR(20) NOT NULL DEFAULT 'warning' COMMENT '告警级别：info, warning, critical',
+    description VARCHAR(255) COMMENT '规则描述',
+    status TINYINT DEFAULT 1 COMMENT '状态：0-禁用，1-启用',
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    INDEX idx_metric (metric),
+    INDEX idx_instance_id (instance_id),
+    INDEX idx_status (status)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='告警规则表';
+
+-- 插入默认规则
+INSERT INTO warning_rule (name, instance_id, metric, rule_type, operator, threshold, duration, severity, description)
+VALUES
+('运行线程数过高', NULL, 'threads_running', 'threshold', '>', 50, 3, 'critical', '连续3次采样运行线程数超过50'),
+('连接数过高', NULL, 'threads_connected', 'threshold', '>', 500, 3, 'warning', '连续3次采样连接数超过500'),
+('慢查询突增', NULL, 'slow_queries_per_sec', 'threshold', '>', 5, 2, 'warning', '连续2次采样每秒慢查询数超过5'),
+('行锁等待', NULL, 'innodb_row_lock_current_waits', 'threshold', '>', 0, 3, 'warning', '连续3次采样存在行锁等待');
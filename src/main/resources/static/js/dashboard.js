@@ -203,8 +203,12 @@ function initializeDashboardPage() {
     // 初始化仪表板页面
     loadDashboardData();
     
-    // 设置定时刷新
-    setInterval(loadDashboardData, 30000); // 30秒刷新一次
+    // 不再定时轮询：实时数据由监控页的服务端推送提供，概览只在页面重新可见时刷新一次
+    document.addEventListener('visibilitychange', function() {
+        if (document.visibilityState === 'visible') {
+            loadDashboardData();
+        }
+    });
 }
 
 function initializeUserManagementPage() {
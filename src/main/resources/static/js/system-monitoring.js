@@ -29,6 +29,8 @@ class SystemMonitor {
             databaseInstanceSelect.addEventListener('change', (e) => {
                 const instanceId = e.target.value;
                 this.updateControlState(instanceId);
+                // 切换实例时关闭原订阅，选中实例后立即订阅新实例的实时数据
+                this.switchMonitoring(instanceId);
                 
                 // 通知Grafana监控系统实例变更
                 if (window.grafanaMonitor) {
@@ -48,6 +50,20 @@ class SystemMonitor {
             });
         }
         
+        // 实时监控开始/停止
+        const startMonitorBtn = document.getElementById('startMonitorBtn');
+        if (startMonitorBtn) {
+            startMonitorBtn.addEventListener('click', () => this.startMonitoring());
+        }
+
+        const stopMonitorBtn = document.getElementById('stopMonitorBtn');
+        if (stopMonitorBtn) {
+            stopMonitorBtn.addEventListener('click', () => this.stopMonitoring());
+        }
+
+        // 离开页面时关闭订阅
+        window.addEventListener('pagehide', () => this.closeMonitoringStream());
+
         // 实例管理按钮
         const addInstanceBtn = document.getElementById('addInstanceBtn');
         if (addInstanceBtn) {
@@ -125,9 +141,14 @@ class SystemMonitor {
         }
     }
 
+    // 实例选择器：独立监控页为 instanceSelect，系统监控页为 databaseInstanceSelect
+    getInstanceSelect() {
+        return document.getElementById('instanceSelect') || document.getElementById('databaseInstanceSelect');
+    }
+
     async loadInstances() {
         try {
-            const select = document.getElementById('instanceSelect');
+            const select = this.getInstanceSelect();
             if (!select) {
                 console.error('实例选择器未找到');
                 return;
@@ -161,7 +182,7 @@ class SystemMonitor {
 
         } catch (error) {
             console.error('加载实例列表失败:', error);
-            const select = document.getElementById('instanceSelect');
+            const select = this.getInstanceSelect();
             if (select) {
                 select.innerHTML = '<option value="">加载实例列表时出错</option>';
             }
@@ -179,6 +200,11 @@ class SystemMonitor {
             editInstanceBtn.disabled = !hasSelectedInstance;
             deleteInstanceBtn.disabled = !hasSelectedInstance;
         }
+
+        const startMonitorBtn = document.getElementById('startMonitorBtn');
+        if (startMonitorBtn) {
+            startMonitorBtn.disabled = !instanceId || this.isMonitoring;
+        }
         
         // 控制添加实例模态框内容显示
         const modalContent = document.querySelector('#addInstanceModal .modal-content');
@@ -367,7 +393,7 @@ class SystemMonitor {
     }
 
     async testConnection() {
-        const instanceSelect = document.getElementById('instanceSelect');
+        const instanceSelect = this.getInstanceSelect();
         const instanceId = instanceSelect?.value;
         
         if (!instanceId) {
@@ -406,26 +432,154 @@ class SystemMonitor {
         }
     }
 
-    stopMonitoring() {
+    startMonitoring() {
+        const instanceSelect = this.getInstanceSelect();
+        const instanceId = instanceSelect?.value || this.currentInstanceId;
+
+        if (!instanceId) {
+            Utils.showMessage('请先选择监控实例', 'warning');
+            return;
+        }
+
+        this.currentInstanceId = instanceId;
+        this.isMonitoring = true;
+
+        const startMonitorBtn = document.getElementById('startMonitorBtn');
+        const stopMonitorBtn = document.getElementById('stopMonitorBtn');
+        if (startMonitorBtn) startMonitorBtn.disabled = true;
+        if (stopMonitorBtn) stopMonitorBtn.disabled = false;
+
+        this.openMonitoringStream();
+        Utils.showMessage('监控已启动', 'success');
+    }
+
+    // 实例选择变化：停止当前实例的订阅，选中了实例时订阅新实例
+    switchMonitoring(instanceId) {
+        if (this.isMonitoring) {
+            this.stopMonitoring(true);
+        }
+        this.currentInstanceId = instanceId || null;
+        if (instanceId) {
+            this.startMonitoring();
+        }
+    }
+
+    // 订阅服务端推送的实时数据，浏览器不支持SSE时退回定时轮询
+    openMonitoringStream() {
+        if (typeof EventSource === 'undefined') {
+            this.fetchRealtimeData();
+            this.monitoringInterval = setInterval(() => this.fetchRealtimeData(), 10000);
+            return;
+        }
+
+        this.streamClientId = this.streamClientId || `client-${Date.now()}-${Math.random().toString(36).slice(2, 8)}`;
+        const url = `/visual-ops/api/monitoring/stream/${this.currentInstanceId}?clientId=${encodeURIComponent(this.streamClientId)}`;
+        this.eventSource = new EventSource(url);
+
+        this.eventSource.addEventListener('snapshot', (event) => {
+            try {
+                const data = this.formatMonitoringData(JSON.parse(event.data));
+                // 推送的快照不含活跃查询，活跃查询由 processlist 增量事件维护
+                delete data.active_queries;
+                this.updateRealtimeMetrics(data);
+                this.updateTableData(data);
+            } catch (error) {
+                console.error('解析实时推送数据失败:', error);
+            }
+        });
+
+        this.eventSource.addEventListener('processlist', (event) => {
+            try {
+                this.applyProcesslistChanges(JSON.parse(event.data));
+            } catch (error) {
+                console.error('解析活跃查询增量失败:', error);
+            }
+        });
+
+        this.eventSource.addEventListener('error', (event) => {
+            // 服务端发送的错误事件带有说明；连接中断时由EventSource自动重连
+            if (event.data) {
+                Utils.showMessage('实时数据订阅失败: ' + event.data, 'error');
+                this.stopMonitoring();
+            }
+        });
+    }
+
+    // 按连接ID维护活跃查询并应用服务端推送的增量，已应用过的旧增量忽略，版本不连续时重新拉取全量
+    applyProcesslistChanges(changes) {
+        if (changes.full) {
+            this.sessions = new Map();
+        } else if (this.sessions && changes.version <= this.processlistVersion) {
+            return;
+        } else if (!this.sessions || changes.from > this.processlistVersion) {
+            this.resyncProcesslist();
+            return;
+        }
+        changes.upserts.forEach(session => this.sessions.set(session.id, session));
+        changes.removed.forEach(id => this.sessions.delete(id));
+        this.processlistVersion = changes.version;
+        this.processlistTimestamp = changes.timestamp || Date.now();
+        this.renderSessions();
+    }
+
+    async resyncProcesslist() {
+        try {
+            const response = await Utils.apiRequest(`/visual-ops/api/monitoring/processlist/${this.currentInstanceId}?since=0`);
+            if (response && response.data) {
+                this.applyProcesslistChanges(response.data);
+            }
+        } catch (error) {
+            console.error('获取活跃查询失败:', error);
+        }
+    }
+
+    // 执行时间由开始时间和快照时间推算，按执行时间倒序展示
+    renderSessions() {
+        const now = this.processlistTimestamp;
+        const queries = Array.from(this.sessions.values())
+            .map(session => Object.assign({}, session, { time: Math.max(0, Math.round((now - session.started_at) / 1000)) }))
+            .sort((a, b) => b.time - a.time);
+        this.updateActiveQueriesTable(queries);
+    }
+
+    closeMonitoringStream() {
+        this.sessions = null;
+        this.processlistVersion = 0;
+        if (this.eventSource) {
+            this.eventSource.close();
+            this.eventSource = null;
+
+            Utils.apiRequest('/visual-ops/api/monitoring/stop', {
+                method: 'POST',
+                headers: {
+                    'Content-Type': 'application/json'
+                },
+                body: JSON.stringify({ instanceId: this.currentInstanceId, clientId: this.streamClientId })
+            }).catch(error => console.error('关闭实时数据订阅失败:', error));
+        }
+    }
+
+    stopMonitoring(silent = false) {
         this.isMonitoring = false;
 
         const startMonitorBtn = document.getElementById('startMonitorBtn');
         const stopMonitorBtn = document.getElementById('stopMonitorBtn');
-        const instanceSelect = document.getElementById('instanceSelect');
 
-        if (startMonitorBtn) startMonitorBtn.disabled = false;
+        if (startMonitorBtn) startMonitorBtn.disabled = !this.getInstanceSelect()?.value;
         if (stopMonitorBtn) stopMonitorBtn.disabled = true;
-        if (instanceSelect) instanceSelect.disabled = false;
 
         if (this.monitoringInterval) {
             clearInterval(this.monitoringInterval);
             this.monitoringInterval = null;
         }
+        this.closeMonitoringStream();
 
         // 重置显示数据
         this.resetDisplayData();
 
-        Utils.showMessage('监控已停止', 'info');
+        if (!silent) {
+            Utils.showMessage('监控已停止', 'info');
+        }
     }
 
     resetDisplayData() {
@@ -694,6 +848,7 @@ class SystemMonitor {
 
     updateSlowQueriesTable(queries) {
         const tbody = document.getElementById('slowQueriesTable');
+        if (!tbody) return;
 
         if (queries.length === 0) {
             tbody.innerHTML = '<tr><td colspan="6" class="text-center">暂无慢查询数据</td></tr>';
@@ -714,6 +869,7 @@ class SystemMonitor {
 
     updateActiveQueriesTable(queries) {
         const tbody = document.getElementById('activeQueriesTable');
+        if (!tbody) return;
 
         if (queries.length === 0) {
             tbody.innerHTML = '<tr><td colspan="7" class="text-center">暂无活跃查询数据</td></tr>';
@@ -726,7 +882,7 @@ class SystemMonitor {
                 <td>${query.user}</td>
                 <td>${query.host}</td>
                 <td>${query.db}</td>
-                <td><span class="status-badge status-${query.state.toLowerCase()}">${query.state}</span></td>
+                <td><span class="status-badge status-${(query.state || '').toLowerCase()}">${query.state || '-'}</span></td>
                 <td>${query.time}s</td>
                 <td class="query-sql" title="${query.info}">${this.truncateText(query.info, 30)}</td>
             </tr>
@@ -735,6 +891,7 @@ class SystemMonitor {
 
     updateTableSpaceTable(tables) {
         const tbody = document.getElementById('tableSpaceTable');
+        if (!tbody) return;
 
         if (tables.length === 0) {
             tbody.innerHTML = '<tr><td colspan="5" class="text-center">暂无表空间数据</td></tr>';